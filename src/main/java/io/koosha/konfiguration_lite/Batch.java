@@ -0,0 +1,132 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.type.Kind;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Values read in one go by {@link Konfiguration#getAll(java.util.Map)}.
+ *
+ * <p>Keys are kept sorted next to their kinds and values in flat arrays,
+ * lookups are binary searches.
+ *
+ * <p>Thread safe and immutable.
+ */
+@Immutable
+@ThreadSafe
+public final class Batch {
+
+    @NotNull
+    private final String source;
+
+    @NotNull
+    private final String[] keys;
+
+    @NotNull
+    private final Kind<?>[] kinds;
+
+    @NotNull
+    private final Object[] values;
+
+    /**
+     * Arrays are taken as is (not copied). keys must be sorted, and all three
+     * must be of the same length.
+     */
+    Batch(@NotNull final String source,
+          @NotNull final String[] keys,
+          @NotNull final Kind<?>[] kinds,
+          @NotNull final Object[] values) {
+        Objects.requireNonNull(source, "source");
+        Objects.requireNonNull(keys, "keys");
+        Objects.requireNonNull(kinds, "kinds");
+        Objects.requireNonNull(values, "values");
+        if (keys.length != kinds.length || keys.length != values.length)
+            throw new KfgAssertionException(source, null, null, null, "batch arrays length mismatch");
+        this.source = source;
+        this.keys = keys;
+        this.kinds = kinds;
+        this.values = values;
+    }
+
+    /**
+     * Get the value read for key.
+     *
+     * @param key  one of the keys requested in the batch.
+     * @param type the kind the key was requested with.
+     * @param <U>  generic type of the value.
+     * @return the value read for key, might be null if the konfiguration
+     * value was null.
+     * @throws KfgMissingKeyException if key was not requested in the batch.
+     * @throws KfgTypeException       if key was requested with another kind.
+     */
+    @Contract(pure = true)
+    public <U> U get(@NotNull final String key,
+                     @NotNull final Kind<U> type) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(type, "type");
+
+        final int index = Arrays.binarySearch(this.keys, key);
+        if (index < 0)
+            throw new KfgMissingKeyException(this.source, key, type);
+        if (!this.kinds[index].type().equals(type.type()))
+            throw new KfgTypeException(this.source, key, type, this.values[index], "key was requested as: " + this.kinds[index]);
+
+        @SuppressWarnings("unchecked")
+        final U u = (U) this.values[index];
+        return u;
+    }
+
+    @Contract(pure = true)
+    public boolean has(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        return Arrays.binarySearch(this.keys, key) >= 0;
+    }
+
+    @Contract(pure = true)
+    public int size() {
+        return this.keys.length;
+    }
+
+    /**
+     * Same values, with the given prefix removed from all keys. All the keys
+     * must start with the prefix, order of keys is thus preserved.
+     */
+    @NotNull
+    @Contract(pure = true)
+    Batch stripPrefix(@NotNull final String prefix) {
+        final String[] stripped = new String[this.keys.length];
+        for (int i = 0; i < this.keys.length; i++)
+            stripped[i] = this.keys[i].substring(prefix.length());
+        return new Batch(this.source, stripped, this.kinds, this.values);
+    }
+
+    /**
+     * Same keys and kinds, with the values of the keys in replacements
+     * replaced. Keys not in this batch are ignored.
+     */
+    @NotNull
+    @Contract(pure = true)
+    Batch withValues(@NotNull final Map<String, ?> replacements) {
+        if (replacements.isEmpty())
+            return this;
+        final Object[] replaced = this.values.clone();
+        for (final Map.Entry<String, ?> each : replacements.entrySet()) {
+            final int index = Arrays.binarySearch(this.keys, each.getKey());
+            if (index >= 0)
+                replaced[index] = each.getValue();
+        }
+        return new Batch(this.source, this.keys, this.kinds, replaced);
+    }
+
+    @Override
+    public String toString() {
+        return "Batch(" + this.source + ")" + Arrays.toString(this.keys);
+    }
+
+}
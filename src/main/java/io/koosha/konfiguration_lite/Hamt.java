@@ -0,0 +1,248 @@
+package io.koosha.konfiguration_lite;
+
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Persistent hash array mapped trie, from strings to non-null values.
+ *
+ * <p>{@link #put(String, Object)} returns a new trie, sharing everything but
+ * the path to the put key with this one. Each level consumes 5 bits of the
+ * hash, so a trie is at most 7 levels deep, and a put copies at most 7 small
+ * arrays.
+ *
+ * <p>Thread safe and immutable.
+ *
+ * @param <V> type of values.
+ */
+@Immutable
+@ThreadSafe
+final class Hamt<V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final Hamt<?> EMPTY = new Hamt<>(new BitmapNode(0, new Object[0]), 0);
+
+    /**
+     * Children are either a pair of key and value, or (in which case the key
+     * slot is null) a pair of null and a child node.
+     */
+    private static final class BitmapNode {
+
+        final int bitmap;
+
+        final Object[] array;
+
+        BitmapNode(final int bitmap,
+                   @NotNull final Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+    }
+
+    /**
+     * Keys with the exact same hash, below all the levels of the trie.
+     */
+    private static final class CollisionNode {
+
+        final String[] keys;
+
+        final Object[] values;
+
+        CollisionNode(@NotNull final String[] keys,
+                      @NotNull final Object[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+    }
+
+    @NotNull
+    private final BitmapNode root;
+
+    private final int size;
+
+    private Hamt(@NotNull final BitmapNode root,
+                 final int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    @NotNull
+    @Contract(pure = true)
+    static <V> Hamt<V> empty() {
+        return (Hamt<V>) EMPTY;
+    }
+
+    @Contract(pure = true)
+    private static int hash(@NotNull final String key) {
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    @Contract(pure = true)
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * @param key the key to look up.
+     * @return value of key, or null if absent.
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    @Contract(pure = true)
+    V get(@NotNull final String key) {
+        final int hash = hash(key);
+        Object node = this.root;
+        for (int shift = 0; ; shift += BITS) {
+            if (node instanceof CollisionNode) {
+                final CollisionNode collision = (CollisionNode) node;
+                for (int i = 0; i < collision.keys.length; i++)
+                    if (collision.keys[i].equals(key))
+                        return (V) collision.values[i];
+                return null;
+            }
+
+            final BitmapNode bitmap = (BitmapNode) node;
+            final int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap.bitmap & bit) == 0)
+                return null;
+            final int i = 2 * Integer.bitCount(bitmap.bitmap & (bit - 1));
+            final Object k = bitmap.array[i];
+            if (k == null)
+                node = bitmap.array[i + 1];
+            else
+                return key.equals(k) ? (V) bitmap.array[i + 1] : null;
+        }
+    }
+
+    /**
+     * @param key   the key to put.
+     * @param value value of key.
+     * @return a trie with key mapped to value, this one is left as is.
+     */
+    @NotNull
+    @Contract(pure = true)
+    Hamt<V> put(@NotNull final String key,
+                @NotNull final V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        final int size = this.get(key) == null ? this.size + 1 : this.size;
+        return new Hamt<>((BitmapNode) put(this.root, 0, hash(key), key, value), size);
+    }
+
+    @NotNull
+    private static Object put(@NotNull final Object node,
+                              final int shift,
+                              final int hash,
+                              @NotNull final String key,
+                              @NotNull final Object value) {
+        if (node instanceof CollisionNode) {
+            // All the bits of the hash are consumed, so it equals the hash of
+            // the keys in here.
+            final CollisionNode collision = (CollisionNode) node;
+            for (int i = 0; i < collision.keys.length; i++)
+                if (collision.keys[i].equals(key)) {
+                    final Object[] values = collision.values.clone();
+                    values[i] = value;
+                    return new CollisionNode(collision.keys, values);
+                }
+            final String[] keys = Arrays.copyOf(collision.keys, collision.keys.length + 1);
+            final Object[] values = Arrays.copyOf(collision.values, collision.values.length + 1);
+            keys[keys.length - 1] = key;
+            values[values.length - 1] = value;
+            return new CollisionNode(keys, values);
+        }
+
+        final BitmapNode bitmap = (BitmapNode) node;
+        final int bit = 1 << ((hash >>> shift) & MASK);
+        final int i = 2 * Integer.bitCount(bitmap.bitmap & (bit - 1));
+
+        if ((bitmap.bitmap & bit) == 0) {
+            final Object[] array = new Object[bitmap.array.length + 2];
+            System.arraycopy(bitmap.array, 0, array, 0, i);
+            array[i] = key;
+            array[i + 1] = value;
+            System.arraycopy(bitmap.array, i, array, i + 2, bitmap.array.length - i);
+            return new BitmapNode(bitmap.bitmap | bit, array);
+        }
+
+        final Object k = bitmap.array[i];
+        final Object v = bitmap.array[i + 1];
+        final Object replacement;
+        if (k == null)
+            replacement = put(v, shift + BITS, hash, key, value);
+        else if (key.equals(k))
+            replacement = null;
+        else
+            replacement = node(shift + BITS, (String) k, v, hash, key, value);
+
+        final Object[] array = bitmap.array.clone();
+        array[i] = replacement == null ? key : null;
+        array[i + 1] = replacement == null ? value : replacement;
+        return new BitmapNode(bitmap.bitmap, array);
+    }
+
+    /**
+     * A node holding the two given pairs, with different keys.
+     */
+    @NotNull
+    private static Object node(final int shift,
+                               @NotNull final String key0,
+                               @NotNull final Object value0,
+                               final int hash1,
+                               @NotNull final String key1,
+                               @NotNull final Object value1) {
+        final int hash0 = hash(key0);
+        if (shift >= Integer.SIZE)
+            return new CollisionNode(new String[]{key0, key1}, new Object[]{value0, value1});
+
+        final int index0 = (hash0 >>> shift) & MASK;
+        final int index1 = (hash1 >>> shift) & MASK;
+        if (index0 == index1)
+            return new BitmapNode(1 << index0,
+                new Object[]{null, node(shift + BITS, key0, value0, hash1, key1, value1)});
+
+        return index0 < index1
+            ? new BitmapNode((1 << index0) | (1 << index1), new Object[]{key0, value0, key1, value1})
+            : new BitmapNode((1 << index0) | (1 << index1), new Object[]{key1, value1, key0, value0});
+    }
+
+    /**
+     * @param action called for each key and its value, in no particular
+     *               order.
+     */
+    @SuppressWarnings("unchecked")
+    void forEach(@NotNull final BiConsumer<? super String, ? super V> action) {
+        forEach(this.root, (BiConsumer<? super String, Object>) action);
+    }
+
+    private static void forEach(@NotNull final Object node,
+                                @NotNull final BiConsumer<? super String, Object> action) {
+        if (node instanceof CollisionNode) {
+            final CollisionNode collision = (CollisionNode) node;
+            for (int i = 0; i < collision.keys.length; i++)
+                action.accept(collision.keys[i], collision.values[i]);
+            return;
+        }
+
+        final Object[] array = ((BitmapNode) node).array;
+        for (int i = 0; i < array.length; i += 2)
+            if (array[i] == null)
+                forEach(array[i + 1], action);
+            else
+                action.accept((String) array[i], array[i + 1]);
+    }
+
+}
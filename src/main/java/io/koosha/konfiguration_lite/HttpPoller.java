@@ -0,0 +1,280 @@
+package io.koosha.konfiguration_lite;
+
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Polls a konfiguration document over http, and swaps each new version of
+ * it into a {@link ReloadableKonfiguration}.
+ *
+ * <p>Polls are conditional GETs, carrying the {@code ETag} and the
+ * {@code Last-Modified} of the current version back as
+ * {@code If-None-Match} and {@code If-Modified-Since}. If the server answers
+ * 304 (not modified) the document is neither downloaded nor parsed again.
+ *
+ * <p>A failed poll (connection error, a status other than 200 and 304, or
+ * a document which can not be parsed) keeps the current version, and is
+ * reported by {@link #lastFailure()} until the next successful poll.
+ *
+ * <p>Thread safe, polls are serialized.
+ */
+@ThreadSafe
+public final class HttpPoller {
+
+    private static final int TIMEOUT_MILLIS = 10_000;
+
+    @NotNull
+    private final String name;
+
+    @NotNull
+    private final URL url;
+
+    @NotNull
+    private final Function<? super String, ? extends Source> parser;
+
+    @NotNull
+    private final ReloadableKonfiguration konfiguration;
+
+    private final Object LOCK = new Object();
+
+    @Nullable
+    private String etag;
+
+    @Nullable
+    private String lastModified;
+
+    @Nullable
+    private volatile KfgSourceException lastFailure;
+
+    /**
+     * Fetch the document once, and create the poller with it as the first
+     * version.
+     *
+     * @param name   name of the source, for error messages.
+     * @param url    http(s) url of the document.
+     * @param parser parses the document, such as
+     *               {@code json -> new ExtJacksonJsonSource(name, json)}.
+     * @throws KfgSourceException if the first fetch fails.
+     */
+    public HttpPoller(@NotNull final String name,
+                      @NotNull final URL url,
+                      @NotNull final Function<? super String, ? extends Source> parser) {
+        this(name, url, parser, null);
+    }
+
+    /**
+     * Same as {@link #HttpPoller(String, URL, Function)}, except that if the
+     * first fetch fails the fallback (such as a copy bundled with the
+     * application) is the first version, and the failure is reported by
+     * {@link #lastFailure()}.
+     *
+     * @param name     name of the source, for error messages.
+     * @param url      http(s) url of the document.
+     * @param parser   parses the document.
+     * @param fallback first version, if the first fetch fails.
+     */
+    public HttpPoller(@NotNull final String name,
+                      @NotNull final URL url,
+                      @NotNull final Function<? super String, ? extends Source> parser,
+                      @Nullable final Konfiguration fallback) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(url, "url");
+        Objects.requireNonNull(parser, "parser");
+        this.name = name;
+        this.url = url;
+        this.parser = parser;
+
+        Source first;
+        synchronized (LOCK) {
+            try {
+                first = this.fetch();
+            }
+            catch (final KfgSourceException e) {
+                if (fallback == null)
+                    throw e;
+                this.lastFailure = e;
+                first = null;
+            }
+        }
+        this.konfiguration = new ReloadableKonfiguration(first == null ? fallback : first);
+    }
+
+
+    /**
+     * @return the konfiguration polled into, reads go to the last good
+     * version.
+     */
+    @NotNull
+    @Contract(pure = true)
+    public ReloadableKonfiguration konfiguration() {
+        return this.konfiguration;
+    }
+
+    /**
+     * @return failure of the last poll, or null if it succeeded (unchanged
+     * included).
+     */
+    @Nullable
+    @Contract(pure = true)
+    public KfgSourceException lastFailure() {
+        return this.lastFailure;
+    }
+
+    /**
+     * Poll once.
+     *
+     * @return true if a new version is swapped in, false if the document is
+     * not modified or the poll failed.
+     */
+    public boolean poll() {
+        synchronized (LOCK) {
+            final Source next;
+            try {
+                next = this.fetch();
+            }
+            catch (final KfgSourceException e) {
+                this.lastFailure = e;
+                return false;
+            }
+            this.lastFailure = null;
+            if (next == null)
+                return false;
+            this.konfiguration.swap(next);
+            return true;
+        }
+    }
+
+    /**
+     * Poll at a fixed rate on the given scheduler, until the returned future
+     * is cancelled.
+     *
+     * @param scheduler scheduler to poll on.
+     * @param period    time between polls.
+     * @param unit      unit of period.
+     * @return future of the polling, to cancel it with.
+     */
+    @NotNull
+    public ScheduledFuture<?> schedule(@NotNull final ScheduledExecutorService scheduler,
+                                       final long period,
+                                       @NotNull final TimeUnit unit) {
+        Objects.requireNonNull(scheduler, "scheduler");
+        Objects.requireNonNull(unit, "unit");
+        return scheduler.scheduleAtFixedRate(this::poll, period, period, unit);
+    }
+
+
+    /**
+     * @return the parsed document, or null if not modified.
+     */
+    @Nullable
+    private Source fetch() {
+        final HttpURLConnection connection;
+        try {
+            final URLConnection opened = this.url.openConnection();
+            if (!(opened instanceof HttpURLConnection))
+                throw new KfgSourceException(this.name, "not an http url: " + this.url);
+            connection = (HttpURLConnection) opened;
+        }
+        catch (final IOException e) {
+            throw new KfgSourceException(this.name, "error connecting to: " + this.url, e);
+        }
+
+        final String body;
+        final String etag;
+        final String lastModified;
+        try {
+            connection.setConnectTimeout(TIMEOUT_MILLIS);
+            connection.setReadTimeout(TIMEOUT_MILLIS);
+            connection.setUseCaches(false);
+            if (this.etag != null)
+                connection.setRequestProperty("If-None-Match", this.etag);
+            if (this.lastModified != null)
+                connection.setRequestProperty("If-Modified-Since", this.lastModified);
+
+            final int status = connection.getResponseCode();
+            if (status != HttpURLConnection.HTTP_OK) {
+                discard(connection);
+                if (status == HttpURLConnection.HTTP_NOT_MODIFIED)
+                    return null;
+                throw new KfgSourceException(this.name, "unexpected http status: " + status + ", url=" + this.url);
+            }
+
+            etag = connection.getHeaderField("ETag");
+            lastModified = connection.getHeaderField("Last-Modified");
+            try (final InputStream input = connection.getInputStream()) {
+                body = read(input);
+            }
+        }
+        catch (final IOException e) {
+            closeErrorStream(connection);
+            throw new KfgSourceException(this.name, "error fetching: " + this.url, e);
+        }
+
+        final Source parsed;
+        try {
+            parsed = Objects.requireNonNull(this.parser.apply(body), "parser returned null");
+        }
+        catch (final KfgSourceException e) {
+            throw e;
+        }
+        catch (final RuntimeException e) {
+            throw new KfgSourceException(this.name, "error parsing: " + this.url, e);
+        }
+
+        // Only once parsed, so that a broken document is fetched again.
+        this.etag = etag;
+        this.lastModified = lastModified;
+        return parsed;
+    }
+
+    /**
+     * Read what is left of the response and close it, rather than
+     * disconnecting, so that the connection is kept alive for the next poll.
+     */
+    private static void discard(@NotNull final HttpURLConnection connection) {
+        final InputStream error = connection.getErrorStream();
+        try (final InputStream remaining = error != null ? error : connection.getInputStream()) {
+            read(remaining);
+        }
+        catch (final IOException ignore) {
+            // Nothing to keep alive then.
+        }
+    }
+
+    private static void closeErrorStream(@NotNull final HttpURLConnection connection) {
+        final InputStream error = connection.getErrorStream();
+        if (error == null)
+            return;
+        try {
+            error.close();
+        }
+        catch (final IOException ignore) {
+            // Nothing to keep alive then.
+        }
+    }
+
+    @NotNull
+    private static String read(@NotNull final InputStream input) throws IOException {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8 * 1024];
+        for (int read = input.read(buffer); read >= 0; read = input.read(buffer))
+            body.write(buffer, 0, read);
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,77 @@
+package io.koosha.konfiguration_lite;
+
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A pool of immutable values (keys, strings, numbers...), so that sources
+ * loaded from similar documents share a single instance of each equal value
+ * instead of keeping their own copies.
+ *
+ * <p>Values are weakly referenced, a value is dropped from the pool once no
+ * source refers to it anymore.
+ *
+ * <p>Only immutable values, with a proper equals and hashCode, may be
+ * interned.
+ */
+@ThreadSafe
+public final class Interner {
+
+    private static final Interner SHARED = new Interner();
+
+    /**
+     * @return the pool shared by every source which is told to intern, but
+     * not given a pool of its own.
+     */
+    @NotNull
+    @Contract(pure = true)
+    public static Interner shared() {
+        return SHARED;
+    }
+
+    private final Map<Object, WeakReference<Object>> pool = new WeakHashMap<>();
+
+    /**
+     * Get the pooled instance equal to value, or pool value if there is no
+     * such instance.
+     *
+     * @param value value to intern.
+     * @param <T>   type of value.
+     * @return the pooled instance, of the same class as value.
+     */
+    @Nullable
+    @Contract("null -> null; !null -> !null")
+    public <T> T intern(@Nullable final T value) {
+        if (value == null)
+            return null;
+
+        synchronized (this.pool) {
+            final WeakReference<Object> ref = this.pool.get(value);
+            final Object pooled = ref == null ? null : ref.get();
+            if (pooled != null && pooled.getClass() == value.getClass()) {
+                @SuppressWarnings("unchecked")
+                final T t = (T) pooled;
+                return t;
+            }
+
+            this.pool.put(value, new WeakReference<>(value));
+            return value;
+        }
+    }
+
+    /**
+     * @return number of values currently in the pool.
+     */
+    public int size() {
+        synchronized (this.pool) {
+            return this.pool.size();
+        }
+    }
+
+}
@@ -0,0 +1,700 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.type.Kind;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Resolves {@code ${other.key}} and {@code ${ENV_VAR:default}} references
+ * inside the string values of the wrapped konfiguration.
+ *
+ * <p>A reference names a key of the wrapped konfiguration, or else an
+ * environment variable, and may have a default used if it is neither. Values
+ * of referenced keys may have references themselves. There is no escaping,
+ * and defaults are taken literally.
+ *
+ * <p>All the references are found and resolved once, at construction: the
+ * keys are ordered by their references, cycles are rejected, and resolved
+ * values are kept in a table, so that a read is a map lookup.
+ * {@link #withBase(Konfiguration)} does the same for a reloaded
+ * konfiguration, recomputing only the values whose template or whose
+ * (transitively) referenced values changed.
+ * {@link #withBase(Konfiguration, Set)} also reads only the keys known to
+ * have changed.
+ *
+ * <p>Over a konfiguration which is not its own {@link #snapshot()}, such as
+ * a {@link ReloadableKonfiguration}, the table is of the version pinned at
+ * construction. The resolved values are then read through
+ * {@link #snapshot()}, which interpolates each new version once, so that
+ * they follow reloads.
+ *
+ * <p>Only string values are resolved, everything else is read from the
+ * wrapped konfiguration as is.
+ *
+ * <p>Thread safe and immutable, as long as the wrapped konfiguration is.
+ */
+@Immutable
+@ThreadSafe
+public final class InterpolatingView implements Konfiguration {
+
+    private static final Kind<Object> OBJECT = Kind.of(Object.class);
+
+    @Immutable
+    private static final class Reference {
+
+        /**
+         * Position of "${" and right after "}" in the template.
+         */
+        final int start;
+        final int end;
+
+        @NotNull
+        final String name;
+
+        @Nullable
+        final String def;
+
+        Reference(final int start,
+                  final int end,
+                  @NotNull final String name,
+                  @Nullable final String def) {
+            this.start = start;
+            this.end = end;
+            this.name = name;
+            this.def = def;
+        }
+
+    }
+
+    /**
+     * A snapshot of the wrapped konfiguration, and its interpolation.
+     */
+    @Immutable
+    private static final class Pinned {
+
+        @NotNull
+        final Konfiguration base;
+
+        @NotNull
+        final InterpolatingView view;
+
+        Pinned(@NotNull final Konfiguration base,
+               @NotNull final InterpolatingView view) {
+            this.base = base;
+            this.view = view;
+        }
+
+    }
+
+    @NotNull
+    private final Konfiguration wrapped;
+
+    @NotNull
+    private final Function<String, String> environment;
+
+    /**
+     * Raw values of the keys which have references.
+     */
+    @NotNull
+    private final Map<String, String> templates;
+
+    /**
+     * References of each of templates.
+     */
+    @NotNull
+    private final Map<String, List<Reference>> references;
+
+    /**
+     * Values of the referenced names which are not templates, as read from
+     * the wrapped konfiguration or the environment. Null if missing from both.
+     */
+    @NotNull
+    private final Map<String, String> leaves;
+
+    @NotNull
+    private final Map<String, String> resolved;
+
+    /**
+     * Last {@link #snapshot()} taken, a cache: a race at worst interpolates
+     * the same version twice. Keeps the version it pinned referenced until
+     * a snapshot of another version is taken.
+     */
+    @Nullable
+    private volatile Pinned pinned;
+
+    /**
+     * Same as {@link #InterpolatingView(Konfiguration, Function)}, with
+     * {@link System#getenv(String)} as the environment.
+     *
+     * @param wrapped the konfiguration to resolve the references of.
+     */
+    public InterpolatingView(@NotNull final Konfiguration wrapped) {
+        this(wrapped, System::getenv);
+    }
+
+    /**
+     * @param wrapped     the konfiguration to resolve the references of. Must
+     *                    support {@link Konfiguration#keys()}.
+     * @param environment looks up the names which are not keys of wrapped,
+     *                    returns null if not defined.
+     * @throws KfgSourceException     if references are cyclic, or wrapped can
+     *                                not enumerate its keys.
+     * @throws KfgMissingKeyException if a reference without a default can not
+     *                                be resolved.
+     */
+    public InterpolatingView(@NotNull final Konfiguration wrapped,
+                             @NotNull final Function<String, String> environment) {
+        this(wrapped, environment, null, null);
+    }
+
+    /**
+     * @param previous view to reuse the unchanged values of, if any.
+     * @param changed  keys changed since previous, to read only them instead
+     *                 of all the keys. Null if not known.
+     */
+    private InterpolatingView(@NotNull final Konfiguration wrapped,
+                              @NotNull final Function<String, String> environment,
+                              @Nullable final InterpolatingView previous,
+                              @Nullable final Set<String> changed) {
+        Objects.requireNonNull(wrapped, "wrapped");
+        Objects.requireNonNull(environment, "environment");
+        this.wrapped = wrapped;
+        this.environment = environment;
+
+        final Konfiguration source = wrapped.snapshot();
+        final Map<String, String> templates;
+        final Map<String, List<Reference>> references;
+        final Map<String, String> leaves = new HashMap<>();
+        if (previous == null || changed == null) {
+            final Set<String> keys = source.keys();
+            templates = new HashMap<>();
+            for (final String key : keys) {
+                final String value = rawString(source, key);
+                if (value != null && value.contains("${"))
+                    templates.put(key, value);
+            }
+
+            references = new HashMap<>();
+            for (final Map.Entry<String, String> template : templates.entrySet()) {
+                final List<Reference> refs = parse(template.getValue());
+                references.put(template.getKey(), refs);
+                for (final Reference ref : refs)
+                    if (!templates.containsKey(ref.name) && !leaves.containsKey(ref.name))
+                        leaves.put(ref.name, keys.contains(ref.name)
+                            ? rawValue(source, ref.name)
+                            : environment.apply(ref.name));
+            }
+        }
+        else {
+            templates = new HashMap<>(previous.templates);
+            references = new HashMap<>(previous.references);
+            for (final String key : changed) {
+                final String value = rawString(source, key);
+                if (value != null && value.contains("${")) {
+                    templates.put(key, value);
+                    references.put(key, parse(value));
+                }
+                else {
+                    templates.remove(key);
+                    references.remove(key);
+                }
+            }
+
+            for (final List<Reference> refs : references.values())
+                for (final Reference ref : refs)
+                    if (!templates.containsKey(ref.name) && !leaves.containsKey(ref.name))
+                        leaves.put(ref.name, previous.leaves.containsKey(ref.name) && !changed.contains(ref.name)
+                            ? previous.leaves.get(ref.name)
+                            : source.has(ref.name, OBJECT)
+                            ? rawValue(source, ref.name)
+                            : environment.apply(ref.name));
+        }
+
+        final Map<String, String> resolved = new HashMap<>();
+        final Set<String> recomputed = new HashSet<>();
+        for (final String key : order(wrapped.name(), references)) {
+            if (previous != null && !isChanged(key, templates, references, leaves, recomputed, previous)) {
+                resolved.put(key, previous.resolved.get(key));
+                continue;
+            }
+            recomputed.add(key);
+            resolved.put(key, this.resolve(key, templates.get(key), references.get(key), leaves, resolved));
+        }
+
+        this.templates = Collections.unmodifiableMap(templates);
+        this.references = Collections.unmodifiableMap(references);
+        this.leaves = Collections.unmodifiableMap(leaves);
+        this.resolved = Collections.unmodifiableMap(resolved);
+
+        // Read through by the live reads of this view.
+        if (source != wrapped)
+            this.pinned = new Pinned(source, new InterpolatingView(source, this));
+    }
+
+    /**
+     * A view over snapshot, sharing the tables of of, which must have been
+     * computed from snapshot.
+     */
+    private InterpolatingView(@NotNull final Konfiguration snapshot,
+                              @NotNull final InterpolatingView of) {
+        this.wrapped = snapshot;
+        this.environment = of.environment;
+        this.templates = of.templates;
+        this.references = of.references;
+        this.leaves = of.leaves;
+        this.resolved = of.resolved;
+    }
+
+    /**
+     * Interpolate a reloaded version of the wrapped konfiguration, reusing
+     * the values of this view which are not affected by the reload.
+     *
+     * @param base the reloaded konfiguration.
+     * @return a new view over base, with the same environment as this.
+     * @throws KfgSourceException     if references are cyclic.
+     * @throws KfgMissingKeyException if a reference without a default can not
+     *                                be resolved.
+     */
+    @NotNull
+    @Contract("_ -> new")
+    public InterpolatingView withBase(@NotNull final Konfiguration base) {
+        return new InterpolatingView(base, this.environment, this, null);
+    }
+
+    /**
+     * Same as {@link #withBase(Konfiguration)}, reading only the changed
+     * keys from base rather than all of its keys.
+     *
+     * @param base    the reloaded konfiguration.
+     * @param changed keys added, removed or changed in base since the
+     *                version this view is of.
+     * @return a new view over base, with the same environment as this.
+     * @throws KfgSourceException     if references are cyclic.
+     * @throws KfgMissingKeyException if a reference without a default can not
+     *                                be resolved.
+     */
+    @NotNull
+    @Contract("_, _ -> new")
+    public InterpolatingView withBase(@NotNull final Konfiguration base,
+                                      @NotNull final Set<String> changed) {
+        Objects.requireNonNull(changed, "changed");
+        return new InterpolatingView(base, this.environment, this, changed);
+    }
+
+
+    @Nullable
+    private static String rawString(@NotNull final Konfiguration source,
+                                    @NotNull final String key) {
+        try {
+            return source.has(key, Kind.STRING) ? source.string(key) : null;
+        }
+        catch (final KfgTypeException notString) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static String rawValue(@NotNull final Konfiguration source,
+                                   @NotNull final String key) {
+        final String string = rawString(source, key);
+        if (string != null)
+            return string;
+        final Object value = source.custom(key, OBJECT);
+        return value == null ? null : String.valueOf(value);
+    }
+
+    @NotNull
+    private static List<Reference> parse(@NotNull final String template) {
+        final List<Reference> refs = new ArrayList<>();
+        int start = template.indexOf("${");
+        while (start >= 0) {
+            final int close = template.indexOf('}', start + 2);
+            if (close < 0)
+                break;
+
+            final String body = template.substring(start + 2, close);
+            final int colon = body.indexOf(':');
+            refs.add(colon < 0
+                ? new Reference(start, close + 1, body, null)
+                : new Reference(start, close + 1, body.substring(0, colon), body.substring(colon + 1)));
+
+            start = template.indexOf("${", close + 1);
+        }
+        return refs;
+    }
+
+    /**
+     * Keys of references, ordered so that each key comes after the keys it
+     * references.
+     */
+    @NotNull
+    private static List<String> order(@NotNull final String source,
+                                      @NotNull final Map<String, List<Reference>> references) {
+        final List<String> order = new ArrayList<>(references.size());
+        final Set<String> done = new HashSet<>();
+        final LinkedHashSet<String> path = new LinkedHashSet<>();
+        // Sorted, so that the reported cycle does not depend on hash order.
+        for (final String key : new TreeMap<>(references).keySet())
+            visit(source, key, references, done, path, order);
+        return order;
+    }
+
+    private static void visit(@NotNull final String source,
+                              @NotNull final String key,
+                              @NotNull final Map<String, List<Reference>> references,
+                              @NotNull final Set<String> done,
+                              @NotNull final LinkedHashSet<String> path,
+                              @NotNull final List<String> order) {
+        if (done.contains(key))
+            return;
+        if (!path.add(key)) {
+            final List<String> cycle = new ArrayList<>(path);
+            cycle.subList(0, cycle.indexOf(key)).clear();
+            cycle.add(key);
+            throw new KfgSourceException(source, "reference cycle: " + String.join(" -> ", cycle));
+        }
+
+        for (final Reference ref : references.get(key))
+            if (references.containsKey(ref.name))
+                visit(source, ref.name, references, done, path, order);
+
+        path.remove(key);
+        done.add(key);
+        order.add(key);
+    }
+
+    private static boolean isChanged(@NotNull final String key,
+                                     @NotNull final Map<String, String> templates,
+                                     @NotNull final Map<String, List<Reference>> references,
+                                     @NotNull final Map<String, String> leaves,
+                                     @NotNull final Set<String> changed,
+                                     @NotNull final InterpolatingView previous) {
+        if (!templates.get(key).equals(previous.templates.get(key)))
+            return true;
+
+        for (final Reference ref : references.get(key))
+            if (templates.containsKey(ref.name)
+                ? changed.contains(ref.name)
+                : !previous.leaves.containsKey(ref.name)
+                || !Objects.equals(leaves.get(ref.name), previous.leaves.get(ref.name)))
+                return true;
+
+        return false;
+    }
+
+    @NotNull
+    private String resolve(@NotNull final String key,
+                           @NotNull final String template,
+                           @NotNull final List<Reference> references,
+                           @NotNull final Map<String, String> leaves,
+                           @NotNull final Map<String, String> resolved) {
+        final StringBuilder sb = new StringBuilder(template.length());
+        int at = 0;
+        for (final Reference ref : references) {
+            String value = resolved.containsKey(ref.name)
+                ? resolved.get(ref.name)
+                : leaves.get(ref.name);
+            if (value == null)
+                value = ref.def;
+            if (value == null)
+                throw new KfgMissingKeyException(this.wrapped.name(), ref.name,
+                    "unresolved reference in: " + key);
+
+            sb.append(template, at, ref.start).append(value);
+            at = ref.end;
+        }
+        return sb.append(template, at, template.length()).toString();
+    }
+
+
+    @Override
+    @Contract(pure = true)
+    @NotNull
+    public String name() {
+        return this.wrapped.name();
+    }
+
+
+    @Override
+    public Boolean bool(@NotNull final String key) {
+        return wrapped.bool(key);
+    }
+
+    @Override
+    public Boolean bool(@NotNull final String key,
+                        final Boolean def) {
+        return wrapped.bool(key, def);
+    }
+
+    @Override
+    public Byte byte_(@NotNull final String key) {
+        return wrapped.byte_(key);
+    }
+
+    @Override
+    public Byte byte_(@NotNull final String key,
+                      final Byte def) {
+        return wrapped.byte_(key, def);
+    }
+
+    @Override
+    public Character char_(@NotNull final String key) {
+        return wrapped.char_(key);
+    }
+
+    @Override
+    public Character char_(@NotNull final String key,
+                           final Character def) {
+        return wrapped.char_(key, def);
+    }
+
+    @Override
+    public Short short_(@NotNull final String key) {
+        return wrapped.short_(key);
+    }
+
+    @Override
+    public Short short_(@NotNull final String key,
+                        final Short def) {
+        return wrapped.short_(key, def);
+    }
+
+    @Override
+    public Integer int_(@NotNull final String key) {
+        return wrapped.int_(key);
+    }
+
+    @Override
+    public Integer int_(@NotNull final String key,
+                        final Integer def) {
+        return wrapped.int_(key, def);
+    }
+
+    @Override
+    public Long long_(@NotNull final String key) {
+        return wrapped.long_(key);
+    }
+
+    @Override
+    public Long long_(@NotNull final String key,
+                      final Long def) {
+        return wrapped.long_(key, def);
+    }
+
+    @Override
+    public Float float_(@NotNull final String key) {
+        return wrapped.float_(key);
+    }
+
+    @Override
+    public Float float_(@NotNull final String key,
+                        final Float def) {
+        return wrapped.float_(key, def);
+    }
+
+    @Override
+    public Double double_(@NotNull final String key) {
+        return wrapped.double_(key);
+    }
+
+    @Override
+    public Double double_(@NotNull final String key,
+                          final Double def) {
+        return wrapped.double_(key, def);
+    }
+
+    @Override
+    public String string(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        final InterpolatingView current = this.current();
+        if (current != this)
+            return current.string(key);
+        final String value = this.resolved.get(key);
+        return value != null ? value : wrapped.string(key);
+    }
+
+    @Override
+    public String string(@NotNull final String key,
+                         final String def) {
+        Objects.requireNonNull(key, "key");
+        final InterpolatingView current = this.current();
+        if (current != this)
+            return current.string(key, def);
+        final String value = this.resolved.get(key);
+        return value != null ? value : wrapped.string(key, def);
+    }
+
+    @Override
+    public <U> List<U> list(@NotNull final String key,
+                            @NotNull final Kind<U> type) {
+        return wrapped.list(key, type);
+    }
+
+    @Override
+    public <U> List<U> list(@NotNull final String key,
+                            @NotNull final Kind<U> type,
+                            final List<U> def) {
+        return wrapped.list(key, type, def);
+    }
+
+    @Override
+    public <U> Set<U> set(@NotNull final String key,
+                          @NotNull final Kind<U> type) {
+        return wrapped.set(key, type);
+    }
+
+    @Override
+    public <U> Set<U> set(@NotNull final String key,
+                          @NotNull final Kind<U> type,
+                          final Set<U> def) {
+        return wrapped.set(key, type, def);
+    }
+
+    @Override
+    public IntBuffer intArray(@NotNull final String key) {
+        return wrapped.intArray(key);
+    }
+
+    @Override
+    public LongBuffer longArray(@NotNull final String key) {
+        return wrapped.longArray(key);
+    }
+
+    @Override
+    public DoubleBuffer doubleArray(@NotNull final String key) {
+        return wrapped.doubleArray(key);
+    }
+
+    @Override
+    public <U> U custom(@NotNull final String key,
+                        @NotNull final Kind<U> type) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(type, "type");
+        final InterpolatingView current = this.current();
+        if (current != this)
+            return current.custom(key, type);
+        final String value = this.resolved.get(key);
+        return value != null && type.klass().isAssignableFrom(String.class)
+            ? type.klass().cast(value)
+            : wrapped.custom(key, type);
+    }
+
+    @Override
+    public <U> U custom(@NotNull final String key,
+                        @NotNull final Kind<U> type,
+                        final U def) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(type, "type");
+        final InterpolatingView current = this.current();
+        if (current != this)
+            return current.custom(key, type, def);
+        final String value = this.resolved.get(key);
+        return value != null && type.klass().isAssignableFrom(String.class)
+            ? type.klass().cast(value)
+            : wrapped.custom(key, type, def);
+    }
+
+    /**
+     * Read by the wrapped konfiguration in one go, the values of the keys
+     * requested as strings are then replaced by their resolved values.
+     */
+    @NotNull
+    @Override
+    public Batch getAll(@NotNull final Map<String, Kind<?>> keys) {
+        Objects.requireNonNull(keys, "keys");
+        final InterpolatingView current = this.current();
+        if (current != this)
+            return current.getAll(keys);
+
+        final Batch batch = wrapped.getAll(keys);
+        final Map<String, String> replacements = new HashMap<>();
+        for (final Map.Entry<String, Kind<?>> each : keys.entrySet()) {
+            final String value = this.resolved.get(each.getKey());
+            if (value != null && each.getValue().klass().isAssignableFrom(String.class))
+                replacements.put(each.getKey(), value);
+        }
+        return batch.withValues(replacements);
+    }
+
+    @Override
+    public boolean has(@NotNull final String key,
+                       @NotNull final Kind<?> type) {
+        return wrapped.has(key, type);
+    }
+
+    @Contract(pure = true,
+              value = "_ -> new")
+    @NotNull
+    @Override
+    public Konfiguration subset(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        return new SubsetView(this.name() + "::" + key, this, key);
+    }
+
+    @NotNull
+    @Override
+    public Set<String> keys() {
+        return wrapped.keys();
+    }
+
+    @NotNull
+    @Override
+    public Set<String> keys(@NotNull final String prefix) {
+        return wrapped.keys(prefix);
+    }
+
+    /**
+     * If the wrapped konfiguration is not its own snapshot, the snapshot is
+     * interpolated as in {@link #withBase(Konfiguration)}. The view is kept
+     * and returned as long as wrapped pins the same version, so that
+     * references are resolved once per version rather than once per
+     * snapshot. If wrapped is a {@link ReloadableKonfiguration} which knows
+     * the keys its last swap changed, only those keys are read, as in
+     * {@link #withBase(Konfiguration, Set)}.
+     */
+    @NotNull
+    @Override
+    public Konfiguration snapshot() {
+        return this.current();
+    }
+
+    @NotNull
+    private InterpolatingView current() {
+        final Konfiguration base = wrapped.snapshot();
+        if (base == wrapped)
+            return this;
+
+        final Pinned last = this.pinned;
+        if (last != null && last.base == base)
+            return last.view;
+
+        final Set<String> changed = last != null && wrapped instanceof ReloadableKonfiguration
+            ? ((ReloadableKonfiguration) wrapped).changedSince(last.base)
+            : null;
+        final InterpolatingView previous = last == null ? this : last.view;
+        final InterpolatingView view = changed == null
+            ? previous.withBase(base)
+            : previous.withBase(base, changed);
+        this.pinned = new Pinned(base, view);
+        return view;
+    }
+
+}
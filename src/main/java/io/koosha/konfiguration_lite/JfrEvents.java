@@ -0,0 +1,125 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.type.Kind;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Java Flight Recorder events of konfigurations: loading of sources,
+ * reloads, and reads slower than a threshold.
+ *
+ * <p>This is the Java 8 version, which records nothing. The jar carries a
+ * Java 11 version of this class (under {@code META-INF/versions/11}) which
+ * emits the events, see {@code src/main/java11}. Both have the same
+ * signatures.
+ *
+ * <p>Each event is started by a {@code *Start()} method returning a token,
+ * which is null if the event is disabled, and is ended by passing the token
+ * back. No work is done and nothing is allocated for disabled events.
+ *
+ * <p>For internal use of sources and views.
+ */
+@ApiStatus.Internal
+public final class JfrEvents {
+
+    private JfrEvents() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Start timing the construction of a source.
+     *
+     * @return token of the event, or null if disabled.
+     */
+    @Nullable
+    @Contract(pure = true)
+    public static Object loadStart() {
+        return null;
+    }
+
+    /**
+     * End the construction of a source.
+     *
+     * @param token  the token returned by {@link #loadStart()}.
+     * @param source name of the source.
+     * @param format format of the source, such as json.
+     * @param bytes  size of the document the source is parsed from, in
+     *               chars (or bytes), -1 if not known.
+     * @param root   root of the parsed document.
+     * @param nodes  counts the nodes of root, called only if enabled.
+     * @param <T>    type of root.
+     */
+    public static <T> void loaded(@Nullable final Object token,
+                                  @NotNull final String source,
+                                  @NotNull final String format,
+                                  final long bytes,
+                                  @Nullable final T root,
+                                  @NotNull final ToLongFunction<? super T> nodes) {
+    }
+
+    /**
+     * Start timing a reload.
+     *
+     * @return token of the event, or null if disabled.
+     */
+    @Nullable
+    @Contract(pure = true)
+    public static Object reloadStart() {
+        return null;
+    }
+
+    /**
+     * End a reload, once the new version is swapped in.
+     *
+     * @param token   the token returned by {@link #reloadStart()}.
+     * @param name    name of the reloaded konfiguration.
+     * @param changed keys changed by the reload, or null if not known. Only
+     *                called if the event is recorded.
+     */
+    public static void reloaded(@Nullable final Object token,
+                                @NotNull final String name,
+                                @NotNull final Supplier<Set<String>> changed) {
+    }
+
+    /**
+     * Start timing a read.
+     *
+     * @return token of the event, or null if disabled.
+     */
+    @Nullable
+    @Contract(pure = true)
+    public static Object readStart() {
+        return null;
+    }
+
+    /**
+     * End a read, recorded only if slower than the threshold of the event.
+     *
+     * @param token  the token returned by {@link #readStart()}.
+     * @param source name of the source read from.
+     * @param prefix prefix of key in the source it descended from, empty if
+     *               none. Concatenated only for recorded events.
+     * @param key    the key read.
+     * @param kind   the kind read, of the elements for lists, sets and
+     *               arrays.
+     * @param value  the value read.
+     * @param <T>    type of value.
+     * @return value.
+     */
+    @Contract("_, _, _, _, _, _ -> param6")
+    public static <T> T read(@Nullable final Object token,
+                             @NotNull final String source,
+                             @NotNull final String prefix,
+                             @NotNull final String key,
+                             @NotNull final Kind<?> kind,
+                             final T value) {
+        return value;
+    }
+
+}
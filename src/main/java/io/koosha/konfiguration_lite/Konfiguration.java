@@ -5,7 +5,11 @@ import net.jcip.annotations.ThreadSafe;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -144,6 +148,32 @@ public interface Konfiguration {
                    @NotNull Kind<U> type,
                    Set<U> def);
 
+    /**
+     * Get a list of ints konfiguration value, as a read-only view of a
+     * primitive column. The column is decoded once and shared among calls,
+     * no element is boxed.
+     *
+     * @param key unique key of the konfiguration being requested.
+     * @return konfiguration value wrapper for the requested key.
+     */
+    IntBuffer intArray(@NotNull String key);
+
+    /**
+     * Get a list of longs konfiguration value, see {@link #intArray(String)}.
+     *
+     * @param key unique key of the konfiguration being requested.
+     * @return konfiguration value wrapper for the requested key.
+     */
+    LongBuffer longArray(@NotNull String key);
+
+    /**
+     * Get a list of doubles konfiguration value, see {@link #intArray(String)}.
+     *
+     * @param key unique key of the konfiguration being requested.
+     * @return konfiguration value wrapper for the requested key.
+     */
+    DoubleBuffer doubleArray(@NotNull String key);
+
     /**
      * Get a custom object of type Q konfiguration value.
      *
@@ -166,6 +196,21 @@ public interface Konfiguration {
                  @NotNull Kind<U> type,
                  U def);
 
+    /**
+     * Read multiple values at once. Equivalent of calling
+     * {@link #custom(String, Kind)} for each key, but sources may resolve the
+     * whole batch with a single lock acquisition and walk of their backing
+     * storage.
+     *
+     * @param keys keys to read, mapped to the kind each one is read as.
+     * @return values read, by key.
+     * @throws KfgMissingKeyException if any of the keys is missing.
+     * @throws KfgTypeException       if any of the values is not of the
+     *                                requested kind.
+     */
+    @NotNull
+    Batch getAll(@NotNull Map<String, Kind<?>> keys);
+
     // =========================================================================
 
     /**
@@ -192,6 +237,48 @@ public interface Konfiguration {
     @Contract(pure = true)
     Konfiguration subset(@NotNull String key);
 
+    /**
+     * All the leaf keys (dot separated) in this konfiguration, iterated in
+     * sorted order.
+     *
+     * @return unmodifiable set of all the leaf keys.
+     * @throws KfgSourceException if the underlying source can not enumerate
+     *                            its keys.
+     */
+    @NotNull
+    @Contract(pure = true)
+    Set<String> keys();
+
+    /**
+     * All the leaf keys under the namespace of the given prefix, iterated in
+     * sorted order. The returned keys are fully qualified (they include the
+     * prefix). A prefix of {@code "a"} matches {@code "a.b"} but not
+     * {@code "ab"}.
+     *
+     * @param prefix namespace to look into.
+     * @return unmodifiable set of the leaf keys under prefix.
+     * @throws KfgSourceException if the underlying source can not enumerate
+     *                            its keys.
+     */
+    @NotNull
+    @Contract(pure = true)
+    Set<String> keys(@NotNull String prefix);
+
+    /**
+     * Pin the current version of this konfiguration, so that any number of
+     * reads through the returned konfiguration (and its subsets) see the same
+     * values, even if this konfiguration is reloaded in between.
+     *
+     * <p>Pinning is by reference, nothing is copied. The pinned version is
+     * garbage collected once the snapshot is no longer referenced.
+     * Konfigurations which never change return themselves.
+     *
+     * @return the current version of this konfiguration.
+     */
+    @NotNull
+    @Contract(pure = true)
+    Konfiguration snapshot();
+
 
     // =========================================================================
 
@@ -0,0 +1,229 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.type.Kind;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * A source which creates (reads and parses) its actual source only when it
+ * is first accessed, through {@link #has(String, Kind)} or any of the getters.
+ *
+ * <p>The actual source is created at most once. If creating it fails, the
+ * failure is kept and reported (wrapped in a {@link KfgSourceException}) on
+ * every access. An {@link Error} is thrown as is to the access hitting it,
+ * and reported wrapped from then on.
+ *
+ * <p>Thread safe, as long as the created source is thread safe.
+ */
+@ThreadSafe
+public final class LazySource extends Source {
+
+    @NotNull
+    private final String name;
+
+    private final Object LOCK = new Object();
+
+    @Nullable
+    private Supplier<? extends Source> factory;
+
+    @Nullable
+    private volatile Source source;
+
+    @Nullable
+    private volatile Throwable failure;
+
+    /**
+     * @param name    name of this source, available without creating the
+     *                actual source.
+     * @param factory creates the actual source, called at most once.
+     */
+    public LazySource(@NotNull final String name,
+                      @NotNull final Supplier<? extends Source> factory) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(factory, "factory");
+        this.name = name;
+        this.factory = factory;
+    }
+
+    /**
+     * Create the actual source on the common fork join pool, if not already
+     * created.
+     *
+     * @return future completed once the actual source is created.
+     */
+    @NotNull
+    public CompletableFuture<Source> warmUp() {
+        return this.warmUp(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create the actual source on the given executor, if not already created.
+     *
+     * @param executor executor to create the source on.
+     * @return future completed once the actual source is created.
+     */
+    @NotNull
+    public CompletableFuture<Source> warmUp(@NotNull final Executor executor) {
+        Objects.requireNonNull(executor, "executor");
+        final Source loaded = this.source;
+        return loaded != null
+            ? CompletableFuture.completedFuture(loaded)
+            : CompletableFuture.supplyAsync(this::source, executor);
+    }
+
+    /**
+     * @return true if the actual source is created (successfully).
+     */
+    @Contract(pure = true)
+    public boolean isLoaded() {
+        return this.source != null;
+    }
+
+    @NotNull
+    private Source source() {
+        Source loaded = this.source;
+        if (loaded != null)
+            return loaded;
+
+        synchronized (LOCK) {
+            loaded = this.source;
+            if (loaded == null && this.failure == null) {
+                try {
+                    loaded = Objects.requireNonNull(this.factory, "factory").get();
+                    Objects.requireNonNull(loaded, "factory returned null");
+                    this.source = loaded;
+                }
+                catch (final Throwable e) {
+                    this.failure = e;
+                    if (e instanceof Error)
+                        throw (Error) e;
+                }
+                finally {
+                    this.factory = null;
+                }
+            }
+        }
+
+        if (loaded == null)
+            throw new KfgSourceException(this.name, "error loading lazy source", this.failure);
+        return loaded;
+    }
+
+
+    @NotNull
+    @Override
+    public String name() {
+        return this.name;
+    }
+
+    @Override
+    public boolean has(@NotNull final String key,
+                       @NotNull final Kind<?> type) {
+        return this.source().has(key, type);
+    }
+
+    @Override
+    protected boolean isNull(@NotNull final String key) {
+        return this.source().isNull(key);
+    }
+
+    @NotNull
+    @Override
+    protected Object bool0(@NotNull final String key) {
+        return this.source().bool0(key);
+    }
+
+    @NotNull
+    @Override
+    protected Object char0(@NotNull final String key) {
+        return this.source().char0(key);
+    }
+
+    @NotNull
+    @Override
+    protected Object string0(@NotNull final String key) {
+        return this.source().string0(key);
+    }
+
+    @NotNull
+    @Override
+    protected Number number0(@NotNull final String key) {
+        return this.source().number0(key);
+    }
+
+    @NotNull
+    @Override
+    protected Number numberDouble0(@NotNull final String key) {
+        return this.source().numberDouble0(key);
+    }
+
+    @NotNull
+    @Override
+    protected List<?> list0(@NotNull final String key,
+                            @NotNull final Kind<?> type) {
+        return this.source().list0(key, type);
+    }
+
+    @NotNull
+    @Override
+    protected Set<?> set0(@NotNull final String key,
+                          @NotNull final Kind<?> type) {
+        return this.source().set0(key, type);
+    }
+
+    @NotNull
+    @Override
+    protected Object custom0(@NotNull final String key,
+                             @NotNull final Kind<?> type) {
+        return this.source().custom0(key, type);
+    }
+
+    @NotNull
+    @Override
+    protected int[] intArray0(@NotNull final String key) {
+        return this.source().intArray0(key);
+    }
+
+    @NotNull
+    @Override
+    protected long[] longArray0(@NotNull final String key) {
+        return this.source().longArray0(key);
+    }
+
+    @NotNull
+    @Override
+    protected double[] doubleArray0(@NotNull final String key) {
+        return this.source().doubleArray0(key);
+    }
+
+    @Override
+    protected void batch(@NotNull final String[] keys,
+                         @NotNull final Kind<?>[] kinds,
+                         @NotNull final Object[] values) {
+        this.source().batch(keys, kinds, values);
+    }
+
+    @Nullable
+    @Override
+    protected Source descend(@NotNull final String key) {
+        return this.source().descend(key);
+    }
+
+    @NotNull
+    @Override
+    protected Collection<String> keys0() {
+        return this.source().keys0();
+    }
+
+}
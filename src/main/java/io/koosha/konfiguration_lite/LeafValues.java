@@ -0,0 +1,219 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.type.Kind;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Typing rules of sources keeping their leaf values as plain java objects
+ * (rather than as nodes of a parsed document), such as frozen sources and
+ * overlays.
+ *
+ * <p>Values are {@link #freeze(Object) frozen} once, when taken in, so that
+ * the rules check fewer cases.
+ *
+ * <p>For internal use of sources.
+ */
+@ApiStatus.Internal
+public final class LeafValues {
+
+    private LeafValues() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Integral numbers are kept as longs and floating point numbers as
+     * doubles, lists and sets are copied into unmodifiable collections.
+     *
+     * @param value the value to freeze.
+     * @return the frozen value.
+     */
+    @Nullable
+    @Contract(pure = true)
+    public static Object freeze(@Nullable final Object value) {
+        if (value instanceof Byte || value instanceof Short || value instanceof Integer)
+            return ((Number) value).longValue();
+        if (value instanceof Float)
+            return ((Number) value).doubleValue();
+        if (value instanceof List)
+            return Collections.unmodifiableList(new ArrayList<>((List<?>) value));
+        if (value instanceof Set)
+            return Collections.unmodifiableSet(new HashSet<>((Set<?>) value));
+        return value;
+    }
+
+    /**
+     * Whether the frozen value can be read as the given type, following the
+     * same rules as {@link io.koosha.konfiguration_lite.ext.v8.ExtMapSource}.
+     *
+     * @param value a frozen value, null is read as any type.
+     * @param type  type to read value as.
+     * @return true if value can be read as type.
+     */
+    @Contract(pure = true)
+    public static boolean accepts(@Nullable final Object value,
+                                  @NotNull final Kind<?> type) {
+        if (value == null)
+            return true;
+
+        if (value instanceof Long) {
+            final long primitive = (Long) value;
+            return type.isByte() && Byte.MIN_VALUE <= primitive && primitive <= Byte.MAX_VALUE
+                || type.isShort() && Short.MIN_VALUE <= primitive && primitive <= Short.MAX_VALUE
+                || type.isInt() && Integer.MIN_VALUE <= primitive && primitive <= Integer.MAX_VALUE
+                || type.isLong()
+                || type.isFloat()
+                || type.isDouble()
+                || type.klass() == Object.class
+                || type.klass() == Number.class;
+        }
+        if (value instanceof Double || value instanceof BigDecimal || value instanceof BigInteger)
+            return type.isFloat()
+                || type.isDouble()
+                || type.klass().isInstance(value);
+        if (value instanceof String)
+            return type.isString()
+                || type.isChar() && ((String) value).length() == 1
+                || type.klass().isInstance(value);
+
+        return type.isBool() && value instanceof Boolean
+            || type.isList() && value instanceof Collection
+            || type.isSet() && value instanceof Collection
+            || type.isChar() && value instanceof Character
+            || type.klass().isInstance(value);
+    }
+
+    @NotNull
+    public static Number number(@NotNull final String source,
+                                @NotNull final String key,
+                                @Nullable final Object value) {
+        if (value instanceof Number)
+            return (Number) value;
+        throw new KfgTypeException(source, key, Kind.LONG, value);
+    }
+
+    /**
+     * Elements are widened to the requested type the same way single values
+     * are, an integer element is read as a long and so on.
+     *
+     * @throws KfgTypeException if value is not a collection, or an integral
+     *                          element is out of the range of type.
+     */
+    @NotNull
+    public static List<?> list(@NotNull final String source,
+                               @NotNull final String key,
+                               @NotNull final Kind<?> type,
+                               @Nullable final Object value) {
+        if (value instanceof List)
+            return widen(source, key, type, (List<?>) value);
+        if (value instanceof Set)
+            return widen(source, key, type, Collections.unmodifiableList(new ArrayList<>((Set<?>) value)));
+        throw new KfgTypeException(source, key, type.asList(), value);
+    }
+
+    /**
+     * Same as {@link #list(String, String, Kind, Object)}, failing if the
+     * elements are not unique.
+     */
+    @NotNull
+    public static Set<?> set(@NotNull final String source,
+                             @NotNull final String key,
+                             @NotNull final Kind<?> type,
+                             @Nullable final Object value) {
+        if (value instanceof Set && !widens(type))
+            return (Set<?>) value;
+
+        final List<?> asList = list(source, key, type, value);
+        final Set<?> asSet = new HashSet<>(asList);
+        if (asSet.size() != asList.size())
+            throw new KfgTypeException(source, key, type.asSet(), asList, "is a list, not a set");
+        return Collections.unmodifiableSet(asSet);
+    }
+
+    @Contract(pure = true)
+    private static boolean widens(@NotNull final Kind<?> type) {
+        return type.isByte() || type.isShort() || type.isInt() || type.isLong()
+            || type.isFloat() || type.isDouble() || type.isChar();
+    }
+
+    @NotNull
+    private static List<?> widen(@NotNull final String source,
+                                 @NotNull final String key,
+                                 @NotNull final Kind<?> type,
+                                 @NotNull final List<?> list) {
+        if (!widens(type))
+            return list;
+
+        final List<Object> widened = new ArrayList<>(list.size());
+        for (final Object element : list)
+            widened.add(widen(source, key, type, list, element));
+        return Collections.unmodifiableList(widened);
+    }
+
+    /**
+     * Element converted to type where the conversion is lossless, else the
+     * element as is, which the caller then rejects if it is not of type.
+     */
+    @Nullable
+    private static Object widen(@NotNull final String source,
+                                @NotNull final String key,
+                                @NotNull final Kind<?> type,
+                                @NotNull final List<?> list,
+                                @Nullable final Object element) {
+        if (type.isChar())
+            return element instanceof String && ((String) element).length() == 1
+                ? ((String) element).charAt(0)
+                : element;
+
+        if (element instanceof Byte || element instanceof Short || element instanceof Integer || element instanceof Long) {
+            final long primitive = ((Number) element).longValue();
+            if (type.isByte() && (primitive < Byte.MIN_VALUE || Byte.MAX_VALUE < primitive)
+                || type.isShort() && (primitive < Short.MIN_VALUE || Short.MAX_VALUE < primitive)
+                || type.isInt() && (primitive < Integer.MIN_VALUE || Integer.MAX_VALUE < primitive))
+                throw new KfgTypeException(source, key, type.asList(), list, "element out of range: " + element);
+
+            if (type.isByte())
+                return (byte) primitive;
+            if (type.isShort())
+                return (short) primitive;
+            if (type.isInt())
+                return (int) primitive;
+            if (type.isLong())
+                return primitive;
+            if (type.isFloat())
+                return (float) primitive;
+            return (double) primitive;
+        }
+
+        if (element instanceof Float || element instanceof Double) {
+            if (type.isFloat())
+                return ((Number) element).floatValue();
+            if (type.isDouble())
+                return ((Number) element).doubleValue();
+        }
+
+        return element;
+    }
+
+    @NotNull
+    public static Object custom(@NotNull final String source,
+                                @NotNull final String key,
+                                @NotNull final Kind<?> type,
+                                @Nullable final Object value) {
+        if (!type.klass().isInstance(value))
+            throw new KfgTypeException(source, key, type, value);
+        return value;
+    }
+
+}
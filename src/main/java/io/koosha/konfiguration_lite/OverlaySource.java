@@ -0,0 +1,311 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.type.Kind;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Overrides of some of the keys of a base source, such as the few overrides
+ * of a tenant on top of a config shared by all the tenants:
+ * <pre>{@code
+ * final OverlaySource acme = new OverlaySource("acme", base)
+ *     .with("limits.rps", 500)
+ *     .without("features.beta");
+ * }</pre>
+ *
+ * <p>Only the overrides are kept here, in a persistent hash trie, the base
+ * is shared (not copied). So {@link #with(String, Object)} costs about the
+ * size of the override, not of the base, and the variants created from one
+ * overlay share their common overrides as well. A read is one lookup in the
+ * trie, and a read of the base if the key is not overridden. Overlays may be
+ * stacked, reads then cost at most one lookup per overlay.
+ *
+ * <p>Overrides are on leaf keys, overriding or removing {@code a} does not
+ * hide {@code a.b} of the base.
+ *
+ * <p>Override values are taken as plain java objects, and are read with the
+ * same rules as {@link io.koosha.konfiguration_lite.ext.v8.ExtMapSource}.
+ *
+ * <p>Thread safe and immutable, as long as the base is.
+ */
+@Immutable
+@ThreadSafe
+public final class OverlaySource extends Source {
+
+    /**
+     * Value of overrides which remove their key.
+     */
+    private static final Object REMOVED = new Object();
+
+    /**
+     * Value of overrides setting their key to null, the trie takes no nulls.
+     */
+    private static final Object NULL = new Object();
+
+    @NotNull
+    private final String name;
+
+    @NotNull
+    private final Source base;
+
+    @NotNull
+    private final Hamt<Object> overrides;
+
+    /**
+     * An overlay with no overrides yet.
+     *
+     * @param name name of this source.
+     * @param base the source to override.
+     */
+    public OverlaySource(@NotNull final String name,
+                         @NotNull final Source base) {
+        this(Objects.requireNonNull(name, "name"), Objects.requireNonNull(base, "base"), Hamt.empty());
+    }
+
+    private OverlaySource(@NotNull final String name,
+                          @NotNull final Source base,
+                          @NotNull final Hamt<Object> overrides) {
+        this.name = name;
+        this.base = base;
+        this.overrides = overrides;
+    }
+
+
+    /**
+     * @param key   the key to override.
+     * @param value the new value of key, may be null.
+     * @return an overlay with key overridden, this one is left as is.
+     */
+    @NotNull
+    @Contract(value = "_, _ -> new",
+              pure = true)
+    public OverlaySource with(@NotNull final String key,
+                              @Nullable final Object value) {
+        Objects.requireNonNull(key, "key");
+        final Object frozen = LeafValues.freeze(value);
+        return new OverlaySource(this.name, this.base, this.overrides.put(key, frozen == null ? NULL : frozen));
+    }
+
+    /**
+     * Same as {@link #with(String, Object)}, for each of the given keys.
+     *
+     * @param overrides keys to their new values, which may be null.
+     * @return an overlay with the keys overridden, this one is left as is.
+     */
+    @NotNull
+    @Contract(value = "_ -> new",
+              pure = true)
+    public OverlaySource with(@NotNull final Map<String, ?> overrides) {
+        Objects.requireNonNull(overrides, "overrides");
+        Hamt<Object> updated = this.overrides;
+        for (final Map.Entry<String, ?> override : overrides.entrySet()) {
+            final Object frozen = LeafValues.freeze(override.getValue());
+            updated = updated.put(Objects.requireNonNull(override.getKey(), "key"), frozen == null ? NULL : frozen);
+        }
+        return new OverlaySource(this.name, this.base, updated);
+    }
+
+    /**
+     * @param key the key to remove.
+     * @return an overlay with key removed, this one is left as is.
+     */
+    @NotNull
+    @Contract(value = "_ -> new",
+              pure = true)
+    public OverlaySource without(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        return new OverlaySource(this.name, this.base, this.overrides.put(key, REMOVED));
+    }
+
+    /**
+     * @return the overridden source.
+     */
+    @NotNull
+    @Contract(pure = true)
+    public Source base() {
+        return this.base;
+    }
+
+    /**
+     * @return number of overridden (or removed) keys.
+     */
+    @Contract(pure = true)
+    public int overrides() {
+        return this.overrides.size();
+    }
+
+    /**
+     * @return the override of key, or null if not overridden.
+     */
+    @Nullable
+    private Object override(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        return this.overrides.get(key);
+    }
+
+    @Nullable
+    private static Object value(@NotNull final Object override) {
+        return override == NULL ? null : override;
+    }
+
+    private void requirePresent(@NotNull final String key,
+                                @NotNull final Object override) {
+        if (override == REMOVED)
+            throw new KfgMissingKeyException(this.name, key);
+    }
+
+
+    @NotNull
+    @Override
+    public String name() {
+        return this.name;
+    }
+
+    @Override
+    public boolean has(@NotNull final String key,
+                       @NotNull final Kind<?> type) {
+        Objects.requireNonNull(type, "type");
+        final Object override = this.override(key);
+        if (override == null)
+            return this.base.has(key, type);
+        return override != REMOVED && LeafValues.accepts(value(override), type);
+    }
+
+    @Override
+    protected boolean isNull(@NotNull final String key) {
+        final Object override = this.override(key);
+        if (override == null)
+            return this.base.isNull(key);
+        this.requirePresent(key, override);
+        return override == NULL;
+    }
+
+    @NotNull
+    @Override
+    protected Object bool0(@NotNull final String key) {
+        final Object override = this.override(key);
+        if (override == null)
+            return this.base.bool0(key);
+        this.requirePresent(key, override);
+        return override;
+    }
+
+    @NotNull
+    @Override
+    protected Object char0(@NotNull final String key) {
+        final Object override = this.override(key);
+        if (override == null)
+            return this.base.char0(key);
+        this.requirePresent(key, override);
+        return override;
+    }
+
+    @NotNull
+    @Override
+    protected Object string0(@NotNull final String key) {
+        final Object override = this.override(key);
+        if (override == null)
+            return this.base.string0(key);
+        this.requirePresent(key, override);
+        return override;
+    }
+
+    @NotNull
+    @Override
+    protected Number number0(@NotNull final String key) {
+        final Object override = this.override(key);
+        if (override == null)
+            return this.base.number0(key);
+        this.requirePresent(key, override);
+        return LeafValues.number(this.name, key, override);
+    }
+
+    @NotNull
+    @Override
+    protected Number numberDouble0(@NotNull final String key) {
+        final Object override = this.override(key);
+        if (override == null)
+            return this.base.numberDouble0(key);
+        this.requirePresent(key, override);
+        return LeafValues.number(this.name, key, override);
+    }
+
+    @NotNull
+    @Override
+    protected List<?> list0(@NotNull final String key,
+                            @NotNull final Kind<?> type) {
+        final Object override = this.override(key);
+        if (override == null)
+            return this.base.list0(key, type);
+        this.requirePresent(key, override);
+        return LeafValues.list(this.name, key, type, override);
+    }
+
+    @NotNull
+    @Override
+    protected Set<?> set0(@NotNull final String key,
+                          @NotNull final Kind<?> type) {
+        final Object override = this.override(key);
+        if (override == null)
+            return this.base.set0(key, type);
+        this.requirePresent(key, override);
+        return LeafValues.set(this.name, key, type, override);
+    }
+
+    @NotNull
+    @Override
+    protected Object custom0(@NotNull final String key,
+                             @NotNull final Kind<?> type) {
+        final Object override = this.override(key);
+        if (override == null)
+            return this.base.custom0(key, type);
+        this.requirePresent(key, override);
+        return LeafValues.custom(this.name, key, type, override);
+    }
+
+    @NotNull
+    @Override
+    protected int[] intArray0(@NotNull final String key) {
+        return this.override(key) == null ? this.base.intArray0(key) : super.intArray0(key);
+    }
+
+    @NotNull
+    @Override
+    protected long[] longArray0(@NotNull final String key) {
+        return this.override(key) == null ? this.base.longArray0(key) : super.longArray0(key);
+    }
+
+    @NotNull
+    @Override
+    protected double[] doubleArray0(@NotNull final String key) {
+        return this.override(key) == null ? this.base.doubleArray0(key) : super.doubleArray0(key);
+    }
+
+    /**
+     * The keys of the base, with the overridden keys added and the removed
+     * ones taken out. Needs the base to support key enumeration.
+     */
+    @NotNull
+    @Override
+    protected Collection<String> keys0() {
+        final Set<String> keys = new LinkedHashSet<>(this.base.keys());
+        this.overrides.forEach((key, override) -> {
+            if (override == REMOVED)
+                keys.remove(key);
+            else
+                keys.add(key);
+        });
+        return keys;
+    }
+
+}
@@ -0,0 +1,456 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.type.Kind;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current version of a konfiguration, which is replaced as a whole
+ * on reload with {@link #swap(Konfiguration)}.
+ *
+ * <p>Each read goes to the version current at the time of that read, so two
+ * reads may see two different versions. Reads which must agree with each
+ * other should go through a {@link #snapshot()}, which pins the current
+ * version by reference:
+ * <pre>{@code
+ * final Konfiguration k = reloadable.snapshot();
+ * connect(k.string("db.host"), k.int_("db.port"));
+ * }</pre>
+ *
+ * <p>Subsets of this konfiguration follow reloads, subsets of a snapshot do
+ * not.
+ *
+ * <p>Thread safe, as long as the versions are thread safe.
+ */
+@ThreadSafe
+public final class ReloadableKonfiguration implements Konfiguration {
+
+    /**
+     * A pinned version, and the snapshot wrapping it.
+     */
+    private static final class Pinned {
+
+        @NotNull
+        final Konfiguration version;
+
+        @NotNull
+        final Konfiguration snapshot;
+
+        Pinned(@NotNull final Konfiguration version,
+               @NotNull final Konfiguration snapshot) {
+            this.version = version;
+            this.snapshot = snapshot;
+        }
+
+    }
+
+    /**
+     * The last swap, and the keys it changed. The replaced version and its
+     * snapshot are weakly referenced, so that they are collected once no
+     * snapshot holds them.
+     */
+    private static final class Swap {
+
+        @NotNull
+        final WeakReference<Konfiguration> previous;
+
+        /**
+         * Snapshot of the replaced version taken by {@link #snapshot()}, if
+         * any.
+         */
+        @NotNull
+        final WeakReference<Konfiguration> previousSnapshot;
+
+        @NotNull
+        final Konfiguration next;
+
+        /**
+         * Given to the swap, or else compared on first use. A race at worst
+         * compares twice.
+         */
+        @Nullable
+        private volatile Set<String> changed;
+
+        Swap(@NotNull final Konfiguration previous,
+             @Nullable final Konfiguration previousSnapshot,
+             @NotNull final Konfiguration next,
+             @Nullable final Set<String> changed) {
+            this.previous = new WeakReference<>(previous);
+            this.previousSnapshot = new WeakReference<>(previousSnapshot);
+            this.next = next;
+            this.changed = changed;
+        }
+
+        /**
+         * @return the changed keys, or null if not known: the replaced
+         * version is collected or can not enumerate its keys.
+         */
+        @Nullable
+        Set<String> changed() {
+            Set<String> changed = this.changed;
+            if (changed != null)
+                return changed;
+
+            final Konfiguration previous = this.previous.get();
+            if (previous == null)
+                return null;
+            changed = changedKeys(previous, this.next);
+            this.changed = changed;
+            return changed;
+        }
+
+    }
+
+    private static final Kind<Object> OBJECT = Kind.of(Object.class);
+
+    private final AtomicReference<Konfiguration> current;
+
+    /**
+     * Last {@link #snapshot()} taken, a cache. Cleared on swap, so that it
+     * does not keep a replaced version from being collected.
+     */
+    @Nullable
+    private volatile Pinned pinned;
+
+    @Nullable
+    private volatile Swap swap;
+
+    public ReloadableKonfiguration(@NotNull final Konfiguration initial) {
+        Objects.requireNonNull(initial, "initial");
+        this.current = new AtomicReference<>(initial);
+    }
+
+    /**
+     * Replace the current version. Snapshots already taken keep reading the
+     * version they pinned.
+     *
+     * @param next the new version.
+     * @return the replaced version.
+     */
+    @NotNull
+    public Konfiguration swap(@NotNull final Konfiguration next) {
+        Objects.requireNonNull(next, "next");
+        return this.swap0(next, null);
+    }
+
+    /**
+     * Same as {@link #swap(Konfiguration)}, when the changed keys are known,
+     * such as the keys of the deltas a new version is derived with. Views
+     * over this konfiguration which would otherwise compare the two versions
+     * key by key, such as {@link InterpolatingView}, use them instead.
+     *
+     * @param next    the new version.
+     * @param changed keys added, removed or changed in next. Copied.
+     * @return the replaced version.
+     */
+    @NotNull
+    public Konfiguration swap(@NotNull final Konfiguration next,
+                              @NotNull final Set<String> changed) {
+        Objects.requireNonNull(next, "next");
+        Objects.requireNonNull(changed, "changed");
+        return this.swap0(next, Collections.unmodifiableSet(new HashSet<>(changed)));
+    }
+
+    @NotNull
+    private Konfiguration swap0(@NotNull final Konfiguration next,
+                                @Nullable final Set<String> changed) {
+        final Object token = JfrEvents.reloadStart();
+        final Pinned pinned = this.pinned;
+        final Konfiguration previous = this.current.getAndSet(next);
+        this.pinned = null;
+        final Swap swap = new Swap(
+            previous,
+            pinned != null && pinned.version == previous.snapshot() ? pinned.snapshot : null,
+            next,
+            changed);
+        this.swap = swap;
+        JfrEvents.reloaded(token, next.name(), swap::changed);
+        return previous;
+    }
+
+    /**
+     * @param snapshot a snapshot taken by {@link #snapshot()}.
+     * @return the keys changed since the version snapshot pins, or null if
+     * not known, as that is not the version the last swap replaced.
+     */
+    @Nullable
+    Set<String> changedSince(@NotNull final Konfiguration snapshot) {
+        final Swap swap = this.swap;
+        return swap != null && swap.previousSnapshot.get() == snapshot && swap.next == this.current.get()
+            ? swap.changed()
+            : null;
+    }
+
+    /**
+     * Keys added, removed or with another value in next, compared key by key.
+     *
+     * @return the changed keys, or null if either can not enumerate its keys.
+     */
+    @Nullable
+    static Set<String> changedKeys(@NotNull final Konfiguration previous,
+                                   @NotNull final Konfiguration next) {
+        final Set<String> keys;
+        try {
+            keys = new TreeSet<>(previous.keys());
+            keys.addAll(next.keys());
+        }
+        catch (final KfgSourceException unsupported) {
+            return null;
+        }
+
+        final Set<String> changed = new HashSet<>();
+        for (final String key : keys)
+            if (!previous.has(key, OBJECT)
+                || !next.has(key, OBJECT)
+                || !Objects.equals(previous.custom(key, OBJECT), next.custom(key, OBJECT)))
+                changed.add(key);
+        return Collections.unmodifiableSet(changed);
+    }
+
+    /**
+     * @return the current version, as is.
+     */
+    @NotNull
+    @Contract(pure = true)
+    public Konfiguration current() {
+        return this.current.get();
+    }
+
+
+    @Override
+    @Contract(pure = true)
+    @NotNull
+    public String name() {
+        return this.current.get().name();
+    }
+
+
+    @Override
+    public Boolean bool(@NotNull final String key) {
+        return current.get().bool(key);
+    }
+
+    @Override
+    public Boolean bool(@NotNull final String key,
+                        final Boolean def) {
+        return current.get().bool(key, def);
+    }
+
+    @Override
+    public Byte byte_(@NotNull final String key) {
+        return current.get().byte_(key);
+    }
+
+    @Override
+    public Byte byte_(@NotNull final String key,
+                      final Byte def) {
+        return current.get().byte_(key, def);
+    }
+
+    @Override
+    public Character char_(@NotNull final String key) {
+        return current.get().char_(key);
+    }
+
+    @Override
+    public Character char_(@NotNull final String key,
+                           final Character def) {
+        return current.get().char_(key, def);
+    }
+
+    @Override
+    public Short short_(@NotNull final String key) {
+        return current.get().short_(key);
+    }
+
+    @Override
+    public Short short_(@NotNull final String key,
+                        final Short def) {
+        return current.get().short_(key, def);
+    }
+
+    @Override
+    public Integer int_(@NotNull final String key) {
+        return current.get().int_(key);
+    }
+
+    @Override
+    public Integer int_(@NotNull final String key,
+                        final Integer def) {
+        return current.get().int_(key, def);
+    }
+
+    @Override
+    public Long long_(@NotNull final String key) {
+        return current.get().long_(key);
+    }
+
+    @Override
+    public Long long_(@NotNull final String key,
+                      final Long def) {
+        return current.get().long_(key, def);
+    }
+
+    @Override
+    public Float float_(@NotNull final String key) {
+        return current.get().float_(key);
+    }
+
+    @Override
+    public Float float_(@NotNull final String key,
+                        final Float def) {
+        return current.get().float_(key, def);
+    }
+
+    @Override
+    public Double double_(@NotNull final String key) {
+        return current.get().double_(key);
+    }
+
+    @Override
+    public Double double_(@NotNull final String key,
+                          final Double def) {
+        return current.get().double_(key, def);
+    }
+
+    @Override
+    public String string(@NotNull final String key) {
+        return current.get().string(key);
+    }
+
+    @Override
+    public String string(@NotNull final String key,
+                         final String def) {
+        return current.get().string(key, def);
+    }
+
+    @Override
+    public <U> List<U> list(@NotNull final String key,
+                            @NotNull final Kind<U> type) {
+        return current.get().list(key, type);
+    }
+
+    @Override
+    public <U> List<U> list(@NotNull final String key,
+                            @NotNull final Kind<U> type,
+                            final List<U> def) {
+        return current.get().list(key, type, def);
+    }
+
+    @Override
+    public <U> Set<U> set(@NotNull final String key,
+                          @NotNull final Kind<U> type) {
+        return current.get().set(key, type);
+    }
+
+    @Override
+    public <U> Set<U> set(@NotNull final String key,
+                          @NotNull final Kind<U> type,
+                          final Set<U> def) {
+        return current.get().set(key, type, def);
+    }
+
+    @Override
+    public IntBuffer intArray(@NotNull final String key) {
+        return current.get().intArray(key);
+    }
+
+    @Override
+    public LongBuffer longArray(@NotNull final String key) {
+        return current.get().longArray(key);
+    }
+
+    @Override
+    public DoubleBuffer doubleArray(@NotNull final String key) {
+        return current.get().doubleArray(key);
+    }
+
+    @Override
+    public <U> U custom(@NotNull final String key,
+                        @NotNull final Kind<U> type) {
+        return current.get().custom(key, type);
+    }
+
+    @Override
+    public <U> U custom(@NotNull final String key,
+                        @NotNull final Kind<U> type,
+                        final U def) {
+        return current.get().custom(key, type, def);
+    }
+
+    /**
+     * All the keys are read from the same version.
+     */
+    @NotNull
+    @Override
+    public Batch getAll(@NotNull final Map<String, Kind<?>> keys) {
+        return current.get().getAll(keys);
+    }
+
+    @Override
+    public boolean has(@NotNull final String key,
+                       @NotNull final Kind<?> type) {
+        return current.get().has(key, type);
+    }
+
+    @Contract(pure = true,
+              value = "_ -> new")
+    @NotNull
+    @Override
+    public Konfiguration subset(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        return new SubsetView(this.name() + "::" + key, this, key);
+    }
+
+    @NotNull
+    @Override
+    public Set<String> keys() {
+        return current.get().keys();
+    }
+
+    @NotNull
+    @Override
+    public Set<String> keys(@NotNull final String prefix) {
+        return current.get().keys(prefix);
+    }
+
+    /**
+     * The pinned version is wrapped in a {@link SubsetView} of no base key,
+     * so that subsets can be taken from it, even if it is a bare source.
+     * Snapshots of the same version are the same object, so that the views
+     * over this konfiguration can tell a reload from another snapshot.
+     */
+    @Contract(pure = true)
+    @NotNull
+    @Override
+    public Konfiguration snapshot() {
+        final Konfiguration now = current.get();
+        final Konfiguration version = now.snapshot();
+        final Pinned last = this.pinned;
+        if (last != null && last.version == version)
+            return last.snapshot;
+
+        final Konfiguration snapshot = new SubsetView(version.name(), version, "");
+        this.pinned = new Pinned(version, snapshot);
+        // Swapped meanwhile, the clearing might have come first.
+        if (current.get() != now)
+            this.pinned = null;
+        return snapshot;
+    }
+
+}
@@ -0,0 +1,334 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.type.Kind;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Declares the keys a source must (or may) have, along with their kinds and
+ * optional constraints on their values.
+ *
+ * <p>A schema is checked against a source once, with
+ * {@link #validate(Source)}, which returns a validated snapshot of the
+ * source. Declared keys are read and checked once, reads of them through
+ * the snapshot skip the type probing of the source entirely. Undeclared keys
+ * are read from the source as usual.
+ *
+ * <p>Schemas are built with the {@code with*} methods, each returning a new
+ * schema:
+ * <pre>{@code
+ * Schema.empty()
+ *       .with("db.port", Kind.INT)
+ *       .withRange("db.port", 1, 65535)
+ *       .withOptional("db.name", Kind.STRING)
+ *       .withPattern("db.name", "[a-z_]+");
+ * }</pre>
+ *
+ * <p>Thread safe and immutable.
+ */
+@Immutable
+@ThreadSafe
+public final class Schema {
+
+    @Immutable
+    private static final class Rule {
+
+        @NotNull
+        final Kind<?> kind;
+
+        final boolean required;
+
+        final double min;
+
+        final double max;
+
+        @Nullable
+        final Pattern pattern;
+
+        Rule(@NotNull final Kind<?> kind,
+             final boolean required,
+             final double min,
+             final double max,
+             @Nullable final Pattern pattern) {
+            this.kind = kind;
+            this.required = required;
+            this.min = min;
+            this.max = max;
+            this.pattern = pattern;
+        }
+
+    }
+
+    private static final Schema EMPTY = new Schema(Collections.emptyMap());
+
+    private static final Kind<Object> OBJECT = Kind.of(Object.class);
+
+    /**
+     * @return a schema declaring no keys.
+     */
+    @NotNull
+    @Contract(pure = true)
+    public static Schema empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Sorted, so that validation reads the keys in order.
+     */
+    @NotNull
+    private final Map<String, Rule> rules;
+
+    private Schema(@NotNull final Map<String, Rule> rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Declare a required key.
+     *
+     * @param key  the key.
+     * @param kind kind of the value of key. Lists and sets must declare
+     *             their element type, as in {@code Kind.INT.asList()}.
+     * @return a new schema, with key declared.
+     * @throws KfgIllegalArgumentException if key is already declared, or
+     *                                     kind is a collection of unknown
+     *                                     element type.
+     */
+    @NotNull
+    @Contract(pure = true)
+    public Schema with(@NotNull final String key,
+                       @NotNull final Kind<?> kind) {
+        return this.declare(key, kind, true);
+    }
+
+    /**
+     * Same as {@link #with(String, Kind)}, except that key may be missing
+     * from the source.
+     *
+     * @param key  the key.
+     * @param kind kind of the value of key.
+     * @return a new schema, with key declared.
+     */
+    @NotNull
+    @Contract(pure = true)
+    public Schema withOptional(@NotNull final String key,
+                               @NotNull final Kind<?> kind) {
+        return this.declare(key, kind, false);
+    }
+
+    /**
+     * Constrain the value of an already declared key to [min, max]. Numbers
+     * are compared by their value, strings by their length and collections
+     * by their size.
+     *
+     * @param key the key.
+     * @param min smallest allowed value, inclusive.
+     * @param max largest allowed value, inclusive.
+     * @return a new schema, with key constrained.
+     * @throws KfgIllegalArgumentException if key is not declared, or min is
+     *                                     larger than max.
+     */
+    @NotNull
+    @Contract(pure = true)
+    public Schema withRange(@NotNull final String key,
+                            final double min,
+                            final double max) {
+        if (min > max)
+            throw new KfgIllegalArgumentException(null, "min is larger than max, key=" + key);
+        final Rule rule = this.rule(key);
+        return this.put(key, new Rule(rule.kind, rule.required, min, max, rule.pattern));
+    }
+
+    /**
+     * Constrain the value of an already declared key to strings matching
+     * the given regex in full.
+     *
+     * @param key   the key.
+     * @param regex the pattern, compiled here once.
+     * @return a new schema, with key constrained.
+     * @throws KfgIllegalArgumentException if key is not declared.
+     */
+    @NotNull
+    @Contract(pure = true)
+    public Schema withPattern(@NotNull final String key,
+                              @NotNull final String regex) {
+        Objects.requireNonNull(regex, "regex");
+        final Rule rule = this.rule(key);
+        return this.put(key, new Rule(rule.kind, rule.required, rule.min, rule.max, Pattern.compile(regex)));
+    }
+
+    /**
+     * @return the declared keys and their kinds, sorted by key.
+     */
+    @NotNull
+    @Contract(pure = true)
+    public Map<String, Kind<?>> keys() {
+        final Map<String, Kind<?>> keys = new TreeMap<>();
+        for (final Map.Entry<String, Rule> each : this.rules.entrySet())
+            keys.put(each.getKey(), each.getValue().kind);
+        return Collections.unmodifiableMap(keys);
+    }
+
+    @NotNull
+    private Schema declare(@NotNull final String key,
+                           @NotNull final Kind<?> kind,
+                           final boolean required) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(kind, "kind");
+        if (this.rules.containsKey(key))
+            throw new KfgIllegalArgumentException(null, "key already declared: " + key);
+        if (kind.isCollection() && !kind.isParametrized())
+            throw new KfgIllegalArgumentException(null, "element type of collection is not known, key=" + key);
+        return this.put(key, new Rule(kind, required, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, null));
+    }
+
+    @NotNull
+    private Rule rule(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        final Rule rule = this.rules.get(key);
+        if (rule == null)
+            throw new KfgIllegalArgumentException(null, "key not declared: " + key);
+        return rule;
+    }
+
+    @NotNull
+    private Schema put(@NotNull final String key,
+                       @NotNull final Rule rule) {
+        final Map<String, Rule> rules = new TreeMap<>(this.rules);
+        rules.put(key, rule);
+        return new Schema(Collections.unmodifiableMap(rules));
+    }
+
+
+    /**
+     * Check source against this schema, and take a snapshot of the declared
+     * keys.
+     *
+     * @param source the source to validate.
+     * @return a source serving the declared keys from the snapshot, and
+     * everything else from source.
+     * @throws KfgMissingKeyException if a required key is missing from
+     *                                source.
+     * @throws KfgTypeException       if a key, required or optional, is
+     *                                present but not of the declared kind,
+     *                                or its value violates a constraint.
+     *                                If more than one key is invalid, the
+     *                                rest are added as suppressed exceptions
+     *                                of the first one.
+     */
+    @NotNull
+    @Contract("_ -> new")
+    public Source validate(@NotNull final Source source) {
+        Objects.requireNonNull(source, "source");
+
+        final Map<String, Kind<?>> kinds = new HashMap<>();
+        final Map<String, Object> values = new HashMap<>();
+        final List<RuntimeException> errors = new ArrayList<>();
+
+        for (final Map.Entry<String, Rule> each : this.rules.entrySet()) {
+            final String key = each.getKey();
+            final Rule rule = each.getValue();
+
+            if (!source.has(key, rule.kind)) {
+                // Present, but of another kind, is an error even if optional.
+                if (source.has(key, OBJECT))
+                    errors.add(new KfgTypeException(source.name(), key, rule.kind,
+                        source.custom(key, OBJECT), "not of the declared kind"));
+                else if (rule.required)
+                    errors.add(new KfgMissingKeyException(source.name(), key, rule.kind));
+                continue;
+            }
+
+            final Object value;
+            try {
+                value = source.custom(key, rule.kind);
+                checkConstraints(source.name(), key, rule, value);
+            }
+            catch (final KfgMissingKeyException | KfgTypeException e) {
+                errors.add(e);
+                continue;
+            }
+
+            kinds.put(key, rule.kind);
+            values.put(key, value);
+        }
+
+        if (!errors.isEmpty()) {
+            final RuntimeException error = errors.get(0);
+            for (final RuntimeException each : errors.subList(1, errors.size()))
+                error.addSuppressed(each);
+            throw error;
+        }
+
+        return new ValidatedSource(source, kinds, values);
+    }
+
+    private static void checkConstraints(@NotNull final String source,
+                                         @NotNull final String key,
+                                         @NotNull final Rule rule,
+                                         @Nullable final Object value) {
+        if (value == null)
+            return;
+
+        final double measure;
+        if (value instanceof Number)
+            measure = ((Number) value).doubleValue();
+        else if (value instanceof CharSequence)
+            measure = ((CharSequence) value).length();
+        else if (value instanceof Collection)
+            measure = ((Collection<?>) value).size();
+        else
+            measure = Double.NaN;
+
+        if (!Double.isNaN(measure) && (measure < rule.min || rule.max < measure))
+            throw new KfgTypeException(source, key, rule.kind, value,
+                "out of range [" + rule.min + ", " + rule.max + "]");
+
+        if (rule.pattern != null
+            && (!(value instanceof CharSequence) || !rule.pattern.matcher((CharSequence) value).matches()))
+            throw new KfgTypeException(source, key, rule.kind, value,
+                "does not match pattern: " + rule.pattern.pattern());
+    }
+
+    /**
+     * Whether two types are the same, regardless of the implementation of
+     * {@link ParameterizedType} used.
+     */
+    @Contract(pure = true)
+    static boolean sameType(@NotNull final Type a,
+                            @NotNull final Type b) {
+        if (a.equals(b))
+            return true;
+        if (!(a instanceof ParameterizedType) || !(b instanceof ParameterizedType))
+            return false;
+
+        final ParameterizedType pa = (ParameterizedType) a;
+        final ParameterizedType pb = (ParameterizedType) b;
+        if (!pa.getRawType().equals(pb.getRawType()))
+            return false;
+
+        final Type[] aa = pa.getActualTypeArguments();
+        final Type[] ba = pb.getActualTypeArguments();
+        if (aa.length != ba.length)
+            return false;
+        for (int i = 0; i < aa.length; i++)
+            if (!sameType(aa[i], ba[i]))
+                return false;
+        return true;
+    }
+
+}
@@ -5,33 +5,130 @@ import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.Buffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Special version of {@link Konfiguration}, intended to go into a Kombiner.
  */
 public abstract class Source implements Konfiguration {
 
+    /**
+     * Sorted index of {@link #keys0()}, built on first use. Racing threads
+     * may build it more than once, which is harmless as sources are immutable.
+     */
+    @Nullable
+    private volatile NavigableSet<String> keyIndex;
+
+    /**
+     * Change of keys since the source this one is patched from, to build
+     * {@link #keyIndex} from the index of that one rather than from
+     * {@link #keys0()}, see {@link #Source(Source, Collection, Collection)}.
+     * Dropped once the index is built.
+     */
+    @Nullable
+    private volatile KeyPatch keyPatch;
+
+    /**
+     * Keys of the source this one descended from, see
+     * {@link #Source(Source, String)}. Empty for the others.
+     */
+    @NotNull
+    private final String keyPrefix;
+
+    /**
+     * Read-only primitive columns decoded by {@link #intArray(String)} and
+     * its siblings, by key.
+     */
+    private final Map<String, Buffer> columns = new ConcurrentHashMap<>();
+
+    /**
+     * Collections returned by {@link #list(String, Kind)} and
+     * {@link #set(String, Kind)} whose elements are already validated, so
+     * that later reads skip both the source and the element scan. Only kept
+     * for immutable element types (see {@link CollectionKey#of}), so sharing
+     * them among callers is safe.
+     */
+    private final Map<CollectionKey, Collection<?>> validated = new ConcurrentHashMap<>();
+
+    protected Source() {
+        this.keyPrefix = "";
+    }
+
+    /**
+     * For a source {@link #descend(String) descended} from another one, so
+     * that its failures and events name the whole key rather than the key
+     * relative to the descended source.
+     *
+     * @param parent the source descended from.
+     * @param key    the key descended into.
+     */
+    protected Source(@NotNull final Source parent,
+                     @NotNull final String key) {
+        Objects.requireNonNull(parent, "parent");
+        Objects.requireNonNull(key, "key");
+        this.keyPrefix = parent.keyPrefix + key + '.';
+    }
+
+    /**
+     * For a source patched from another one, so that its keys are the keys
+     * of the other one with the patch applied, instead of being enumerated
+     * again.
+     *
+     * @param previous the source patched.
+     * @param removed  keys removed by the patch, each along with all the
+     *                 keys under it. Empty key for all the keys.
+     * @param added    leaf keys added by the patch.
+     */
+    protected Source(@NotNull final Source previous,
+                     @NotNull final Collection<String> removed,
+                     @NotNull final Collection<String> added) {
+        Objects.requireNonNull(previous, "previous");
+        Objects.requireNonNull(removed, "removed");
+        Objects.requireNonNull(added, "added");
+        this.keyPrefix = previous.keyPrefix;
+
+        final NavigableSet<String> index = previous.keyIndex;
+        final KeyPatch pending = previous.keyPatch;
+        if (index != null)
+            this.keyPatch = new KeyPatch(index, null, removed, added);
+        else if (pending != null && pending.depth < KeyPatch.MAX_DEPTH)
+            this.keyPatch = new KeyPatch(null, pending, removed, added);
+    }
+
     @Override
     public final Boolean bool(@NotNull final String key) {
         Objects.requireNonNull(key, "key");
 
+        final Object token = JfrEvents.readStart();
+
         final Kind<Boolean> kind = Kind.BOOL;
 
         if (!this.has(key, kind))
-            throw new KfgMissingKeyException(this.name(), key, kind);
+            throw new KfgMissingKeyException(this.name(), this.fullKey(key), kind);
 
         if (this.isNull(key))
-            return null;
+            return JfrEvents.read(token, this.name(), this.keyPrefix, key, kind, null);
 
         final Object v = this.bool0(key);
         final Boolean vv = toBool(v);
         if (vv == null)
-            throw new KfgTypeException(this.name(), key, kind, v);
-        return vv;
+            throw new KfgTypeException(this.name(), this.fullKey(key), kind, v);
+        return JfrEvents.read(token, this.name(), this.keyPrefix, key, kind, vv);
     }
 
     @Override
@@ -44,13 +141,15 @@ public abstract class Source implements Konfiguration {
     public final Character char_(@NotNull final String key) {
         Objects.requireNonNull(key, "key");
 
+        final Object token = JfrEvents.readStart();
+
         final Kind<Character> kind = Kind.CHAR;
 
         if (!this.has(key, kind))
-            throw new KfgMissingKeyException(this.name(), key, kind);
+            throw new KfgMissingKeyException(this.name(), this.fullKey(key), kind);
 
         if (this.isNull(key))
-            return null;
+            return JfrEvents.read(token, this.name(), this.keyPrefix, key, kind, null);
 
         final Object v = this.char0(key);
         char vv;
@@ -66,10 +165,10 @@ public abstract class Source implements Konfiguration {
                     vv = str.charAt(0);
             }
             catch (final ClassCastException cce1) {
-                throw new KfgTypeException(this.name(), key, kind, v);
+                throw new KfgTypeException(this.name(), this.fullKey(key), kind, v);
             }
         }
-        return vv;
+        return JfrEvents.read(token, this.name(), this.keyPrefix, key, kind, vv);
     }
 
     @Override
@@ -89,13 +188,15 @@ public abstract class Source implements Konfiguration {
     public final String string(@NotNull final String key) {
         Objects.requireNonNull(key, "key");
 
+        final Object token = JfrEvents.readStart();
+
         final Kind<String> kind = Kind.STRING;
 
         if (!this.has(key, kind))
-            throw new KfgMissingKeyException(this.name(), key, kind);
+            throw new KfgMissingKeyException(this.name(), this.fullKey(key), kind);
 
         if (this.isNull(key))
-            return null;
+            return JfrEvents.read(token, this.name(), this.keyPrefix, key, kind, null);
 
         final Object v = this.string0(key);
 
@@ -104,10 +205,10 @@ public abstract class Source implements Konfiguration {
             vv = (String) v;
         }
         catch (final ClassCastException cce) {
-            throw new KfgTypeException(this.name(), key, kind, v);
+            throw new KfgTypeException(this.name(), this.fullKey(key), kind, v);
         }
 
-        return vv;
+        return JfrEvents.read(token, this.name(), this.keyPrefix, key, kind, vv);
     }
 
     @Override
@@ -121,42 +222,45 @@ public abstract class Source implements Konfiguration {
     public final Byte byte_(@NotNull final String key) {
         Objects.requireNonNull(key, "key");
 
+        final Object token = JfrEvents.readStart();
+
         final Kind<Byte> kind = Kind.BYTE;
 
         if (!this.has(key, kind))
-            throw new KfgMissingKeyException(this.name(), key, kind);
+            throw new KfgMissingKeyException(this.name(), this.fullKey(key), kind);
 
         if (this.isNull(key))
-            return null;
+            return JfrEvents.read(token, this.name(), this.keyPrefix, key, kind, null);
 
         final Number v = this.number0(key);
 
-        final Long vv = toByte(v);
-        if (vv == null)
-            throw new KfgTypeException(this.name(), key, kind, v);
+        if (!isIntegralIn(v, Byte.MIN_VALUE, Byte.MAX_VALUE))
+            throw new KfgTypeException(this.name(), this.fullKey(key), kind, v);
 
-        return vv.byteValue();
+        return JfrEvents.read(token, this.name(), this.keyPrefix, key, kind, v.byteValue());
     }
 
     @Override
     public final Short short_(@NotNull final String key) {
         Objects.requireNonNull(key, "key");
 
+        final Object token = JfrEvents.readStart();
+
         final Kind<Short> kind = Kind.SHORT;
 
         if (!this.has(key, kind))
-            throw new KfgMissingKeyException(this.name(), key, kind);
+            throw new KfgMissingKeyException(this.name(), this.fullKey(key), kind);
 
         if (this.isNull(key))
-            return null;
+            return JfrEvents.read(token, this.name(), this.keyPrefix, key, kind, null);
 
         final Number v = this.number0(key);
 
-        final Long vv = toShort(v);
-        if (vv == null)
-            throw new KfgTypeException(this.name(), key, kind, v);
+        if (!isIntegralIn(v, Short.MIN_VALUE, Short.MAX_VALUE))
+            throw new KfgTypeException(this.name(), this.fullKey(key), kind, v);
 
-        return vv.shortValue();
+        final Short vv = v instanceof Short ? (Short) v : Short.valueOf(v.shortValue());
+        return JfrEvents.read(token, this.name(), this.keyPrefix, key, kind, vv);
     }
 
     @Override
@@ -169,21 +273,23 @@ public abstract class Source implements Konfiguration {
     public final Integer int_(@NotNull final String key) {
         Objects.requireNonNull(key, "key");
 
+        final Object token = JfrEvents.readStart();
+
         final Kind<Integer> kind = Kind.INT;
 
         if (!this.has(key, kind))
-            throw new KfgMissingKeyException(this.name(), key, kind);
+            throw new KfgMissingKeyException(this.name(), this.fullKey(key), kind);
 
         if (this.isNull(key))
-            return null;
+            return JfrEvents.read(token, this.name(), this.keyPrefix, key, kind, null);
 
         final Number v = this.number0(key);
 
-        final Long vv = toInt(v);
-        if (vv == null)
-            throw new KfgTypeException(this.name(), key, kind, v);
+        if (!isIntegralIn(v, Integer.MIN_VALUE, Integer.MAX_VALUE))
+            throw new KfgTypeException(this.name(), this.fullKey(key), kind, v);
 
-        return vv.intValue();
+        final Integer vv = v instanceof Integer ? (Integer) v : Integer.valueOf(v.intValue());
+        return JfrEvents.read(token, this.name(), this.keyPrefix, key, kind, vv);
     }
 
     @Override
@@ -196,21 +302,23 @@ public abstract class Source implements Konfiguration {
     public final Long long_(@NotNull final String key) {
         Objects.requireNonNull(key, "key");
 
+        final Object token = JfrEvents.readStart();
+
         final Kind<Long> kind = Kind.LONG;
 
         if (!this.has(key, kind))
-            throw new KfgMissingKeyException(this.name(), key, kind);
+            throw new KfgMissingKeyException(this.name(), this.fullKey(key), kind);
 
         if (this.isNull(key))
-            return null;
+            return JfrEvents.read(token, this.name(), this.keyPrefix, key, kind, null);
 
         final Number v = this.number0(key);
 
-        final Long vv = toLong(v);
-        if (vv == null)
-            throw new KfgTypeException(this.name(), key, kind, v);
+        if (!isIntegralIn(v, Long.MIN_VALUE, Long.MAX_VALUE))
+            throw new KfgTypeException(this.name(), this.fullKey(key), kind, v);
 
-        return vv;
+        final Long vv = v instanceof Long ? (Long) v : Long.valueOf(v.longValue());
+        return JfrEvents.read(token, this.name(), this.keyPrefix, key, kind, vv);
     }
 
     @Override
@@ -223,21 +331,23 @@ public abstract class Source implements Konfiguration {
     public final Float float_(@NotNull final String key) {
         Objects.requireNonNull(key, "key");
 
+        final Object token = JfrEvents.readStart();
+
         final Kind<Float> kind = Kind.FLOAT;
 
         if (!this.has(key, kind))
-            throw new KfgMissingKeyException(this.name(), key, kind);
+            throw new KfgMissingKeyException(this.name(), this.fullKey(key), kind);
 
         if (this.isNull(key))
-            return null;
+            return JfrEvents.read(token, this.name(), this.keyPrefix, key, kind, null);
 
         final Number v = this.numberDouble0(key);
 
-        final Float vv = toFloat(v);
-        if (vv == null)
-            throw new KfgTypeException(this.name(), key, kind, v);
+        if (!isFloat(v))
+            throw new KfgTypeException(this.name(), this.fullKey(key), kind, v);
 
-        return vv;
+        final Float vv = v instanceof Float ? (Float) v : Float.valueOf(v.floatValue());
+        return JfrEvents.read(token, this.name(), this.keyPrefix, key, kind, vv);
     }
 
     @Override
@@ -250,21 +360,23 @@ public abstract class Source implements Konfiguration {
     public final Double double_(@NotNull final String key) {
         Objects.requireNonNull(key, "key");
 
+        final Object token = JfrEvents.readStart();
+
         final Kind<Double> kind = Kind.DOUBLE;
 
         if (!this.has(key, kind))
-            throw new KfgMissingKeyException(this.name(), key, kind);
+            throw new KfgMissingKeyException(this.name(), this.fullKey(key), kind);
 
         if (this.isNull(key))
-            return null;
+            return JfrEvents.read(token, this.name(), this.keyPrefix, key, kind, null);
 
         final Number v = this.numberDouble0(key);
 
-        final Double vv = toDouble(v);
-        if (vv == null)
-            throw new KfgTypeException(this.name(), key, kind, v);
+        if (!isDouble(v))
+            throw new KfgTypeException(this.name(), this.fullKey(key), kind, v);
 
-        return vv;
+        final Double vv = v instanceof Double ? (Double) v : Double.valueOf(v.doubleValue());
+        return JfrEvents.read(token, this.name(), this.keyPrefix, key, kind, vv);
     }
 
     @Override
@@ -278,11 +390,21 @@ public abstract class Source implements Konfiguration {
                                   @NotNull final Kind<U> type) {
         Objects.requireNonNull(key, "key");
 
+        final CollectionKey cacheKey = CollectionKey.of(key, type, false);
+        if (cacheKey != null) {
+            @SuppressWarnings("unchecked")
+            final List<U> cached = (List<U>) this.validated.get(cacheKey);
+            if (cached != null)
+                return cached;
+        }
+
+        final Object token = JfrEvents.readStart();
+
         if (!this.has(key, type.asList()))
-            throw new KfgMissingKeyException(this.name(), key, type);
+            throw new KfgMissingKeyException(this.name(), this.fullKey(key), type);
 
         if (this.isNull(key))
-            return null;
+            return JfrEvents.read(token, this.name(), this.keyPrefix, key, type, null);
 
         final List<?> v = this.list0(key, type);
 
@@ -290,14 +412,19 @@ public abstract class Source implements Konfiguration {
 
         @SuppressWarnings("unchecked")
         final List<U> vv = (List<U>) v;
-        return vv;
+        if (cacheKey == null)
+            return JfrEvents.read(token, this.name(), this.keyPrefix, key, type, vv);
+
+        final List<U> vvv = Collections.unmodifiableList(vv);
+        this.validated.put(cacheKey, vvv);
+        return JfrEvents.read(token, this.name(), this.keyPrefix, key, type, vvv);
     }
 
     @Override
     public final <U> List<U> list(@NotNull final String key,
                                   @NotNull final Kind<U> type,
                                   final List<U> def) {
-        return this.has(key, type.withKey(key)) ? list(key, type) : def;
+        return this.has(key, type.asList().withKey(key)) ? list(key, type) : def;
     }
 
     @Override
@@ -305,11 +432,21 @@ public abstract class Source implements Konfiguration {
                                 @NotNull final Kind<U> type) {
         Objects.requireNonNull(key, "key");
 
+        final CollectionKey cacheKey = CollectionKey.of(key, type, true);
+        if (cacheKey != null) {
+            @SuppressWarnings("unchecked")
+            final Set<U> cached = (Set<U>) this.validated.get(cacheKey);
+            if (cached != null)
+                return cached;
+        }
+
+        final Object token = JfrEvents.readStart();
+
         if (!this.has(key, type.asSet()))
-            throw new KfgMissingKeyException(this.name(), key, type);
+            throw new KfgMissingKeyException(this.name(), this.fullKey(key), type);
 
         if (this.isNull(key))
-            return null;
+            return JfrEvents.read(token, this.name(), this.keyPrefix, key, type, null);
 
         final Object v = this.set0(key, type);
 
@@ -318,21 +455,95 @@ public abstract class Source implements Konfiguration {
             vv = (Set<?>) v;
         }
         catch (final ClassCastException cce) {
-            throw new KfgTypeException(this.name(), key, type, v);
+            throw new KfgTypeException(this.name(), this.fullKey(key), type, v);
         }
 
         this.checkCollectionType(key, type, vv);
 
         @SuppressWarnings("unchecked")
         final Set<U> vvv = (Set<U>) vv;
-        return vvv;
+        if (cacheKey == null)
+            return JfrEvents.read(token, this.name(), this.keyPrefix, key, type, vvv);
+
+        final Set<U> vvvv = Collections.unmodifiableSet(vvv);
+        this.validated.put(cacheKey, vvvv);
+        return JfrEvents.read(token, this.name(), this.keyPrefix, key, type, vvvv);
     }
 
     @Override
     public final <U> Set<U> set(@NotNull final String key,
                                 @NotNull final Kind<U> type,
                                 final Set<U> def) {
-        return this.has(key, type.withKey(key)) ? set(key, type) : def;
+        return this.has(key, type.asSet().withKey(key)) ? set(key, type) : def;
+    }
+
+    @Override
+    public final IntBuffer intArray(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+
+        final Buffer cached = this.columns.get(key);
+        if (cached instanceof IntBuffer)
+            return ((IntBuffer) cached).duplicate();
+
+        final Object token = JfrEvents.readStart();
+
+        final Kind<List<Integer>> kind = Kind.INT.asList();
+
+        if (!this.has(key, kind))
+            throw new KfgMissingKeyException(this.name(), this.fullKey(key), kind);
+
+        if (this.isNull(key))
+            return JfrEvents.read(token, this.name(), this.keyPrefix, key, Kind.INT, null);
+
+        final IntBuffer column = IntBuffer.wrap(this.intArray0(key)).asReadOnlyBuffer();
+        this.columns.put(key, column);
+        return JfrEvents.read(token, this.name(), this.keyPrefix, key, Kind.INT, column.duplicate());
+    }
+
+    @Override
+    public final LongBuffer longArray(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+
+        final Buffer cached = this.columns.get(key);
+        if (cached instanceof LongBuffer)
+            return ((LongBuffer) cached).duplicate();
+
+        final Object token = JfrEvents.readStart();
+
+        final Kind<List<Long>> kind = Kind.LONG.asList();
+
+        if (!this.has(key, kind))
+            throw new KfgMissingKeyException(this.name(), this.fullKey(key), kind);
+
+        if (this.isNull(key))
+            return JfrEvents.read(token, this.name(), this.keyPrefix, key, Kind.LONG, null);
+
+        final LongBuffer column = LongBuffer.wrap(this.longArray0(key)).asReadOnlyBuffer();
+        this.columns.put(key, column);
+        return JfrEvents.read(token, this.name(), this.keyPrefix, key, Kind.LONG, column.duplicate());
+    }
+
+    @Override
+    public final DoubleBuffer doubleArray(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+
+        final Buffer cached = this.columns.get(key);
+        if (cached instanceof DoubleBuffer)
+            return ((DoubleBuffer) cached).duplicate();
+
+        final Object token = JfrEvents.readStart();
+
+        final Kind<List<Double>> kind = Kind.DOUBLE.asList();
+
+        if (!this.has(key, kind))
+            throw new KfgMissingKeyException(this.name(), this.fullKey(key), kind);
+
+        if (this.isNull(key))
+            return JfrEvents.read(token, this.name(), this.keyPrefix, key, Kind.DOUBLE, null);
+
+        final DoubleBuffer column = DoubleBuffer.wrap(this.doubleArray0(key)).asReadOnlyBuffer();
+        this.columns.put(key, column);
+        return JfrEvents.read(token, this.name(), this.keyPrefix, key, Kind.DOUBLE, column.duplicate());
     }
 
     @SuppressWarnings("unchecked")
@@ -342,11 +553,13 @@ public abstract class Source implements Konfiguration {
         Objects.requireNonNull(key, "key");
         Objects.requireNonNull(type, "type");
 
+        final Object token = JfrEvents.readStart();
+
         if (!this.has(key, type))
-            throw new KfgMissingKeyException(this.name(), key, type);
+            throw new KfgMissingKeyException(this.name(), this.fullKey(key), type);
 
         if (this.isNull(key))
-            return null;
+            return JfrEvents.read(token, this.name(), this.keyPrefix, key, type, null);
 
         if (type.isBool())
             return (U) bool(key);
@@ -373,7 +586,8 @@ public abstract class Source implements Konfiguration {
         if (type.isSet())
             return (U) set(key, type.getCollectionContainedKind());
 
-        return (U) this.custom0(key, type);
+        final U v = (U) this.custom0(key, type);
+        return JfrEvents.read(token, this.name(), this.keyPrefix, key, type, v);
     }
 
     @Override
@@ -384,6 +598,74 @@ public abstract class Source implements Konfiguration {
     }
 
 
+    @NotNull
+    @Override
+    public final Batch getAll(@NotNull final Map<String, Kind<?>> keys) {
+        Objects.requireNonNull(keys, "keys");
+
+        // Sorted, so that sources walking their storage can reuse the walk
+        // between siblings.
+        final String[] sorted = keys.keySet().toArray(new String[0]);
+        Arrays.sort(sorted);
+
+        final Kind<?>[] kinds = new Kind<?>[sorted.length];
+        final Object[] values = new Object[sorted.length];
+        for (int i = 0; i < sorted.length; i++)
+            kinds[i] = Objects.requireNonNull(keys.get(sorted[i]), "kind of key: " + sorted[i]);
+
+        this.batch(sorted, kinds, values);
+
+        return new Batch(this.name(), sorted, kinds, values);
+    }
+
+    /**
+     * Sources are immutable, so a source is its own snapshot.
+     *
+     * @return this.
+     */
+    @NotNull
+    @Override
+    public final Konfiguration snapshot() {
+        return this;
+    }
+
+    @NotNull
+    @Override
+    public final Set<String> keys() {
+        return this.keyIndex();
+    }
+
+    @NotNull
+    @Override
+    public final Set<String> keys(@NotNull final String prefix) {
+        Objects.requireNonNull(prefix, "prefix");
+
+        if (prefix.isEmpty())
+            return this.keys();
+
+        final String p = prefix.endsWith(".")
+            ? prefix.substring(0, prefix.length() - 1)
+            : prefix;
+
+        // '/' comes right after '.', so this is every key starting with p + '.'
+        return this.keyIndex().subSet(p + '.', true, p + '/', false);
+    }
+
+    @NotNull
+    private NavigableSet<String> keyIndex() {
+        NavigableSet<String> index = this.keyIndex;
+        if (index == null) {
+            final KeyPatch patch = this.keyPatch;
+            index = Collections.unmodifiableNavigableSet(patch == null
+                ? new TreeSet<>(this.keys0())
+                : patch.apply());
+            this.keyIndex = index;
+            this.keyPatch = null;
+        }
+        return index;
+    }
+
+
     // =========================================================================
 
     protected abstract boolean isNull(@NotNull String key);
@@ -415,91 +697,201 @@ public abstract class Source implements Konfiguration {
     protected abstract Object custom0(@NotNull String key,
                                       @NotNull Kind<?> type);
 
+    /**
+     * Decode the list at key into a new primitive array, called once per key
+     * by {@link #intArray(String)}. The default implementation converts
+     * {@link #list0(String, Kind)}. Sources keeping their lists in a richer
+     * form may override this to skip building the boxed list.
+     *
+     * @param key the key of a non-null list.
+     * @return the decoded list.
+     * @throws KfgTypeException if any of the elements is not an int.
+     */
+    @NotNull
+    protected int[] intArray0(@NotNull final String key) {
+        final List<?> list = this.list0(key, Kind.INT);
+        final int[] column = new int[list.size()];
+        for (int i = 0; i < column.length; i++) {
+            final Object element = list.get(i);
+            if (!(element instanceof Number) || !isIntegralIn((Number) element, Integer.MIN_VALUE, Integer.MAX_VALUE))
+                throw new KfgTypeException(this.name(), this.fullKey(key), Kind.INT.asList(), list);
+            column[i] = ((Number) element).intValue();
+        }
+        return column;
+    }
 
-    // =========================================================================
-
-    @Contract(pure = true,
-              value = "null -> null")
-    @Nullable
-    private static Boolean toBool(@Nullable final Object o) {
-        if (o instanceof Boolean)
-            return (Boolean) o;
-
-        if (!(o instanceof Number))
-            return null;
+    /**
+     * Same as {@link #intArray0(String)}, for {@link #longArray(String)}.
+     *
+     * @param key the key of a non-null list.
+     * @return the decoded list.
+     * @throws KfgTypeException if any of the elements is not a long.
+     */
+    @NotNull
+    protected long[] longArray0(@NotNull final String key) {
+        final List<?> list = this.list0(key, Kind.LONG);
+        final long[] column = new long[list.size()];
+        for (int i = 0; i < column.length; i++) {
+            final Object element = list.get(i);
+            if (!(element instanceof Number) || !isIntegralIn((Number) element, Long.MIN_VALUE, Long.MAX_VALUE))
+                throw new KfgTypeException(this.name(), this.fullKey(key), Kind.LONG.asList(), list);
+            column[i] = ((Number) element).longValue();
+        }
+        return column;
+    }
 
-        final Long l = toLong((Number) o);
-        if (l == null)
-            return null;
+    /**
+     * Same as {@link #intArray0(String)}, for {@link #doubleArray(String)}.
+     *
+     * @param key the key of a non-null list.
+     * @return the decoded list.
+     * @throws KfgTypeException if any of the elements is not a number.
+     */
+    @NotNull
+    protected double[] doubleArray0(@NotNull final String key) {
+        final List<?> list = this.list0(key, Kind.DOUBLE);
+        final double[] column = new double[list.size()];
+        for (int i = 0; i < column.length; i++) {
+            final Object element = list.get(i);
+            if (!(element instanceof Number))
+                throw new KfgTypeException(this.name(), this.fullKey(key), Kind.DOUBLE.asList(), list);
+            column[i] = ((Number) element).doubleValue();
+        }
+        return column;
+    }
 
-        //noinspection SimplifiableConditionalExpression
-        return l == 0 ? false : true;
+    /**
+     * Read all the keys of a {@link #getAll(Map)} call, each as by
+     * {@link #custom(String, Kind)}. Sources may override this to hold their
+     * lock for the whole batch, or to reuse their storage walk among sibling
+     * keys.
+     *
+     * @param keys   the keys to read, sorted.
+     * @param kinds  kind of each key.
+     * @param values where the value of each key goes.
+     */
+    protected void batch(@NotNull final String[] keys,
+                         @NotNull final Kind<?>[] kinds,
+                         @NotNull final Object[] values) {
+        for (int i = 0; i < keys.length; i++)
+            values[i] = this.custom(keys[i], kinds[i]);
     }
 
-    @Contract(pure = true,
-              value = "null -> null")
-    @Nullable
-    private static Long toByte(@Nullable final Number o) {
-        return toIntegral(o, Byte.MIN_VALUE, Byte.MAX_VALUE);
+    /**
+     * The key as named by the source this one descended from, if any.
+     *
+     * @param key a key of this source.
+     * @return key, prefixed with the keys this source descended into.
+     */
+    @NotNull
+    @Contract(pure = true)
+    protected final String fullKey(@NotNull final String key) {
+        return this.keyPrefix.isEmpty() ? key : this.keyPrefix + key;
     }
 
-    @Contract(pure = true,
-              value = "null -> null")
+    /**
+     * A source rooted at the given key, so that reading {@code "b"} from the
+     * returned source is the same as reading {@code key + ".b"} from this
+     * one. Used by {@link SubsetView} to resolve its base key only once.
+     *
+     * <p>Sources not capable of this should return null (the default), in
+     * which case the subset view prepends the base key to every key instead.
+     *
+     * @param key the key to descend into, never empty.
+     * @return a source rooted at key, or null if not supported.
+     */
     @Nullable
-    private static Long toShort(@Nullable final Number o) {
-        return toIntegral(o, Short.MIN_VALUE, Short.MAX_VALUE);
+    protected Source descend(@NotNull final String key) {
+        return null;
     }
 
-    @Contract(pure = true,
-              value = "null -> null")
-    @Nullable
-    private static Long toInt(@Nullable final Number o) {
-        return toIntegral(o, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    /**
+     * All the leaf keys (fully qualified, dot separated) available in this
+     * source. Sources not capable of enumerating their keys need not override
+     * this.
+     *
+     * @return all the leaf keys in this source.
+     * @throws KfgSourceException if the source does not support key
+     *                            enumeration.
+     */
+    @NotNull
+    protected Collection<String> keys0() {
+        throw new KfgSourceException(this.name(), "key enumeration is not supported by: " + getClass().getName());
     }
 
+
+    // =========================================================================
+
     @Contract(pure = true,
               value = "null -> null")
     @Nullable
-    private static Long toLong(@Nullable final Number o) {
-        return toIntegral(o, Long.MIN_VALUE, Long.MAX_VALUE);
+    private static Boolean toBool(@Nullable final Object o) {
+        if (o instanceof Boolean)
+            return (Boolean) o;
+
+        if (!(o instanceof Number) || !isIntegralIn((Number) o, Long.MIN_VALUE, Long.MAX_VALUE))
+            return null;
+
+        return ((Number) o).longValue() != 0;
     }
 
+    /**
+     * Whether o is an integral number within [min, max]. Checked on the
+     * primitive value, so nothing is boxed on the way.
+     */
     @Contract(pure = true,
-              value = "null, _, _ -> null")
-    @Nullable
-    private static Long toIntegral(@Nullable final Number o,
-                                   final long min,
-                                   final long max) {
+              value = "null, _, _ -> false")
+    private static boolean isIntegralIn(@Nullable final Number o,
+                                        final long min,
+                                        final long max) {
         if (o == null || o instanceof Double || o instanceof Float)
-            return null;
+            return false;
 
-        if (o.longValue() < min || max < o.longValue())
-            return null;
+        if (o instanceof BigInteger && ((BigInteger) o).bitLength() > 63)
+            return false;
 
-        return o.longValue();
+        if (o instanceof BigDecimal) {
+            try {
+                final long l = ((BigDecimal) o).longValueExact();
+                return min <= l && l <= max;
+            }
+            catch (final ArithmeticException fractionalOrOutOfRange) {
+                return false;
+            }
+        }
+
+        final long l = o.longValue();
+        return min <= l && l <= max;
     }
 
+    /**
+     * Whether o is a finite number, or a floating point NaN or infinity (as
+     * opposed to, say, a BigDecimal too large for a double).
+     */
     @Contract(pure = true,
-              value = "null -> null")
-    @Nullable
-    private static Float toFloat(@Nullable final Number o) {
+              value = "null -> false")
+    private static boolean isDouble(@Nullable final Number o) {
         if (o == null)
-            return null;
-
-        if (o.doubleValue() < Float.MIN_VALUE || Float.MAX_VALUE < o.doubleValue())
-            return null;
+            return false;
 
-        return o.floatValue();
+        final double d = o.doubleValue();
+        return !Double.isInfinite(d) || o instanceof Double || o instanceof Float;
     }
 
+    /**
+     * Same as {@link #isDouble(Number)}, and the number must not overflow a
+     * float, that is, its magnitude must round to at most
+     * {@link Float#MAX_VALUE}. Negative numbers down to -Float.MAX_VALUE are
+     * fine.
+     */
     @Contract(pure = true,
-              value = "null -> null")
-    @Nullable
-    private static Double toDouble(@Nullable final Number o) {
-        if (o == null)
-            return null;
+              value = "null -> false")
+    private static boolean isFloat(@Nullable final Number o) {
+        if (!isDouble(o))
+            return false;
 
-        return o.doubleValue();
+        final double d = o.doubleValue();
+        return !Float.isInfinite((float) d) || Double.isInfinite(d);
     }
 
 
@@ -520,11 +912,117 @@ public abstract class Source implements Konfiguration {
         Objects.requireNonNull(value, "value");
 
         if (!(value instanceof Collection))
-            throw new KfgIllegalStateException(this.name(), key, neededType.asList(), value, "expecting a collection");
+            throw new KfgIllegalStateException(this.name(), this.fullKey(key), neededType.asList(), value, "expecting a collection");
 
         for (final Object o : (Collection<?>) value)
             if (o != null && !neededType.klass().isAssignableFrom(o.getClass()))
-                throw new KfgTypeException(this.name(), key, neededType, value);
+                throw new KfgTypeException(this.name(), this.fullKey(key), neededType, value);
+    }
+
+    /**
+     * Key of {@link #validated}.
+     */
+    private static final class CollectionKey {
+
+        private final String key;
+        private final Class<?> element;
+        private final boolean set;
+
+        private CollectionKey(@NotNull final String key,
+                              @NotNull final Class<?> element,
+                              final boolean set) {
+            this.key = key;
+            this.element = element;
+            this.set = set;
+        }
+
+        /**
+         * @return the key, or null if elements of type may be mutable, in
+         * which case the collection must not be shared among callers.
+         */
+        @Nullable
+        static CollectionKey of(@NotNull final String key,
+                                @NotNull final Kind<?> type,
+                                final boolean set) {
+            final boolean immutable = !type.isParametrized() && (
+                type.isBool() || type.isChar() || type.isString()
+                    || type.isByte() || type.isShort() || type.isInt() || type.isLong()
+                    || type.isFloat() || type.isDouble());
+            return immutable ? new CollectionKey(key, type.klass(), set) : null;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof CollectionKey))
+                return false;
+            final CollectionKey that = (CollectionKey) o;
+            return this.set == that.set
+                && this.element == that.element
+                && this.key.equals(that.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return (this.key.hashCode() * 31 + this.element.hashCode()) * 31 + (this.set ? 1 : 0);
+        }
+
+    }
+
+    /**
+     * Keys removed and added by a patch, applied to the index of the patched
+     * source, or (chained) to the keys of a patch pending on it.
+     */
+    private static final class KeyPatch {
+
+        /**
+         * Patches chained before falling back to {@link #keys0()}, so that a
+         * long run of patches does not pile up.
+         */
+        private static final int MAX_DEPTH = 32;
+
+        @Nullable
+        private final NavigableSet<String> base;
+
+        @Nullable
+        private final KeyPatch previous;
+
+        @NotNull
+        private final Collection<String> removed;
+
+        @NotNull
+        private final Collection<String> added;
+
+        private final int depth;
+
+        private KeyPatch(@Nullable final NavigableSet<String> base,
+                         @Nullable final KeyPatch previous,
+                         @NotNull final Collection<String> removed,
+                         @NotNull final Collection<String> added) {
+            this.base = base;
+            this.previous = previous;
+            this.removed = removed;
+            this.added = added;
+            this.depth = previous == null ? 1 : previous.depth + 1;
+        }
+
+        @NotNull
+        TreeSet<String> apply() {
+            final TreeSet<String> keys = this.previous == null
+                ? new TreeSet<>(Objects.requireNonNull(this.base, "base"))
+                : this.previous.apply();
+            for (final String key : this.removed)
+                if (key.isEmpty())
+                    keys.clear();
+                else {
+                    keys.remove(key);
+                    keys.subSet(key + '.', true, key + '/', false).clear();
+                }
+            keys.addAll(this.added);
+            return keys;
+        }
+
     }
 
     // ============================================================= UNSUPPORTED
@@ -0,0 +1,254 @@
+package io.koosha.konfiguration_lite;
+
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Creates (reads and parses) sources off the calling thread, one at a time
+ * or multiple in parallel.
+ */
+@ThreadSafe
+public final class SourceLoader {
+
+    /**
+     * Chars read between two checks for cancellation.
+     */
+    private static final int CHUNK = 8 * 1024;
+
+    private SourceLoader() {
+    }
+
+    /**
+     * Read the (UTF-8) file at path and parse it into a source, both on the
+     * given executor.
+     *
+     * <p>Cancelling the returned future stops the reading at the next
+     * chunk, and skips the parsing if it is not started yet. A parse already
+     * running is not interrupted, but its result is discarded.
+     *
+     * @param name     name of the source, for error messages.
+     * @param path     file to read.
+     * @param parser   parses the content of the file, such as
+     *                 {@code json -> new ExtJacksonJsonSource(name, json)}.
+     * @param executor executor to read and parse on.
+     * @return future of the source. Completed exceptionally with a
+     * {@link KfgSourceException} if reading, parsing or scheduling on
+     * executor fails.
+     */
+    @NotNull
+    @Contract("_, _, _, _ -> new")
+    public static CompletableFuture<Source> async(@NotNull final String name,
+                                                  @NotNull final Path path,
+                                                  @NotNull final Function<? super String, ? extends Source> parser,
+                                                  @NotNull final Executor executor) {
+        Objects.requireNonNull(path, "path");
+        return async(name, null, () -> Files.newInputStream(path), parser, executor);
+    }
+
+    /**
+     * Same as {@link #async(String, Path, Function, Executor)}, reading from
+     * the given stream instead. The stream is closed once read, once the
+     * future is cancelled, or if scheduling on executor fails.
+     *
+     * @param name     name of the source, for error messages.
+     * @param input    (UTF-8) stream to read.
+     * @param parser   parses the content of input.
+     * @param executor executor to read and parse on.
+     * @return future of the source.
+     */
+    @NotNull
+    @Contract("_, _, _, _ -> new")
+    public static CompletableFuture<Source> async(@NotNull final String name,
+                                                  @NotNull final InputStream input,
+                                                  @NotNull final Function<? super String, ? extends Source> parser,
+                                                  @NotNull final Executor executor) {
+        Objects.requireNonNull(input, "input");
+        return async(name, input, () -> input, parser, executor);
+    }
+
+    @FunctionalInterface
+    private interface Opener {
+
+        @NotNull
+        InputStream open() throws IOException;
+
+    }
+
+    /**
+     * @param given stream given by the caller, to close if the load is never
+     *              run. Null if opener opens its own.
+     */
+    @NotNull
+    private static CompletableFuture<Source> async(@NotNull final String name,
+                                                   @Nullable final InputStream given,
+                                                   @NotNull final Opener opener,
+                                                   @NotNull final Function<? super String, ? extends Source> parser,
+                                                   @NotNull final Executor executor) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(parser, "parser");
+        Objects.requireNonNull(executor, "executor");
+
+        final CompletableFuture<Source> future = new CompletableFuture<>();
+        final Runnable load = () -> {
+            try {
+                final String content = read(name, opener, future);
+                final Source source = parser.apply(content);
+                Objects.requireNonNull(source, "parser returned null");
+                future.complete(source);
+            }
+            catch (final CancellationException cancelled) {
+                // The future is already cancelled.
+            }
+            catch (final KfgSourceException e) {
+                future.completeExceptionally(e);
+            }
+            catch (final RuntimeException e) {
+                future.completeExceptionally(new KfgSourceException(name, "error parsing source", e));
+            }
+            catch (final Error e) {
+                future.completeExceptionally(e);
+                throw e;
+            }
+        };
+
+        try {
+            executor.execute(load);
+        }
+        catch (final RuntimeException e) {
+            final KfgSourceException error = new KfgSourceException(name, "error scheduling source load", e);
+            if (given != null)
+                try {
+                    given.close();
+                }
+                catch (final IOException closing) {
+                    error.addSuppressed(closing);
+                }
+            future.completeExceptionally(error);
+        }
+        return future;
+    }
+
+    @NotNull
+    private static String read(@NotNull final String name,
+                               @NotNull final Opener opener,
+                               @NotNull final CompletableFuture<?> future) {
+        final StringBuilder content = new StringBuilder();
+        final char[] chunk = new char[CHUNK];
+        try (final InputStream input = opener.open();
+             final Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8)) {
+            if (future.isCancelled())
+                throw new CancellationException();
+            for (int read = reader.read(chunk); read >= 0; read = reader.read(chunk)) {
+                if (future.isCancelled())
+                    throw new CancellationException();
+                content.append(chunk, 0, read);
+            }
+        }
+        catch (final IOException e) {
+            throw new KfgSourceException(name, "error reading source", e);
+        }
+        if (future.isCancelled())
+            throw new CancellationException();
+        return content.toString();
+    }
+
+    /**
+     * Same as {@link #loadAll(List, Executor)}, on the common fork join pool.
+     *
+     * @param sources source factories, in precedence order.
+     * @return created sources, in the same order as sources.
+     * @throws KfgSourceException if creating any of the sources fails.
+     */
+    @NotNull
+    public static List<Source> loadAll(@NotNull final List<? extends Supplier<? extends Source>> sources) {
+        return loadAll(sources, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Run all the source factories in parallel on the given executor and
+     * wait for all of them.
+     *
+     * <p>Typical factories are constructor calls such as
+     * {@code () -> new ExtJacksonJsonSource(name, json)}. All the factories
+     * are run to completion even if some of them fail, so that all the
+     * failures are reported at once.
+     *
+     * @param sources  source factories, in precedence order.
+     * @param executor executor to run the factories on.
+     * @return created sources, in the same order as sources.
+     * @throws KfgSourceException if creating any of the sources fails. The
+     *                            message lists the failed sources, the first
+     *                            failure is the cause and the rest are added
+     *                            as suppressed exceptions.
+     */
+    @NotNull
+    @Contract("_, _ -> new")
+    public static List<Source> loadAll(@NotNull final List<? extends Supplier<? extends Source>> sources,
+                                       @NotNull final Executor executor) {
+        Objects.requireNonNull(sources, "sources");
+        Objects.requireNonNull(executor, "executor");
+
+        final List<CompletableFuture<? extends Source>> loading = new ArrayList<>(sources.size());
+        for (final Supplier<? extends Source> each : sources) {
+            Objects.requireNonNull(each, "source factory");
+            loading.add(CompletableFuture.supplyAsync(each, executor));
+        }
+
+        final List<Source> loaded = new ArrayList<>(sources.size());
+        final List<String> failed = new ArrayList<>();
+        final List<Throwable> errors = new ArrayList<>();
+        for (int i = 0; i < loading.size(); i++) {
+            final Throwable cause;
+            try {
+                final Source source = loading.get(i).join();
+                Objects.requireNonNull(source, "source factory returned null, index=" + i);
+                loaded.add(source);
+                continue;
+            }
+            catch (final CompletionException e) {
+                cause = e.getCause() == null ? e : e.getCause();
+            }
+            catch (final RuntimeException e) {
+                cause = e;
+            }
+
+            final String source = cause instanceof KfgException && ((KfgException) cause).hasSource()
+                ? ((KfgException) cause).source()
+                : null;
+            failed.add(source == null ? "#" + i : "#" + i + "(" + source + ")");
+            errors.add(cause);
+        }
+
+        if (!errors.isEmpty()) {
+            final KfgSourceException error = new KfgSourceException(
+                null, "error loading sources: " + failed, errors.get(0));
+            for (final Throwable each : errors.subList(1, errors.size()))
+                error.addSuppressed(each);
+            throw error;
+        }
+
+        return Collections.unmodifiableList(loaded);
+    }
+
+}
@@ -5,7 +5,14 @@ import net.jcip.annotations.ThreadSafe;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -15,6 +22,14 @@ import java.util.Set;
  * <p>
  * Ignore the J prefix.
  *
+ * <p>If the wrapped konfiguration is a {@link Source} capable of
+ * {@link Source#descend(String) descending} into the base key, the subtree is
+ * resolved once here and all the reads (and nested subsets) are relative
+ * lookups into it, with no key concatenation.
+ *
+ * <p>Reads are not timed here, slow reads are recorded by the
+ * {@link Source} they reach, see {@link JfrEvents}.
+ *
  * <p>Immutable and thread safe by itself, although the underlying wrapped
  * konfiguration's thread safety is not guarantied.
  */
@@ -23,6 +38,10 @@ public final class SubsetView implements Konfiguration {
 
     private final String name;
     private final Konfiguration wrapped;
+
+    /**
+     * Prepended to all the keys, empty if the subtree is already resolved.
+     */
     private final String baseKey;
 
     public SubsetView(@NotNull final String name,
@@ -32,19 +51,30 @@ public final class SubsetView implements Konfiguration {
         Objects.requireNonNull(wrappedKonfiguration, "wrappedKonfiguration");
         Objects.requireNonNull(baseKey, "baseKey");
         this.name = name;
-        this.wrapped = wrappedKonfiguration;
 
         if (baseKey.startsWith(".")) // covers baseKey == "." too.
             throw new KfgIllegalArgumentException(this.name(), "key must not start with a dot: " + baseKey);
         if (baseKey.contains(".."))
             throw new KfgIllegalArgumentException(this.name(), "key can not contain subsequent dots: " + baseKey);
 
-        if (baseKey.isEmpty())
+        final Source descended = baseKey.isEmpty() || !(wrappedKonfiguration instanceof Source)
+            ? null
+            : ((Source) wrappedKonfiguration).descend(
+            baseKey.endsWith(".") ? baseKey.substring(0, baseKey.length() - 1) : baseKey);
+
+        if (descended != null) {
+            this.wrapped = descended;
             this.baseKey = "";
-        else if (baseKey.endsWith("."))
-            this.baseKey = baseKey;
-        else
-            this.baseKey = baseKey + ".";
+        }
+        else {
+            this.wrapped = wrappedKonfiguration;
+            if (baseKey.isEmpty())
+                this.baseKey = "";
+            else if (baseKey.endsWith("."))
+                this.baseKey = baseKey;
+            else
+                this.baseKey = baseKey + ".";
+        }
     }
 
 
@@ -63,6 +93,14 @@ public final class SubsetView implements Konfiguration {
         return wrapped.bool(key(key));
     }
 
+    @Contract(pure = true)
+    @Override
+    public Boolean bool(@NotNull final String key,
+                        final Boolean def) {
+        Objects.requireNonNull(key, "key");
+        return wrapped.bool(key(key), def);
+    }
+
     @Contract(pure = true)
     @Override
     public Byte byte_(@NotNull final String key) {
@@ -70,6 +108,14 @@ public final class SubsetView implements Konfiguration {
         return wrapped.byte_(key(key));
     }
 
+    @Contract(pure = true)
+    @Override
+    public Byte byte_(@NotNull final String key,
+                      final Byte def) {
+        Objects.requireNonNull(key, "key");
+        return wrapped.byte_(key(key), def);
+    }
+
     @Contract(pure = true)
     @Override
     public Character char_(@NotNull final String key) {
@@ -77,6 +123,14 @@ public final class SubsetView implements Konfiguration {
         return wrapped.char_(key(key));
     }
 
+    @Contract(pure = true)
+    @Override
+    public Character char_(@NotNull final String key,
+                           final Character def) {
+        Objects.requireNonNull(key, "key");
+        return wrapped.char_(key(key), def);
+    }
+
     @Contract(pure = true)
     @Override
     public Short short_(@NotNull final String key) {
@@ -84,6 +138,14 @@ public final class SubsetView implements Konfiguration {
         return wrapped.short_(key(key));
     }
 
+    @Contract(pure = true)
+    @Override
+    public Short short_(@NotNull final String key,
+                        final Short def) {
+        Objects.requireNonNull(key, "key");
+        return wrapped.short_(key(key), def);
+    }
+
     @Contract(pure = true)
     @Override
     public Integer int_(@NotNull final String key) {
@@ -91,6 +153,14 @@ public final class SubsetView implements Konfiguration {
         return wrapped.int_(key(key));
     }
 
+    @Contract(pure = true)
+    @Override
+    public Integer int_(@NotNull final String key,
+                        final Integer def) {
+        Objects.requireNonNull(key, "key");
+        return wrapped.int_(key(key), def);
+    }
+
     @Contract(pure = true)
     @NotNull
     @Override
@@ -99,6 +169,14 @@ public final class SubsetView implements Konfiguration {
         return wrapped.long_(key(key));
     }
 
+    @Contract(pure = true)
+    @Override
+    public Long long_(@NotNull final String key,
+                      final Long def) {
+        Objects.requireNonNull(key, "key");
+        return wrapped.long_(key(key), def);
+    }
+
     @Contract(pure = true)
     @NotNull
     @Override
@@ -107,6 +185,14 @@ public final class SubsetView implements Konfiguration {
         return wrapped.float_(key(key));
     }
 
+    @Contract(pure = true)
+    @Override
+    public Float float_(@NotNull final String key,
+                        final Float def) {
+        Objects.requireNonNull(key, "key");
+        return wrapped.float_(key(key), def);
+    }
+
     @Contract(pure = true)
     @NotNull
     @Override
@@ -115,6 +201,14 @@ public final class SubsetView implements Konfiguration {
         return wrapped.double_(key(key));
     }
 
+    @Contract(pure = true)
+    @Override
+    public Double double_(@NotNull final String key,
+                          final Double def) {
+        Objects.requireNonNull(key, "key");
+        return wrapped.double_(key(key), def);
+    }
+
     @Contract(pure = true)
     @NotNull
     @Override
@@ -123,6 +217,14 @@ public final class SubsetView implements Konfiguration {
         return wrapped.string(key(key));
     }
 
+    @Contract(pure = true)
+    @Override
+    public String string(@NotNull final String key,
+                         final String def) {
+        Objects.requireNonNull(key, "key");
+        return wrapped.string(key(key), def);
+    }
+
     @Contract(pure = true)
     @NotNull
     @Override
@@ -132,6 +234,15 @@ public final class SubsetView implements Konfiguration {
         return wrapped.list(key(key), type);
     }
 
+    @Contract(pure = true)
+    @Override
+    public <U> List<U> list(@NotNull final String key,
+                            @NotNull final Kind<U> type,
+                            final List<U> def) {
+        Objects.requireNonNull(key, "key");
+        return wrapped.list(key(key), type, def);
+    }
+
     @Contract(pure = true)
     @NotNull
     @Override
@@ -141,6 +252,36 @@ public final class SubsetView implements Konfiguration {
         return wrapped.set(key(key), type);
     }
 
+    @Contract(pure = true)
+    @Override
+    public <U> Set<U> set(@NotNull final String key,
+                          @NotNull final Kind<U> type,
+                          final Set<U> def) {
+        Objects.requireNonNull(key, "key");
+        return wrapped.set(key(key), type, def);
+    }
+
+    @Contract(pure = true)
+    @Override
+    public IntBuffer intArray(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        return wrapped.intArray(key(key));
+    }
+
+    @Contract(pure = true)
+    @Override
+    public LongBuffer longArray(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        return wrapped.longArray(key(key));
+    }
+
+    @Contract(pure = true)
+    @Override
+    public DoubleBuffer doubleArray(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        return wrapped.doubleArray(key(key));
+    }
+
     @Contract(pure = true)
     @NotNull
     @Override
@@ -150,6 +291,29 @@ public final class SubsetView implements Konfiguration {
         return wrapped.custom(key(key), type);
     }
 
+    @Contract(pure = true)
+    @Override
+    public <U> U custom(@NotNull final String key,
+                        @NotNull final Kind<U> type,
+                        final U def) {
+        Objects.requireNonNull(key, "key");
+        return wrapped.custom(key(key), type, def);
+    }
+
+    @Contract(pure = true)
+    @NotNull
+    @Override
+    public Batch getAll(@NotNull final Map<String, Kind<?>> keys) {
+        Objects.requireNonNull(keys, "keys");
+        if (this.baseKey.isEmpty())
+            return wrapped.getAll(keys);
+
+        final Map<String, Kind<?>> prefixed = new HashMap<>(keys.size() * 2);
+        for (final Map.Entry<String, Kind<?>> each : keys.entrySet())
+            prefixed.put(key(each.getKey()), each.getValue());
+        return wrapped.getAll(prefixed).stripPrefix(this.baseKey);
+    }
+
     @Contract(pure = true)
     @Override
     public boolean has(@NotNull final String key,
@@ -164,15 +328,57 @@ public final class SubsetView implements Konfiguration {
     @Override
     public Konfiguration subset(@NotNull final String key) {
         Objects.requireNonNull(key, "key");
-        return key.isEmpty()
-            ? this
-            : new SubsetView(
-            this.name.split("::")[0] + "::" + key,
+        if (key.isEmpty())
+            return this;
+
+        final int nameEnd = this.name.indexOf("::");
+        return new SubsetView(
+            (nameEnd < 0 ? this.name : this.name.substring(0, nameEnd)) + "::" + key,
             this.wrapped,
-            this.baseKey + this.key(key)
+            this.key(key)
         );
     }
 
+    /**
+     * Keys are returned relative to the base key of this view.
+     */
+    @Contract(pure = true)
+    @NotNull
+    @Override
+    public Set<String> keys() {
+        return this.baseKey.isEmpty()
+            ? wrapped.keys()
+            : new RelativeKeys(wrapped.keys(this.baseKey), this.baseKey);
+    }
+
+    /**
+     * Keys are returned relative to the base key of this view.
+     */
+    @Contract(pure = true)
+    @NotNull
+    @Override
+    public Set<String> keys(@NotNull final String prefix) {
+        Objects.requireNonNull(prefix, "prefix");
+        if (prefix.isEmpty())
+            return this.keys();
+        return this.baseKey.isEmpty()
+            ? wrapped.keys(prefix)
+            : new RelativeKeys(wrapped.keys(key(prefix)), this.baseKey);
+    }
+
+    /**
+     * The same subset, over a snapshot of the wrapped konfiguration.
+     */
+    @Contract(pure = true)
+    @NotNull
+    @Override
+    public Konfiguration snapshot() {
+        final Konfiguration pinned = wrapped.snapshot();
+        return pinned == wrapped
+            ? this
+            : new SubsetView(this.name, pinned, this.baseKey);
+    }
+
     @Contract(pure = true,
               value = "_ -> _")
     @NotNull
@@ -185,4 +391,48 @@ public final class SubsetView implements Konfiguration {
         return this.baseKey + key;
     }
 
+
+    /**
+     * Lazy view of a set of fully qualified keys, with the base key stripped.
+     */
+    private static final class RelativeKeys extends AbstractSet<String> {
+
+        private final Set<String> keys;
+        private final String baseKey;
+
+        private RelativeKeys(@NotNull final Set<String> keys,
+                             @NotNull final String baseKey) {
+            this.keys = keys;
+            this.baseKey = baseKey;
+        }
+
+        @NotNull
+        @Override
+        public Iterator<String> iterator() {
+            final Iterator<String> it = this.keys.iterator();
+            return new Iterator<String>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public String next() {
+                    return it.next().substring(baseKey.length());
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(final Object o) {
+            return o instanceof String && this.keys.contains(this.baseKey + o);
+        }
+
+        @Override
+        public int size() {
+            return this.keys.size();
+        }
+
+    }
+
 }
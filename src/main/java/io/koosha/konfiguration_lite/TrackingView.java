@@ -0,0 +1,321 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.type.Kind;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Records every key read through it (including reads made through its subset
+ * views) so that keys which are never read can be reported and pruned from
+ * the backing konfiguration.
+ *
+ * <p>A key is considered used if it, or any of its parents, is read. Reading
+ * a custom object at {@code a.b} marks {@code a.b.c} as used too. Only reads
+ * returning a value of the konfiguration count: {@link #has(String, Kind)},
+ * failed reads and reads falling back to their default value do not.
+ *
+ * <p>Thread safe, as long as the wrapped konfiguration is thread safe.
+ */
+@ThreadSafe
+public final class TrackingView implements Konfiguration {
+
+    private final Konfiguration wrapped;
+    private final Set<String> accessed;
+
+    public TrackingView(@NotNull final Konfiguration wrapped) {
+        this(wrapped, ConcurrentHashMap.newKeySet());
+    }
+
+    private TrackingView(@NotNull final Konfiguration wrapped,
+                         @NotNull final Set<String> accessed) {
+        Objects.requireNonNull(wrapped, "wrapped");
+        this.wrapped = wrapped;
+        this.accessed = accessed;
+    }
+
+
+    @Override
+    @Contract(pure = true)
+    @NotNull
+    public String name() {
+        return this.wrapped.name();
+    }
+
+
+    @Override
+    public Boolean bool(@NotNull final String key) {
+        return track(key, wrapped.bool(key));
+    }
+
+    @Override
+    public Boolean bool(@NotNull final String key,
+                        final Boolean def) {
+        return this.has(key, Kind.of(boolean.class).withKey(key)) ? this.bool(key) : def;
+    }
+
+    @Override
+    public Byte byte_(@NotNull final String key) {
+        return track(key, wrapped.byte_(key));
+    }
+
+    @Override
+    public Byte byte_(@NotNull final String key,
+                      final Byte def) {
+        return this.has(key, Kind.of(byte.class).withKey(key)) ? this.byte_(key) : def;
+    }
+
+    @Override
+    public Character char_(@NotNull final String key) {
+        return track(key, wrapped.char_(key));
+    }
+
+    @Override
+    public Character char_(@NotNull final String key,
+                           final Character def) {
+        return this.has(key, Kind.of(char.class).withKey(key)) ? this.char_(key) : def;
+    }
+
+    @Override
+    public Short short_(@NotNull final String key) {
+        return track(key, wrapped.short_(key));
+    }
+
+    @Override
+    public Short short_(@NotNull final String key,
+                        final Short def) {
+        return this.has(key, Kind.of(short.class).withKey(key)) ? this.short_(key) : def;
+    }
+
+    @Override
+    public Integer int_(@NotNull final String key) {
+        return track(key, wrapped.int_(key));
+    }
+
+    @Override
+    public Integer int_(@NotNull final String key,
+                        final Integer def) {
+        return this.has(key, Kind.of(int.class).withKey(key)) ? this.int_(key) : def;
+    }
+
+    @Override
+    public Long long_(@NotNull final String key) {
+        return track(key, wrapped.long_(key));
+    }
+
+    @Override
+    public Long long_(@NotNull final String key,
+                      final Long def) {
+        return this.has(key, Kind.of(long.class).withKey(key)) ? this.long_(key) : def;
+    }
+
+    @Override
+    public Float float_(@NotNull final String key) {
+        return track(key, wrapped.float_(key));
+    }
+
+    @Override
+    public Float float_(@NotNull final String key,
+                        final Float def) {
+        return this.has(key, Kind.of(float.class).withKey(key)) ? this.float_(key) : def;
+    }
+
+    @Override
+    public Double double_(@NotNull final String key) {
+        return track(key, wrapped.double_(key));
+    }
+
+    @Override
+    public Double double_(@NotNull final String key,
+                          final Double def) {
+        return this.has(key, Kind.of(double.class).withKey(key)) ? this.double_(key) : def;
+    }
+
+    @Override
+    public String string(@NotNull final String key) {
+        return track(key, wrapped.string(key));
+    }
+
+    @Override
+    public String string(@NotNull final String key,
+                         final String def) {
+        return this.has(key, Kind.of(String.class).withKey(key)) ? this.string(key) : def;
+    }
+
+    @Override
+    public <U> List<U> list(@NotNull final String key,
+                            @NotNull final Kind<U> type) {
+        return track(key, wrapped.list(key, type));
+    }
+
+    @Override
+    public <U> List<U> list(@NotNull final String key,
+                            @NotNull final Kind<U> type,
+                            final List<U> def) {
+        return this.has(key, type.asList().withKey(key)) ? this.list(key, type) : def;
+    }
+
+    @Override
+    public <U> Set<U> set(@NotNull final String key,
+                          @NotNull final Kind<U> type) {
+        return track(key, wrapped.set(key, type));
+    }
+
+    @Override
+    public <U> Set<U> set(@NotNull final String key,
+                          @NotNull final Kind<U> type,
+                          final Set<U> def) {
+        return this.has(key, type.asSet().withKey(key)) ? this.set(key, type) : def;
+    }
+
+    @Override
+    public IntBuffer intArray(@NotNull final String key) {
+        return track(key, wrapped.intArray(key));
+    }
+
+    @Override
+    public LongBuffer longArray(@NotNull final String key) {
+        return track(key, wrapped.longArray(key));
+    }
+
+    @Override
+    public DoubleBuffer doubleArray(@NotNull final String key) {
+        return track(key, wrapped.doubleArray(key));
+    }
+
+    @Override
+    public <U> U custom(@NotNull final String key,
+                        @NotNull final Kind<U> type) {
+        return track(key, wrapped.custom(key, type));
+    }
+
+    @Override
+    public <U> U custom(@NotNull final String key,
+                        @NotNull final Kind<U> type,
+                        final U def) {
+        return this.has(key, type.withKey(key)) ? this.custom(key, type) : def;
+    }
+
+    @NotNull
+    @Override
+    public Batch getAll(@NotNull final Map<String, Kind<?>> keys) {
+        Objects.requireNonNull(keys, "keys");
+        final Batch batch = wrapped.getAll(keys);
+        this.accessed.addAll(keys.keySet());
+        return batch;
+    }
+
+    @Override
+    public boolean has(@NotNull final String key,
+                       @NotNull final Kind<?> type) {
+        return wrapped.has(key, type);
+    }
+
+    @Contract(pure = true,
+              value = "_ -> new")
+    @NotNull
+    @Override
+    public Konfiguration subset(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        return new SubsetView(this.name() + "::" + key, this, key);
+    }
+
+    @NotNull
+    @Override
+    public Set<String> keys() {
+        return wrapped.keys();
+    }
+
+    @NotNull
+    @Override
+    public Set<String> keys(@NotNull final String prefix) {
+        return wrapped.keys(prefix);
+    }
+
+    /**
+     * Reads through the snapshot are recorded here too.
+     */
+    @NotNull
+    @Override
+    public Konfiguration snapshot() {
+        final Konfiguration pinned = wrapped.snapshot();
+        return pinned == wrapped
+            ? this
+            : new TrackingView(pinned, this.accessed);
+    }
+
+
+    // =========================================================================
+
+    /**
+     * Keys read so far, exactly as requested.
+     *
+     * @return an unmodifiable view of the keys read so far.
+     */
+    @NotNull
+    @Contract(pure = true)
+    public Set<String> accessed() {
+        return Collections.unmodifiableSet(this.accessed);
+    }
+
+    /**
+     * Leaf keys of the wrapped konfiguration which are not read so far,
+     * neither directly nor through one of their parents.
+     *
+     * @return sorted set of unread leaf keys.
+     * @throws KfgSourceException if the wrapped konfiguration can not
+     *                            enumerate its keys.
+     */
+    @NotNull
+    public SortedSet<String> unused() {
+        final SortedSet<String> unused = new TreeSet<>();
+        for (final String leaf : this.wrapped.keys())
+            if (!this.isUsed(leaf))
+                unused.add(leaf);
+        return Collections.unmodifiableSortedSet(unused);
+    }
+
+    /**
+     * Register a JVM shutdown hook reporting {@link #unused()} keys to the
+     * given consumer.
+     *
+     * @param reporter receives the unused keys on JVM shutdown.
+     * @return this.
+     */
+    @NotNull
+    public TrackingView reportOnShutdown(@NotNull final Consumer<? super SortedSet<String>> reporter) {
+        Objects.requireNonNull(reporter, "reporter");
+        final Thread hook = new Thread(() -> reporter.accept(this.unused()), "konfiguration-unused-keys");
+        Runtime.getRuntime().addShutdownHook(hook);
+        return this;
+    }
+
+    private boolean isUsed(@NotNull final String leaf) {
+        if (this.accessed.contains(leaf))
+            return true;
+        for (int dot = leaf.lastIndexOf('.'); dot > 0; dot = leaf.lastIndexOf('.', dot - 1))
+            if (this.accessed.contains(leaf.substring(0, dot)))
+                return true;
+        return false;
+    }
+
+    private <T> T track(@NotNull final String key,
+                        final T value) {
+        this.accessed.add(key);
+        return value;
+    }
+
+}
@@ -0,0 +1,161 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.type.Kind;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Snapshot of a source validated by a {@link Schema}, see
+ * {@link Schema#validate(Source)}.
+ *
+ * <p>Values of the declared keys are read once at validation and served as
+ * is. The undeclared keys, and the declared keys requested with a kind other
+ * than the declared one, are read from the origin source.
+ *
+ * <p>Thread safe and immutable, as long as the origin source is.
+ */
+@Immutable
+@ThreadSafe
+final class ValidatedSource extends Source {
+
+    @NotNull
+    private final Source origin;
+
+    @NotNull
+    private final Map<String, Kind<?>> kinds;
+
+    @NotNull
+    private final Map<String, Object> values;
+
+    /**
+     * Maps are taken as is (not copied).
+     *
+     * @param origin the validated source.
+     * @param kinds  declared kinds of the keys present in origin.
+     * @param values values of the keys in kinds, nulls included.
+     */
+    ValidatedSource(@NotNull final Source origin,
+                    @NotNull final Map<String, Kind<?>> kinds,
+                    @NotNull final Map<String, Object> values) {
+        this.origin = origin;
+        this.kinds = kinds;
+        this.values = values;
+    }
+
+    private boolean isDeclared(@NotNull final String key,
+                               @NotNull final Kind<?> type) {
+        final Kind<?> declared = this.kinds.get(key);
+        return declared != null && Schema.sameType(declared.type(), type.type());
+    }
+
+    private boolean isDeclaredCollectionOf(@NotNull final String key,
+                                           @NotNull final Kind<?> element) {
+        final Kind<?> declared = this.kinds.get(key);
+        return declared != null
+            && declared.isCollection()
+            && Schema.sameType(declared.getCollectionContainedType(), element.type());
+    }
+
+
+    @NotNull
+    @Override
+    public String name() {
+        return this.origin.name();
+    }
+
+    @Override
+    public boolean has(@NotNull final String key,
+                       @NotNull final Kind<?> type) {
+        return this.isDeclared(key, type) || this.origin.has(key, type);
+    }
+
+    @Override
+    protected boolean isNull(@NotNull final String key) {
+        return this.kinds.containsKey(key)
+            ? this.values.get(key) == null
+            : this.origin.isNull(key);
+    }
+
+    @NotNull
+    @Override
+    protected Object bool0(@NotNull final String key) {
+        return this.isDeclared(key, Kind.BOOL) ? this.values.get(key) : this.origin.bool0(key);
+    }
+
+    @NotNull
+    @Override
+    protected Object char0(@NotNull final String key) {
+        return this.isDeclared(key, Kind.CHAR) ? this.values.get(key) : this.origin.char0(key);
+    }
+
+    @NotNull
+    @Override
+    protected Object string0(@NotNull final String key) {
+        return this.isDeclared(key, Kind.STRING) ? this.values.get(key) : this.origin.string0(key);
+    }
+
+    /**
+     * Integral snapshots are exact in any of the integral kinds number0 is
+     * read as, and range checked by the caller.
+     */
+    @NotNull
+    @Override
+    protected Number number0(@NotNull final String key) {
+        return this.isDeclared(key, Kind.LONG) || this.isDeclared(key, Kind.INT)
+            || this.isDeclared(key, Kind.SHORT) || this.isDeclared(key, Kind.BYTE)
+            ? (Number) this.values.get(key)
+            : this.origin.number0(key);
+    }
+
+    /**
+     * Only a double snapshot, a float one read as a double would not be the
+     * value in origin (0.1f is not 0.1).
+     */
+    @NotNull
+    @Override
+    protected Number numberDouble0(@NotNull final String key) {
+        return this.isDeclared(key, Kind.DOUBLE)
+            ? (Number) this.values.get(key)
+            : this.origin.numberDouble0(key);
+    }
+
+    @NotNull
+    @Override
+    protected List<?> list0(@NotNull final String key,
+                            @NotNull final Kind<?> type) {
+        final Object value = this.values.get(key);
+        return value instanceof List && this.isDeclaredCollectionOf(key, type)
+            ? (List<?>) value
+            : this.origin.list0(key, type);
+    }
+
+    @NotNull
+    @Override
+    protected Set<?> set0(@NotNull final String key,
+                          @NotNull final Kind<?> type) {
+        final Object value = this.values.get(key);
+        return value instanceof Set && this.isDeclaredCollectionOf(key, type)
+            ? (Set<?>) value
+            : this.origin.set0(key, type);
+    }
+
+    @NotNull
+    @Override
+    protected Object custom0(@NotNull final String key,
+                             @NotNull final Kind<?> type) {
+        return this.isDeclared(key, type) ? this.values.get(key) : this.origin.custom0(key, type);
+    }
+
+    @NotNull
+    @Override
+    protected Collection<String> keys0() {
+        return this.origin.keys0();
+    }
+
+}
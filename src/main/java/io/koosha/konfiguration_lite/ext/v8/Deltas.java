@@ -0,0 +1,84 @@
+package io.koosha.konfiguration_lite.ext.v8;
+
+import io.koosha.konfiguration_lite.KfgIllegalArgumentException;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Turns key/value deltas into an (RFC 7386) merge patch, shared by the
+ * sources supporting patches.
+ */
+final class Deltas {
+
+    private Deltas() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Nest the given deltas into a merge patch: {@code a.b = 1} becomes
+     * {@code {"a": {"b": 1}}}.
+     *
+     * @param source name of the source, for error messages.
+     * @param deltas dotted keys to their new values, null to remove.
+     * @return the merge patch.
+     * @throws KfgIllegalArgumentException if a key is malformed, or if one
+     *                                     key is under another, such as
+     *                                     {@code a} and {@code a.b}.
+     */
+    @NotNull
+    @Contract(pure = true)
+    static Map<String, Object> toPatch(@NotNull final String source,
+                                       @NotNull final Map<String, ?> deltas) {
+        Objects.requireNonNull(deltas, "deltas");
+
+        final Map<String, Object> patch = new LinkedHashMap<>();
+        // The maps nested here, as opposed to map values of the deltas.
+        final Set<Object> nested = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (final Map.Entry<String, ?> delta : deltas.entrySet()) {
+            final String key = Objects.requireNonNull(delta.getKey(), "key");
+            if (key.isEmpty() || key.startsWith(".") || key.endsWith(".") || key.contains(".."))
+                throw new KfgIllegalArgumentException(source, "malformed key: " + key);
+
+            Map<String, Object> at = patch;
+            int start = 0;
+            for (int dot = key.indexOf('.'); dot >= 0; dot = key.indexOf('.', start)) {
+                final String segment = key.substring(start, dot);
+                final Object child = at.get(segment);
+                if (child == null && !at.containsKey(segment)) {
+                    final Map<String, Object> created = new LinkedHashMap<>();
+                    nested.add(created);
+                    at.put(segment, created);
+                    at = created;
+                }
+                else if (nested.contains(child)) {
+                    at = cast(child);
+                }
+                else {
+                    throw new KfgIllegalArgumentException(source, "conflicting deltas: " + key);
+                }
+                start = dot + 1;
+            }
+
+            final String last = key.substring(start);
+            if (at.containsKey(last))
+                throw new KfgIllegalArgumentException(source, "conflicting deltas: " + key);
+            at.put(last, delta.getValue());
+        }
+        return patch;
+    }
+
+    @SuppressWarnings("unchecked")
+    @NotNull
+    private static Map<String, Object> cast(@Nullable final Object map) {
+        return (Map<String, Object>) map;
+    }
+
+}
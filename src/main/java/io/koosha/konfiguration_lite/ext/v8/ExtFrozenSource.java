@@ -0,0 +1,233 @@
+package io.koosha.konfiguration_lite.ext.v8;
+
+import io.koosha.konfiguration_lite.KfgIllegalArgumentException;
+import io.koosha.konfiguration_lite.KfgMissingKeyException;
+import io.koosha.konfiguration_lite.KfgSourceException;
+import io.koosha.konfiguration_lite.LeafValues;
+import io.koosha.konfiguration_lite.Source;
+import io.koosha.konfiguration_lite.SubsetView;
+import io.koosha.konfiguration_lite.index.KeyIndex;
+import io.koosha.konfiguration_lite.index.PerfectHashKeyIndex;
+import io.koosha.konfiguration_lite.index.RadixKeyIndex;
+import io.koosha.konfiguration_lite.type.Kind;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A frozen copy of the leaf values of another source, for konfigs which do
+ * not change between deploys.
+ *
+ * <p>All the leaf keys of the origin source are read once, at construction,
+ * and indexed with a {@link KeyIndex}, by default a
+ * {@link PerfectHashKeyIndex}. Values are kept in a flat array by the
+ * position of their key, so a lookup is a probe of the index and an array
+ * read, instead of a walk of the tree of the origin source.
+ *
+ * <p>Only leaves are kept, parents (such as {@code a} of {@code a.b}) can
+ * not be read as custom objects.
+ *
+ * <p>With a {@link RadixKeyIndex}, keys are not kept as strings, and
+ * {@link SubsetView}s descend into the trie, sharing the values with this
+ * source.
+ *
+ * <p>Thread safe and immutable.
+ */
+@Immutable
+@ThreadSafe
+@ApiStatus.Internal
+public final class ExtFrozenSource extends Source {
+
+    private static final Kind<Object> OBJECT = Kind.of(Object.class);
+
+    @NotNull
+    private final String name;
+
+    @NotNull
+    private final KeyIndex index;
+
+    /**
+     * Values by position, shared with the sources descending from this one.
+     */
+    @NotNull
+    private final Object[] values;
+
+    /**
+     * Position in values of position 0 of the index.
+     */
+    private final int offset;
+
+    /**
+     * Freeze the given source, indexed with a {@link PerfectHashKeyIndex}.
+     *
+     * @param origin the source to freeze, must support key enumeration.
+     * @throws KfgSourceException if origin can not enumerate its keys.
+     */
+    public ExtFrozenSource(@NotNull final Source origin) {
+        this(origin, PerfectHashKeyIndex::new);
+    }
+
+    /**
+     * Freeze the given source.
+     *
+     * @param origin  the source to freeze, must support key enumeration.
+     * @param indexer builds the index of the leaf keys of origin.
+     * @throws KfgSourceException if origin can not enumerate its keys.
+     */
+    public ExtFrozenSource(@NotNull final Source origin,
+                           @NotNull final Function<? super Collection<String>, ? extends KeyIndex> indexer) {
+        Objects.requireNonNull(origin, "origin");
+        Objects.requireNonNull(indexer, "indexer");
+        this.name = origin.name();
+
+        final Set<String> keys = origin.keys();
+        this.index = Objects.requireNonNull(indexer.apply(keys), "index");
+        if (this.index.size() != keys.size())
+            throw new KfgIllegalArgumentException(this.name, "index does not cover the keys");
+
+        this.values = new Object[keys.size()];
+        this.offset = 0;
+        for (final String key : keys)
+            this.values[this.index.indexOf(key)] = LeafValues.freeze(origin.custom(key, OBJECT));
+    }
+
+    /**
+     * A source descended into key of of.
+     */
+    private ExtFrozenSource(@NotNull final ExtFrozenSource of,
+                            @NotNull final String key,
+                            @NotNull final KeyIndex index,
+                            final int offset) {
+        super(of, key);
+        this.name = of.name;
+        this.index = index;
+        this.values = of.values;
+        this.offset = offset;
+    }
+
+
+    private int indexOrFail(@NotNull final String key) {
+        final int i = this.index.indexOf(key);
+        if (i < 0)
+            throw new KfgMissingKeyException(this.name(), this.fullKey(key));
+        return i;
+    }
+
+
+    @NotNull
+    @Override
+    public String name() {
+        return this.name;
+    }
+
+    @Override
+    @NotNull
+    protected Object bool0(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        return this.values[this.offset + this.indexOrFail(key)];
+    }
+
+    @Override
+    @NotNull
+    protected Object char0(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        return this.values[this.offset + this.indexOrFail(key)];
+    }
+
+    @Override
+    @NotNull
+    protected Object string0(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        return this.values[this.offset + this.indexOrFail(key)];
+    }
+
+    @Override
+    @NotNull
+    protected Number number0(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        return LeafValues.number(this.name, key, this.values[this.offset + this.indexOrFail(key)]);
+    }
+
+    @Override
+    @NotNull
+    protected Number numberDouble0(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        return this.number0(key);
+    }
+
+    @Override
+    @NotNull
+    protected List<?> list0(@NotNull final String key,
+                            @NotNull final Kind<?> type) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(type, "type");
+        return LeafValues.list(this.name, key, type, this.values[this.offset + this.indexOrFail(key)]);
+    }
+
+    @Override
+    @NotNull
+    protected Set<?> set0(@NotNull final String key,
+                          @NotNull final Kind<?> type) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(type, "type");
+        return LeafValues.set(this.name, key, type, this.values[this.offset + this.indexOrFail(key)]);
+    }
+
+    @Override
+    @NotNull
+    protected Object custom0(@NotNull final String key,
+                             @NotNull final Kind<?> type) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(type, "type");
+        return LeafValues.custom(this.name, key, type, this.values[this.offset + this.indexOrFail(key)]);
+    }
+
+    @Nullable
+    @Override
+    protected Source descend(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        if (!(this.index instanceof RadixKeyIndex))
+            return null;
+
+        final RadixKeyIndex root = (RadixKeyIndex) this.index;
+        final RadixKeyIndex descended = root.descend(key);
+        return descended == null
+            ? null
+            : new ExtFrozenSource(this, key, descended, this.offset + descended.base() - root.base());
+    }
+
+    @NotNull
+    @Override
+    protected Collection<String> keys0() {
+        final String[] keys = new String[this.index.size()];
+        for (int i = 0; i < keys.length; i++)
+            keys[i] = this.index.keyAt(i);
+        return Arrays.asList(keys);
+    }
+
+    @Override
+    protected boolean isNull(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        return this.values[this.offset + this.indexOrFail(key)] == null;
+    }
+
+    @Override
+    public boolean has(@NotNull final String key,
+                       @NotNull final Kind<?> type) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(type, "type");
+
+        final int i = this.index.indexOf(key);
+        return i >= 0 && LeafValues.accepts(this.values[this.offset + i], type);
+    }
+
+}
@@ -0,0 +1,420 @@
+package io.koosha.konfiguration_lite.ext.v8;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import io.koosha.konfiguration_lite.KfgAssertionException;
+import io.koosha.konfiguration_lite.KfgMissingKeyException;
+import io.koosha.konfiguration_lite.KfgSourceException;
+import io.koosha.konfiguration_lite.KfgTypeException;
+import io.koosha.konfiguration_lite.Source;
+import io.koosha.konfiguration_lite.type.Kind;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads konfig from a json source (supplied as string), using Gson.
+ *
+ * <p>The json tree is flattened at construction into an index of fully
+ * qualified keys to their elements (parents included), so a read is a single
+ * map lookup and no locking is needed.
+ *
+ * <p>for {@link #custom(String, Kind)} to work, the supplied Gson must
+ * be configured to handle arbitrary types accordingly.
+ *
+ * <p>Thread safe and immutable.
+ */
+@Immutable
+@ThreadSafe
+@ApiStatus.Internal
+public final class ExtGsonJsonSource extends Source {
+
+    private final Gson gson;
+    private final Map<String, JsonElement> index;
+
+    @NotNull
+    private final String name;
+
+    public ExtGsonJsonSource(@NotNull final String name,
+                             @NotNull final String json) {
+        this(name, json, Gson::new);
+    }
+
+    /**
+     * Creates an instance with the given json and Gson provider.
+     *
+     * @param name name of this source
+     * @param json backing store. Must be a non-null valid json string.
+     * @param gson {@link Gson} provider, called once. Must return a valid
+     *             non-null Gson, and if required, it must be able to
+     *             deserialize custom types, so that
+     *             {@link #custom(String, Kind)} works as well.
+     * @throws NullPointerException if any of its arguments are null.
+     * @throws KfgSourceException   if gson library is not in the classpath. it specifically looks
+     *                              for the class: "com.google.gson.JsonElement"
+     * @throws KfgSourceException   if the provided json string can not be parsed by gson.
+     * @throws KfgSourceException   if the root element is not a json object.
+     */
+    public ExtGsonJsonSource(@NotNull final String name,
+                             @NotNull final String json,
+                             @NotNull final Supplier<Gson> gson) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(json, "json");
+        Objects.requireNonNull(gson, "gson");
+
+        this.name = name;
+        // Check early, so we're not fooled with a dummy object reader.
+        try {
+            Class.forName("com.google.gson.JsonElement");
+        }
+        catch (final ClassNotFoundException e) {
+            throw new KfgSourceException(this.name(),
+                "gson library is required to be present in " +
+                    "the class path, can not find the class: " +
+                    "com.google.gson.JsonElement", e);
+        }
+
+        this.gson = requireNonNull(gson.get(), "supplied gson is null");
+
+        final JsonElement root;
+        try {
+            root = JsonParser.parseString(json);
+        }
+        catch (final JsonParseException e) {
+            throw new KfgSourceException(this.name(), "error parsing json string", e);
+        }
+        if (!root.isJsonObject())
+            throw new KfgSourceException(this.name(), "root element is not a json object");
+
+        final Map<String, JsonElement> index = new HashMap<>();
+        flatten(index, "", root);
+        this.index = index;
+    }
+
+    private static void flatten(@NotNull final Map<String, JsonElement> into,
+                                @NotNull final String prefix,
+                                @NotNull final JsonElement element) {
+        for (final Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+            final String key = prefix + entry.getKey();
+            into.put(key, entry.getValue());
+            if (entry.getValue().isJsonObject())
+                flatten(into, key + ".", entry.getValue());
+        }
+    }
+
+
+    @NotNull
+    private JsonElement element(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+
+        if (key.isEmpty())
+            throw new KfgMissingKeyException(this.name(), key, "empty konfig key");
+
+        final JsonElement element = this.index.get(key);
+        if (element == null)
+            throw new KfgMissingKeyException(this.name(), key);
+        return element;
+    }
+
+    @NotNull
+    private JsonElement checkJsonType(final boolean condition,
+                                      @NotNull final Kind<?> required,
+                                      @NotNull final JsonElement element,
+                                      @NotNull final String key) {
+        if (!condition)
+            throw new KfgTypeException(this.name(), key, required, element);
+        if (element.isJsonNull())
+            throw new KfgAssertionException(this.name(), key, required, null, null);
+        return element;
+    }
+
+    @Contract(pure = true)
+    private static boolean isBoolean(@NotNull final JsonElement element) {
+        return element.isJsonPrimitive() && element.getAsJsonPrimitive().isBoolean();
+    }
+
+    @Contract(pure = true)
+    private static boolean isString(@NotNull final JsonElement element) {
+        return element.isJsonPrimitive() && element.getAsJsonPrimitive().isString();
+    }
+
+    @Contract(pure = true)
+    private static boolean isNumber(@NotNull final JsonElement element) {
+        return element.isJsonPrimitive() && element.getAsJsonPrimitive().isNumber();
+    }
+
+    /**
+     * Gson does not tell integral and floating point numbers apart, the
+     * literal does.
+     */
+    @Contract(pure = true)
+    private static boolean isIntegral(@NotNull final JsonElement element) {
+        if (!isNumber(element))
+            return false;
+        final String literal = element.getAsString();
+        for (int i = 0; i < literal.length(); i++) {
+            final char c = literal.charAt(i);
+            if (c == '.' || c == 'e' || c == 'E')
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isIntegralIn(@NotNull final JsonElement element,
+                                        final long min,
+                                        final long max) {
+        if (!isIntegral(element))
+            return false;
+        // Not getAsLong(), which wraps numbers past the long range around.
+        try {
+            final long value = Long.parseLong(element.getAsString());
+            return min <= value && value <= max;
+        }
+        catch (final NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Whether element is a number not overflowing a float, the same rule
+     * {@link Source} applies to single float values: an infinite literal
+     * stays infinite, a finite one must round to at most
+     * {@link Float#MAX_VALUE}.
+     */
+    @Contract(pure = true)
+    private static boolean isFloat(@NotNull final JsonElement element) {
+        if (!isNumber(element))
+            return false;
+        final double value = element.getAsDouble();
+        return !Float.isInfinite((float) value) || Double.isInfinite(value);
+    }
+
+    private boolean typeMatches(@NotNull final Kind<?> type,
+                                @NotNull final JsonElement element) {
+        return type.isNull() && element.isJsonNull()
+            || type.isBool() && isBoolean(element)
+            || type.isChar() && isString(element) && element.getAsString().length() == 1
+            || type.isString() && isString(element)
+            || type.isByte() && isIntegralIn(element, Byte.MIN_VALUE, Byte.MAX_VALUE)
+            || type.isShort() && isIntegralIn(element, Short.MIN_VALUE, Short.MAX_VALUE)
+            || type.isInt() && isIntegralIn(element, Integer.MIN_VALUE, Integer.MAX_VALUE)
+            || type.isLong() && isIntegralIn(element, Long.MIN_VALUE, Long.MAX_VALUE)
+            || type.isFloat() && isFloat(element)
+            || type.isDouble() && isNumber(element)
+            || type.isList() && element.isJsonArray() && this.elementsMatch(type, element)
+            || type.isSet() && element.isJsonArray() && this.elementsMatch(type, element);
+    }
+
+    /**
+     * Whether type is a kind Gson converts to by truncating or rounding,
+     * instead of failing.
+     */
+    @Contract(pure = true)
+    private static boolean isScalar(@NotNull final Kind<?> type) {
+        return type.isBool() || type.isChar() || type.isString()
+            || type.isByte() || type.isShort() || type.isInt() || type.isLong()
+            || type.isFloat() || type.isDouble();
+    }
+
+    /**
+     * Whether all the elements of array can be read as the element type of
+     * collection, the same way they are read as single values. Only checked
+     * for scalar elements, Gson decides for the rest.
+     */
+    private boolean elementsMatch(@NotNull final Kind<?> collection,
+                                  @NotNull final JsonElement array) {
+        if (!collection.isParametrized())
+            return true;
+        final Kind<?> type = collection.getCollectionContainedKind();
+        if (!isScalar(type))
+            return true;
+        for (final JsonElement element : array.getAsJsonArray())
+            if (!element.isJsonNull() && !this.typeMatches(type, element))
+                return false;
+        return true;
+    }
+
+
+    @NotNull
+    @Override
+    public String name() {
+        return this.name;
+    }
+
+    @Override
+    @NotNull
+    protected Boolean bool0(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+
+        final JsonElement at = element(key);
+        return checkJsonType(isBoolean(at), Kind.BOOL, at, key).getAsBoolean();
+    }
+
+    @Override
+    @NotNull
+    protected Character char0(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+
+        final JsonElement at = element(key);
+        return checkJsonType(isString(at) && at.getAsString().length() == 1, Kind.STRING, at, key)
+            .getAsString()
+            .charAt(0);
+    }
+
+    @Override
+    @NotNull
+    protected String string0(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+
+        final JsonElement at = element(key);
+        return checkJsonType(isString(at), Kind.STRING, at, key).getAsString();
+    }
+
+    @NotNull
+    @Override
+    protected Number number0(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+
+        final JsonElement at = element(key);
+        checkJsonType(isIntegral(at), Kind.LONG, at, key);
+        try {
+            return at.getAsLong();
+        }
+        catch (final NumberFormatException e) {
+            throw new KfgTypeException(this.name(), key, Kind.LONG, at, "out of range", e);
+        }
+    }
+
+    @NotNull
+    @Override
+    protected Number numberDouble0(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+
+        final JsonElement at = element(key);
+        return checkJsonType(isNumber(at), Kind.DOUBLE, at, key).getAsDouble();
+    }
+
+    @NotNull
+    @Override
+    protected List<?> list0(@NotNull final String key,
+                            @NotNull final Kind<?> type) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(type, "type");
+
+        final JsonElement at = element(key);
+        checkJsonType(at.isJsonArray(), type, at, key);
+        if (!this.elementsMatch(type.asList(), at))
+            throw new KfgTypeException(this.name(), key, type.asList(), at, "element out of range or of another type");
+
+        final List<?> asList;
+        try {
+            asList = this.gson.fromJson(at, TypeToken.getParameterized(List.class, type.type()).getType());
+        }
+        catch (final JsonParseException e) {
+            throw new KfgTypeException(this.name(), key, type, at, "type mismatch", e);
+        }
+        return Collections.unmodifiableList(asList);
+    }
+
+    @NotNull
+    @Override
+    protected Set<?> set0(@NotNull final String key,
+                          @NotNull final Kind<?> type) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(type, "type");
+
+        final List<?> asList = this.list0(key, type);
+        final Set<?> asSet = new HashSet<>(asList);
+        if (asSet.size() != asList.size())
+            throw new KfgTypeException(this.name, key, type.asSet(), asList, "is a list, not a set");
+        return Collections.unmodifiableSet(asSet);
+    }
+
+    @Override
+    @NotNull
+    protected Object custom0(@NotNull final String key,
+                             @NotNull final Kind<?> type) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(type, "type");
+
+        final JsonElement at = element(key);
+
+        final Object ret;
+        try {
+            ret = this.gson.fromJson(at, type.type());
+        }
+        catch (final JsonParseException | NumberFormatException e) {
+            throw new KfgTypeException(this.name(), key, type, at, "gson error", e);
+        }
+
+        if (ret instanceof List)
+            return Collections.unmodifiableList(((List<?>) ret));
+        else if (ret instanceof Set)
+            return Collections.unmodifiableSet(((Set<?>) ret));
+        else
+            return ret;
+    }
+
+    @NotNull
+    @Override
+    protected Collection<String> keys0() {
+        final List<String> keys = new ArrayList<>();
+        for (final Map.Entry<String, JsonElement> entry : this.index.entrySet())
+            if (!entry.getValue().isJsonObject() || entry.getValue().getAsJsonObject().size() == 0)
+                keys.add(entry.getKey());
+        return keys;
+    }
+
+    @Override
+    protected boolean isNull(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        return element(key).isJsonNull();
+    }
+
+    @Override
+    public boolean has(@NotNull final String key,
+                       @Nullable final Kind<?> type) {
+        Objects.requireNonNull(key, "key");
+
+        final JsonElement element = this.index.get(key);
+        if (element == null)
+            return false;
+        if (type == null || element.isJsonNull())
+            return true;
+
+        if (this.typeMatches(type, element))
+            return true;
+
+        // Gson silently truncates out of range numbers, don't let it decide.
+        if (isScalar(type) || (type.isList() || type.isSet()) && element.isJsonArray())
+            return false;
+
+        try {
+            this.custom0(key, type);
+            return true;
+        }
+        catch (Throwable t) {
+            return false;
+        }
+    }
+
+}
@@ -3,19 +3,30 @@ package io.koosha.konfiguration_lite.ext.v8;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.CollectionType;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.NumericNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.fasterxml.jackson.databind.node.ValueNode;
 import com.fasterxml.jackson.databind.type.TypeFactory;
+import io.koosha.konfiguration_lite.Interner;
+import io.koosha.konfiguration_lite.JfrEvents;
 import io.koosha.konfiguration_lite.KfgAssertionException;
+import io.koosha.konfiguration_lite.KfgIllegalArgumentException;
 import io.koosha.konfiguration_lite.KfgMissingKeyException;
 import io.koosha.konfiguration_lite.KfgSourceException;
 import io.koosha.konfiguration_lite.KfgTypeException;
+import io.koosha.konfiguration_lite.LazySource;
 import io.koosha.konfiguration_lite.Source;
+import io.koosha.konfiguration_lite.SourceLoader;
 import io.koosha.konfiguration_lite.type.Kind;
-import jdk.nashorn.internal.ir.annotations.Immutable;
+import net.jcip.annotations.Immutable;
 import net.jcip.annotations.ThreadSafe;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Contract;
@@ -23,14 +34,25 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 import java.util.function.Supplier;
-import java.util.regex.Pattern;
 
 import static java.util.Objects.requireNonNull;
 
@@ -47,8 +69,6 @@ import static java.util.Objects.requireNonNull;
 @ApiStatus.Internal
 public final class ExtJacksonJsonSource extends Source {
 
-    private static final String DOT_PATTERN = Pattern.quote(".");
-
     @Contract(pure = true,
               value = "->new")
     @NotNull
@@ -58,7 +78,19 @@ public final class ExtJacksonJsonSource extends Source {
         return mapper;
     }
 
-    private final Supplier<ObjectMapper> mapperSupplier;
+    private final ObjectMapper mapper;
+
+    /**
+     * Readers of custom types, by {@link Kind#type()}, so that jackson's
+     * deserializer lookup is done once per type. Shared with the sources
+     * descended from this one.
+     */
+    private final Map<Type, ObjectReader> readers;
+
+    /**
+     * Readers of lists, by their element type, see {@link #readers}.
+     */
+    private final Map<Type, ObjectReader> listReaders;
     private final JsonNode root;
     private final Object LOCK = new Object();
 
@@ -70,15 +102,21 @@ public final class ExtJacksonJsonSource extends Source {
             Objects.requireNonNull(key, "key");
 
             if (key.isEmpty())
-                throw new KfgMissingKeyException(this.name(), key, "empty konfig key");
+                throw new KfgMissingKeyException(this.name(), this.fullKey(key), "empty konfig key");
 
             JsonNode node = this.root;
-            for (final String sub : key.split(DOT_PATTERN)) {
+            int start = 0;
+            while (true) {
                 if (node.isMissingNode())
                     return node;
-                node = root.findPath(sub);
+                final int dot = key.indexOf('.', start);
+                if (dot < 0)
+                    break;
+                node = node.path(key.substring(start, dot));
+                start = dot + 1;
             }
-            return node;
+
+            return node.path(key.substring(start));
         }
     }
 
@@ -88,11 +126,11 @@ public final class ExtJacksonJsonSource extends Source {
             Objects.requireNonNull(key, "key");
 
             if (key.isEmpty())
-                throw new KfgMissingKeyException(this.name(), key, "empty konfig key");
+                throw new KfgMissingKeyException(this.name(), this.fullKey(key), "empty konfig key");
 
             final JsonNode node = node_(key);
             if (node.isMissingNode())
-                throw new KfgMissingKeyException(this.name(), key);
+                throw new KfgMissingKeyException(this.name(), this.fullKey(key));
             return node;
         }
     }
@@ -103,9 +141,9 @@ public final class ExtJacksonJsonSource extends Source {
                                    @NotNull final JsonNode node,
                                    @NotNull final String key) {
         if (!condition)
-            throw new KfgTypeException(this.name(), key, required, node);
+            throw new KfgTypeException(this.name(), this.fullKey(key), required, node);
         if (node.isNull())
-            throw new KfgAssertionException(this.name(), key, required, null, null);
+            throw new KfgAssertionException(this.name(), this.fullKey(key), required, null, null);
         return node;
     }
 
@@ -127,6 +165,125 @@ public final class ExtJacksonJsonSource extends Source {
     }
 
 
+    /**
+     * Whether the numeric elements of array fit the element type, with the
+     * same rules as single values. Jackson would wrap them (200 as a byte is
+     * -56) or overflow them (1e300 as a float is infinity) instead. Other
+     * elements are left to Jackson.
+     */
+    @Contract(pure = true)
+    private static boolean elementsInRange(@NotNull final Kind<?> type,
+                                           @NotNull final JsonNode array) {
+        for (final JsonNode element : array) {
+            if (!element.isNumber())
+                continue;
+            if (type.isByte() && !isIntegralIn(element, Byte.MIN_VALUE, Byte.MAX_VALUE)
+                || type.isShort() && !isIntegralIn(element, Short.MIN_VALUE, Short.MAX_VALUE)
+                || type.isInt() && !isIntegralIn(element, Integer.MIN_VALUE, Integer.MAX_VALUE)
+                || type.isLong() && !isIntegralIn(element, Long.MIN_VALUE, Long.MAX_VALUE)
+                || type.isFloat() && !isFloat(element))
+                return false;
+        }
+        return true;
+    }
+
+    @Contract(pure = true)
+    private static boolean isIntegralIn(@NotNull final JsonNode number,
+                                        final long min,
+                                        final long max) {
+        if (!number.isIntegralNumber() || !number.canConvertToLong())
+            return false;
+        final long value = number.longValue();
+        return min <= value && value <= max;
+    }
+
+    /**
+     * An infinite number stays infinite, a finite one must round to at most
+     * {@link Float#MAX_VALUE}.
+     */
+    @Contract(pure = true)
+    private static boolean isFloat(@NotNull final JsonNode number) {
+        final double value = number.doubleValue();
+        return !Float.isInfinite((float) value) || Double.isInfinite(value);
+    }
+
+    /**
+     * Same as {@link #ExtJacksonJsonSource(String, String, Supplier)}, except
+     * that the json is parsed on first access rather than here.
+     *
+     * @see LazySource
+     */
+    @NotNull
+    @Contract(value = "_, _, _ -> new",
+              pure = true)
+    public static LazySource lazy(@NotNull final String name,
+                                  @NotNull final String json,
+                                  @NotNull final Supplier<ObjectMapper> objectMapper) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(json, "json");
+        Objects.requireNonNull(objectMapper, "objectMapper");
+        return new LazySource(name, () -> new ExtJacksonJsonSource(name, json, objectMapper));
+    }
+
+    @NotNull
+    @Contract(value = "_, _ -> new",
+              pure = true)
+    public static LazySource lazy(@NotNull final String name,
+                                  @NotNull final String json) {
+        return lazy(name, json, ExtJacksonJsonSource::defaultJacksonObjectMapper);
+    }
+
+
+    /**
+     * Same as {@link #ExtJacksonJsonSource(String, String, Supplier)}, except
+     * that the json is read from the given (UTF-8) file and parsed on the
+     * given executor.
+     *
+     * @see SourceLoader#async(String, Path, Function, Executor)
+     */
+    @NotNull
+    @Contract("_, _, _, _ -> new")
+    public static CompletableFuture<Source> async(@NotNull final String name,
+                                                  @NotNull final Path json,
+                                                  @NotNull final Supplier<ObjectMapper> objectMapper,
+                                                  @NotNull final Executor executor) {
+        Objects.requireNonNull(objectMapper, "objectMapper");
+        return SourceLoader.async(name, json, read -> new ExtJacksonJsonSource(name, read, objectMapper), executor);
+    }
+
+    @NotNull
+    @Contract("_, _, _ -> new")
+    public static CompletableFuture<Source> async(@NotNull final String name,
+                                                  @NotNull final Path json,
+                                                  @NotNull final Executor executor) {
+        return async(name, json, ExtJacksonJsonSource::defaultJacksonObjectMapper, executor);
+    }
+
+    /**
+     * Same as {@link #async(String, Path, Supplier, Executor)}, reading from
+     * the given stream instead, which is closed once read.
+     *
+     * @see SourceLoader#async(String, InputStream, Function, Executor)
+     */
+    @NotNull
+    @Contract("_, _, _, _ -> new")
+    public static CompletableFuture<Source> async(@NotNull final String name,
+                                                  @NotNull final InputStream json,
+                                                  @NotNull final Supplier<ObjectMapper> objectMapper,
+                                                  @NotNull final Executor executor) {
+        Objects.requireNonNull(objectMapper, "objectMapper");
+        return SourceLoader.async(name, json, read -> new ExtJacksonJsonSource(name, read, objectMapper), executor);
+    }
+
+    @NotNull
+    @Contract("_, _, _ -> new")
+    public static CompletableFuture<Source> async(@NotNull final String name,
+                                                  @NotNull final InputStream json,
+                                                  @NotNull final Executor executor) {
+        return async(name, json, ExtJacksonJsonSource::defaultJacksonObjectMapper, executor);
+    }
+
+
     public ExtJacksonJsonSource(@NotNull final String name,
                                 @NotNull final String json) {
         this(name, json, ExtJacksonJsonSource::defaultJacksonObjectMapper);
@@ -139,9 +296,9 @@ public final class ExtJacksonJsonSource extends Source {
      * @param name         name of this source
      * @param json backing store provider. Must always return a non-null valid json
      *                     string.
-     * @param objectMapper {@link ObjectMapper} provider. Must always return a valid
-     *                     non-null ObjectMapper, and if required, it must be able to
-     *                     deserialize custom types, so that {@link #custom(String, Kind)}
+     * @param objectMapper {@link ObjectMapper} provider, called once. Must return a
+     *                     valid non-null ObjectMapper, and if required, it must be able
+     *                     to deserialize custom types, so that {@link #custom(String, Kind)}
      *                     works as well.
      * @throws NullPointerException if any of its arguments are null.
      * @throws KfgSourceException   if jackson library is not in the classpath. it specifically looks
@@ -153,6 +310,90 @@ public final class ExtJacksonJsonSource extends Source {
     public ExtJacksonJsonSource(@NotNull final String name,
                                 @NotNull final String json,
                                 @NotNull final Supplier<ObjectMapper> objectMapper) {
+        this(name, json, objectMapper, null, null);
+    }
+
+    /**
+     * Creates an instance which only keeps the parts of json under the given
+     * prefixes. Every other branch is skipped while streaming through the
+     * json and never turned into a tree, so load time and memory scale with
+     * what is kept rather than with the size of json.
+     *
+     * <p>Keys outside the prefixes are missing from this source.
+     *
+     * @param name         name of this source.
+     * @param json         backing store. Must be a non-null valid json string.
+     * @param objectMapper see {@link #ExtJacksonJsonSource(String, String, Supplier)}.
+     * @param prefixes     keys to keep, along with everything under them, such
+     *                     as {@code service.foo}.
+     * @return the created source.
+     * @throws NullPointerException if any of its arguments are null.
+     * @throws KfgSourceException   if the provided json string can not be parsed by jackson.
+     */
+    @NotNull
+    @Contract(value = "_, _, _, _ -> new",
+              pure = true)
+    public static ExtJacksonJsonSource partial(@NotNull final String name,
+                                               @NotNull final String json,
+                                               @NotNull final Supplier<ObjectMapper> objectMapper,
+                                               @NotNull final Collection<String> prefixes) {
+        Objects.requireNonNull(prefixes, "prefixes");
+
+        final Set<String> normalized = new HashSet<>();
+        for (final String prefix : prefixes) {
+            Objects.requireNonNull(prefix, "prefix");
+            normalized.add(prefix.endsWith(".") ? prefix.substring(0, prefix.length() - 1) : prefix);
+        }
+        return new ExtJacksonJsonSource(name, json, objectMapper, normalized, null);
+    }
+
+    @NotNull
+    @Contract(value = "_, _, _ -> new",
+              pure = true)
+    public static ExtJacksonJsonSource partial(@NotNull final String name,
+                                               @NotNull final String json,
+                                               @NotNull final Collection<String> prefixes) {
+        return partial(name, json, ExtJacksonJsonSource::defaultJacksonObjectMapper, prefixes);
+    }
+
+    /**
+     * Same as {@link #ExtJacksonJsonSource(String, String, Supplier)}, except
+     * that keys and values are interned in the given pool, so that sources
+     * loaded from similar documents share them. Interned as the document is
+     * parsed, no second copy of the tree is made.
+     *
+     * @param name         name of this source.
+     * @param json         backing store. Must be a non-null valid json string.
+     * @param objectMapper see {@link #ExtJacksonJsonSource(String, String, Supplier)}.
+     * @param interner     pool to intern keys and values in, such as
+     *                     {@link Interner#shared()}.
+     * @return the created source.
+     * @throws NullPointerException if any of its arguments are null.
+     * @throws KfgSourceException   if the provided json string can not be parsed by jackson.
+     */
+    @NotNull
+    @Contract(value = "_, _, _, _ -> new")
+    public static ExtJacksonJsonSource interned(@NotNull final String name,
+                                                @NotNull final String json,
+                                                @NotNull final Supplier<ObjectMapper> objectMapper,
+                                                @NotNull final Interner interner) {
+        Objects.requireNonNull(interner, "interner");
+        return new ExtJacksonJsonSource(name, json, objectMapper, null, interner);
+    }
+
+    @NotNull
+    @Contract(value = "_, _, _ -> new")
+    public static ExtJacksonJsonSource interned(@NotNull final String name,
+                                                @NotNull final String json,
+                                                @NotNull final Interner interner) {
+        return interned(name, json, ExtJacksonJsonSource::defaultJacksonObjectMapper, interner);
+    }
+
+    private ExtJacksonJsonSource(@NotNull final String name,
+                                 @NotNull final String json,
+                                 @NotNull final Supplier<ObjectMapper> objectMapper,
+                                 @Nullable final Set<String> prefixes,
+                                 @Nullable final Interner interner) {
         Objects.requireNonNull(name, "name");
         Objects.requireNonNull(json, "json");
         Objects.requireNonNull(objectMapper, "objectMapper");
@@ -169,23 +410,320 @@ public final class ExtJacksonJsonSource extends Source {
                     "com.fasterxml.jackson.databind.JsonNode", e);
         }
 
-        this.mapperSupplier = objectMapper;
-
         requireNonNull(json, "supplied json is null");
-        requireNonNull(this.mapperSupplier.get(), "supplied mapper is null");
+        final ObjectMapper mapper = requireNonNull(objectMapper.get(), "supplied mapper is null");
+        this.mapper = mapper;
+        this.readers = new ConcurrentHashMap<>();
+        this.listReaders = new ConcurrentHashMap<>();
 
+        final Object token = JfrEvents.loadStart();
         final JsonNode update;
         try {
-            update = this.mapperSupplier.get().readTree(json);
+            update = prefixes != null ? readPartial(mapper, json, prefixes)
+                : interner != null ? mapper.reader().with(new InterningNodeFactory(interner)).readTree(json)
+                : mapper.readTree(json);
         }
         catch (final IOException e) {
             throw new KfgSourceException(this.name(), "error parsing json string", e);
         }
         requireNonNull(update, "root element is null");
+        JfrEvents.loaded(token, this.name, "json", json.length(), update, ExtJacksonJsonSource::countNodes);
 
         this.root = update;
     }
 
+    /**
+     * A source descended into key of of, rooted at the given node, sharing
+     * everything else with of.
+     */
+    private ExtJacksonJsonSource(@NotNull final ExtJacksonJsonSource of,
+                                 @NotNull final String key,
+                                 @NotNull final JsonNode root) {
+        super(of, key);
+        this.name = of.name;
+        this.mapper = of.mapper;
+        this.readers = of.readers;
+        this.listReaders = of.listReaders;
+        this.root = root;
+    }
+
+    /**
+     * A source with the given root, sharing everything else with of, whose
+     * keys are patched as given.
+     */
+    private ExtJacksonJsonSource(@NotNull final ExtJacksonJsonSource of,
+                                 @NotNull final JsonNode root,
+                                 @NotNull final Collection<String> removed,
+                                 @NotNull final Collection<String> added) {
+        super(of, removed, added);
+        this.name = of.name;
+        this.mapper = of.mapper;
+        this.readers = of.readers;
+        this.listReaders = of.listReaders;
+        this.root = root;
+    }
+
+
+    /**
+     * A new source with the given (RFC 7386) merge patch applied to the
+     * document of this source, which is left as is.
+     *
+     * <p>Only the objects on the paths touched by the patch are copied, all
+     * the other subtrees are shared with this source. So the cost of a patch
+     * depends on its size and on the width of the objects it touches, not on
+     * the size of the document.
+     *
+     * @param patch the merge patch, a json document.
+     * @return the patched source.
+     * @throws KfgSourceException if patch can not be parsed.
+     */
+    @NotNull
+    @Contract(value = "_ -> new",
+              pure = true)
+    public ExtJacksonJsonSource mergePatch(@NotNull final String patch) {
+        Objects.requireNonNull(patch, "patch");
+        final JsonNode parsed;
+        try {
+            parsed = this.mapper.readTree(patch);
+        }
+        catch (final IOException e) {
+            throw new KfgSourceException(this.name(), "error parsing merge patch", e);
+        }
+        if (parsed == null || parsed.isMissingNode())
+            throw new KfgSourceException(this.name(), "merge patch is empty");
+        return this.patched(parsed);
+    }
+
+    /**
+     * Same as {@link #mergePatch(String)}, with the patch given as key/value
+     * deltas, such as {@code a.b -> 1}. Values are converted to json with the
+     * object mapper of this source. A null value removes its key, and a map
+     * value is merged into the object at its key, as in a merge patch.
+     *
+     * @param deltas dotted keys to their new values.
+     * @return the patched source.
+     * @throws KfgIllegalArgumentException if a key is malformed, or if a key
+     *                                     is under another one.
+     */
+    @NotNull
+    @Contract(value = "_ -> new",
+              pure = true)
+    public ExtJacksonJsonSource withDeltas(@NotNull final Map<String, ?> deltas) {
+        return this.patched(this.mapper.valueToTree(Deltas.toPatch(this.name(), deltas)));
+    }
+
+    @NotNull
+    private ExtJacksonJsonSource patched(@NotNull final JsonNode patch) {
+        final List<String> removed = new ArrayList<>();
+        final List<String> added = new ArrayList<>();
+        final JsonNode merged = merge(this.root, patch, "", removed, added);
+        return new ExtJacksonJsonSource(this, merged, removed, added);
+    }
+
+    /**
+     * Nodes of target are never modified, the objects on the path of the
+     * patch are copied (shallow) instead.
+     *
+     * @param path    key of target, empty for the root.
+     * @param removed collects the keys removed, along with the keys under
+     *                them, as in {@link #keys0()}.
+     * @param added   collects the leaf keys added.
+     */
+    @NotNull
+    private static JsonNode merge(@NotNull final JsonNode target,
+                                  @NotNull final JsonNode patch,
+                                  @NotNull final String path,
+                                  @NotNull final Collection<String> removed,
+                                  @NotNull final Collection<String> added) {
+        if (!patch.isObject()) {
+            removed.add(path);
+            if (!path.isEmpty())
+                added.add(path);
+            return patch;
+        }
+
+        final ObjectNode merged = JsonNodeFactory.instance.objectNode();
+        if (target.isObject())
+            merged.setAll((ObjectNode) target);
+        // A leaf until now.
+        if (merged.size() == 0)
+            removed.add(path);
+
+        final Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            final Map.Entry<String, JsonNode> field = fields.next();
+            final String key = path.isEmpty() ? field.getKey() : path + "." + field.getKey();
+            if (field.getValue().isNull()) {
+                if (merged.remove(field.getKey()) != null)
+                    removed.add(key);
+            }
+            else {
+                merged.set(field.getKey(), merge(target.path(field.getKey()), field.getValue(), key, removed, added));
+            }
+        }
+
+        // An empty object is a leaf, see keys0().
+        if (merged.size() == 0 && !path.isEmpty())
+            added.add(path);
+        return merged;
+    }
+
+    @Contract(pure = true)
+    private static long countNodes(@NotNull final JsonNode node) {
+        long count = 1;
+        for (final JsonNode child : node)
+            count += countNodes(child);
+        return count;
+    }
+
+    /**
+     * Creates the nodes of a document as it is parsed, with the value nodes
+     * and the field names interned.
+     */
+    private static final class InterningNodeFactory extends JsonNodeFactory {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Interner interner;
+
+        InterningNodeFactory(@NotNull final Interner interner) {
+            super(false);
+            this.interner = interner;
+        }
+
+        @Override
+        public TextNode textNode(final String text) {
+            return this.interner.intern(super.textNode(text));
+        }
+
+        @Override
+        public NumericNode numberNode(final int v) {
+            return this.interner.intern(super.numberNode(v));
+        }
+
+        @Override
+        public NumericNode numberNode(final long v) {
+            return this.interner.intern(super.numberNode(v));
+        }
+
+        @Override
+        public NumericNode numberNode(final double v) {
+            return this.interner.intern(super.numberNode(v));
+        }
+
+        @Override
+        public ValueNode numberNode(final BigInteger v) {
+            return this.interner.intern(super.numberNode(v));
+        }
+
+        @Override
+        public ValueNode numberNode(final BigDecimal v) {
+            return this.interner.intern(super.numberNode(v));
+        }
+
+        @Override
+        public ObjectNode objectNode() {
+            return new InterningObjectNode(this, this.interner);
+        }
+
+    }
+
+    /**
+     * Interns the field names it is given by the parser.
+     */
+    private static final class InterningObjectNode extends ObjectNode {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Interner interner;
+
+        InterningObjectNode(@NotNull final JsonNodeFactory factory,
+                            @NotNull final Interner interner) {
+            super(factory);
+            this.interner = interner;
+        }
+
+        @Override
+        public JsonNode replace(final String fieldName,
+                                final JsonNode value) {
+            return super.replace(this.interner.intern(fieldName), value);
+        }
+
+        @Override
+        public <T extends JsonNode> T set(final String fieldName,
+                                          final JsonNode value) {
+            return super.set(this.interner.intern(fieldName), value);
+        }
+
+    }
+
+    @Nullable
+    private static JsonNode readPartial(@NotNull final ObjectMapper mapper,
+                                        @NotNull final String json,
+                                        @NotNull final Set<String> prefixes) throws IOException {
+        try (final JsonParser parser = mapper.getFactory().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                return parser.currentToken() == null ? null : mapper.readTree(parser);
+
+            final ObjectNode root = mapper.getNodeFactory().objectNode();
+            readPartial(mapper, parser, root, "", prefixes);
+            return root;
+        }
+    }
+
+    /**
+     * Reads the fields of the object parser is in into the given node, keeping
+     * only the fields under prefixes and their ancestors. Ancestors ending up
+     * empty (as the prefix is not in json) are dropped.
+     */
+    private static void readPartial(@NotNull final ObjectMapper mapper,
+                                    @NotNull final JsonParser parser,
+                                    @NotNull final ObjectNode into,
+                                    @NotNull final String path,
+                                    @NotNull final Set<String> prefixes) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            final String key = path + field;
+            final JsonToken value = parser.nextToken();
+
+            if (isUnder(key, prefixes)) {
+                final JsonNode node = mapper.readTree(parser);
+                into.set(field, node == null ? NullNode.getInstance() : node);
+            }
+            else if (value == JsonToken.START_OBJECT && isAncestor(key, prefixes)) {
+                final ObjectNode ancestor = mapper.getNodeFactory().objectNode();
+                readPartial(mapper, parser, ancestor, key + ".", prefixes);
+                if (ancestor.size() > 0)
+                    into.set(field, ancestor);
+            }
+            else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    @Contract(pure = true)
+    private static boolean isUnder(@NotNull final String key,
+                                   @NotNull final Set<String> prefixes) {
+        if (prefixes.contains(key))
+            return true;
+        for (int dot = key.indexOf('.'); dot >= 0; dot = key.indexOf('.', dot + 1))
+            if (prefixes.contains(key.substring(0, dot)))
+                return true;
+        return false;
+    }
+
+    @Contract(pure = true)
+    private static boolean isAncestor(@NotNull final String key,
+                                      @NotNull final Set<String> prefixes) {
+        for (final String prefix : prefixes)
+            if (prefix.length() > key.length()
+                && prefix.charAt(key.length()) == '.'
+                && prefix.startsWith(key))
+                return true;
+        return false;
+    }
+
 
     @NotNull
     @Override
@@ -265,20 +803,22 @@ public final class ExtJacksonJsonSource extends Source {
         Objects.requireNonNull(key, "key");
         Objects.requireNonNull(type, "type");
 
-        final ObjectMapper reader = this.mapperSupplier.get();
-        final TypeFactory tf = reader.getTypeFactory();
-        final JavaType ct = tf.constructSimpleType(type.klass(), new JavaType[0]);
-        final CollectionType javaType = tf.constructCollectionType(List.class, ct);
+        final ObjectReader reader = this.listReaders.computeIfAbsent(type.type(), elementType -> {
+            final TypeFactory tf = this.mapper.getTypeFactory();
+            return this.mapper.readerFor(tf.constructCollectionType(List.class, tf.constructType(elementType)));
+        });
 
         final List<?> asList;
         synchronized (LOCK) {
             final JsonNode at = node(key);
             checkJsonType(at.isArray(), type, at, key);
+            if (!elementsInRange(type, at))
+                throw new KfgTypeException(this.name(), this.fullKey(key), type.asList(), at, "element out of range");
             try {
-                asList = reader.readValue(at.traverse(), javaType);
+                asList = reader.readValue(at.traverse());
             }
             catch (final IOException e) {
-                throw new KfgTypeException(this.name(), key, type, at, "type mismatch", e);
+                throw new KfgTypeException(this.name(), this.fullKey(key), type, at, "type mismatch", e);
             }
         }
         return Collections.unmodifiableList(asList);
@@ -294,7 +834,7 @@ public final class ExtJacksonJsonSource extends Source {
         final List<?> asList = this.list0(key, type);
         final Set<?> asSet = new HashSet<>(asList);
         if (asSet.size() != asList.size())
-            throw new KfgTypeException(this.name, key, type.asSet(), asList, "is a list, not a set");
+            throw new KfgTypeException(this.name, this.fullKey(key), type.asSet(), asList, "is a list, not a set");
         return Collections.unmodifiableSet(asSet);
     }
 
@@ -306,21 +846,17 @@ public final class ExtJacksonJsonSource extends Source {
         Objects.requireNonNull(type, "type");
 
         synchronized (LOCK) {
-            final ObjectMapper reader = this.mapperSupplier.get();
+            final ObjectReader reader = this.readers.computeIfAbsent(
+                type.type(), t -> this.mapper.readerFor(this.mapper.getTypeFactory().constructType(t)));
             final JsonNode node = this.node(key);
             final JsonParser traverse = node.traverse();
 
             Object ret;
             try {
-                ret = reader.readValue(traverse, new TypeReference<Object>() {
-                    @Override
-                    public Type getType() {
-                        return type.type();
-                    }
-                });
+                ret = reader.readValue(traverse);
             }
             catch (final IOException e) {
-                throw new KfgTypeException(this.name(), key, type, null, "jackson error", e);
+                throw new KfgTypeException(this.name(), this.fullKey(key), type, null, "jackson error", e);
             }
 
             if (ret instanceof List)
@@ -332,6 +868,133 @@ public final class ExtJacksonJsonSource extends Source {
         }
     }
 
+    /**
+     * Holds the lock for the whole batch, and resolves the parent of sibling
+     * keys once: keys are read from a source descended into their parent.
+     */
+    @Override
+    protected void batch(@NotNull final String[] keys,
+                         @NotNull final Kind<?>[] kinds,
+                         @NotNull final Object[] values) {
+        Objects.requireNonNull(keys, "keys");
+        Objects.requireNonNull(kinds, "kinds");
+        Objects.requireNonNull(values, "values");
+
+        synchronized (LOCK) {
+            String parentKey = null;
+            Source parent = null;
+            for (int i = 0; i < keys.length; i++) {
+                final String key = keys[i];
+                final int lastDot = key.lastIndexOf('.');
+                if (lastDot <= 0) {
+                    values[i] = this.custom(key, kinds[i]);
+                    continue;
+                }
+
+                if (parentKey == null || parentKey.length() != lastDot || !key.startsWith(parentKey)) {
+                    parentKey = key.substring(0, lastDot);
+                    final JsonNode node = this.node_(parentKey);
+                    parent = new ExtJacksonJsonSource(this, parentKey, node);
+                }
+
+                values[i] = parent.custom(key.substring(lastDot + 1), kinds[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads the array node directly, skipping the boxed list.
+     */
+    @NotNull
+    @Override
+    protected int[] intArray0(@NotNull final String key) {
+        final JsonNode array = this.arrayNode(key, Kind.INT);
+        final int[] column = new int[array.size()];
+        for (int i = 0; i < column.length; i++) {
+            final JsonNode element = array.get(i);
+            if (!element.isIntegralNumber() || !element.canConvertToInt())
+                throw new KfgTypeException(this.name(), this.fullKey(key), Kind.INT.asList(), array);
+            column[i] = element.intValue();
+        }
+        return column;
+    }
+
+    @NotNull
+    @Override
+    protected long[] longArray0(@NotNull final String key) {
+        final JsonNode array = this.arrayNode(key, Kind.LONG);
+        final long[] column = new long[array.size()];
+        for (int i = 0; i < column.length; i++) {
+            final JsonNode element = array.get(i);
+            if (!element.isIntegralNumber() || !element.canConvertToLong())
+                throw new KfgTypeException(this.name(), this.fullKey(key), Kind.LONG.asList(), array);
+            column[i] = element.longValue();
+        }
+        return column;
+    }
+
+    @NotNull
+    @Override
+    protected double[] doubleArray0(@NotNull final String key) {
+        final JsonNode array = this.arrayNode(key, Kind.DOUBLE);
+        final double[] column = new double[array.size()];
+        for (int i = 0; i < column.length; i++) {
+            final JsonNode element = array.get(i);
+            if (!element.isNumber())
+                throw new KfgTypeException(this.name(), this.fullKey(key), Kind.DOUBLE.asList(), array);
+            column[i] = element.doubleValue();
+        }
+        return column;
+    }
+
+    @NotNull
+    private JsonNode arrayNode(@NotNull final String key,
+                               @NotNull final Kind<?> type) {
+        Objects.requireNonNull(key, "key");
+
+        synchronized (LOCK) {
+            final JsonNode at = this.node(key);
+            return checkJsonType(at.isArray(), type.asList(), at, key);
+        }
+    }
+
+    /**
+     * Shares the parsed tree, the object mapper and its readers with this
+     * source.
+     */
+    @NotNull
+    @Override
+    protected Source descend(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        return new ExtJacksonJsonSource(this, key, this.node_(key));
+    }
+
+    @NotNull
+    @Override
+    protected Collection<String> keys0() {
+        final List<String> keys = new ArrayList<>();
+        synchronized (LOCK) {
+            leaves(keys, "", this.root);
+        }
+        return keys;
+    }
+
+    private static void leaves(@NotNull final Collection<String> into,
+                               @NotNull final String prefix,
+                               @NotNull final JsonNode node) {
+        if (!node.isObject() || node.size() == 0) {
+            if (!prefix.isEmpty())
+                into.add(prefix);
+            return;
+        }
+
+        final Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            final Map.Entry<String, JsonNode> field = fields.next();
+            leaves(into, prefix.isEmpty() ? field.getKey() : prefix + "." + field.getKey(), field.getValue());
+        }
+    }
+
     @Override
     protected boolean isNull(@NotNull final String key) {
         Objects.requireNonNull(key, "key");
@@ -0,0 +1,397 @@
+package io.koosha.konfiguration_lite.ext.v8;
+
+import io.koosha.konfiguration_lite.KfgMissingKeyException;
+import io.koosha.konfiguration_lite.KfgSourceException;
+import io.koosha.konfiguration_lite.KfgTypeException;
+import io.koosha.konfiguration_lite.LeafValues;
+import io.koosha.konfiguration_lite.Source;
+import io.koosha.konfiguration_lite.type.Kind;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Reads konfig from a map, nested ({@code {a: {b: 1}}}), dotted
+ * ({@code {"a.b": 1}}) or a mix of both.
+ *
+ * <p>Dotted keys are merged into their nested parents, so
+ * {@code {"a.b": 1, "a": {"c": 2}}} is the same as
+ * {@code {a: {b: 1, c: 2}}}, and reading {@code a} as a map gives both keys.
+ * A key defined twice, or a key being both a value and the parent of other
+ * keys, is rejected.
+ *
+ * <p>The map is flattened once at construction into an open addressing table
+ * keyed by the fully qualified keys. Booleans, integral and floating point
+ * values are kept in a primitive {@code long} slot (doubles as their raw
+ * bits), everything else in an object slot. Nested maps are kept as well, so
+ * that they can be read with {@link #custom(String, Kind)}. Elements of lists
+ * and sets are widened to the requested type the same way single values are,
+ * see {@link LeafValues#list(String, String, Kind, Object)}.
+ *
+ * <p>Thread safe and immutable.
+ */
+@Immutable
+@ThreadSafe
+@ApiStatus.Internal
+public final class ExtMapSource extends Source {
+
+    private static final byte EMPTY = 0;
+    private static final byte NULL = 1;
+    private static final byte BOOL = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte STRING = 5;
+    private static final byte OBJECT = 6;
+    private static final byte PARENT = 7;
+
+    @NotNull
+    private final String name;
+
+    private final int mask;
+    private final String[] keys;
+    private final byte[] tags;
+    private final long[] primitives;
+    private final Object[] objects;
+
+    /**
+     * Creates an instance with the given map as the backing store.
+     *
+     * @param name name of this source.
+     * @param map  backing store, it is copied and flattened, later changes
+     *             are not reflected. Keys might be nested or dotted.
+     * @throws NullPointerException if any of its arguments are null.
+     * @throws KfgSourceException   if the same key is defined more than once
+     *                              (e.g. once nested and once dotted), or is
+     *                              both a value and a parent of other keys.
+     */
+    public ExtMapSource(@NotNull final String name,
+                        @NotNull final Map<String, ?> map) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(map, "map");
+        this.name = name;
+
+        final Map<String, Object> nested = new LinkedHashMap<>();
+        this.nest(nested, "", map);
+
+        final int capacity = Integer.highestOneBit(Math.max(4, countEntries(nested) * 2 - 1)) << 1;
+        this.mask = capacity - 1;
+        this.keys = new String[capacity];
+        this.tags = new byte[capacity];
+        this.primitives = new long[capacity];
+        this.objects = new Object[capacity];
+
+        this.flatten("", nested);
+    }
+
+
+    @Contract(pure = true)
+    private static int countEntries(@NotNull final Map<?, ?> map) {
+        int count = map.size();
+        for (final Object value : map.values())
+            if (value instanceof Map)
+                count += countEntries((Map<?, ?>) value);
+        return count;
+    }
+
+    /**
+     * Copies map into a tree of nested maps, splitting dotted keys and
+     * merging them into their parents.
+     *
+     * @param into   the (nested) map to copy into.
+     * @param prefix fully qualified key of into, for error messages.
+     * @param map    the map to copy.
+     */
+    private void nest(@NotNull final Map<String, Object> into,
+                      @NotNull final String prefix,
+                      @NotNull final Map<?, ?> map) {
+        for (final Map.Entry<?, ?> entry : map.entrySet()) {
+            final String key = Objects.requireNonNull(entry.getKey(), "map key").toString();
+
+            Map<String, Object> parent = into;
+            String parentKey = prefix;
+            int start = 0;
+            for (int dot = key.indexOf('.'); dot >= 0; dot = key.indexOf('.', start)) {
+                parent = this.child(parent, parentKey + key.substring(start, dot), key.substring(start, dot));
+                parentKey = parentKey + key.substring(start, dot) + '.';
+                start = dot + 1;
+            }
+
+            final String name = key.substring(start);
+            final Object value = entry.getValue();
+            if (value instanceof Map)
+                this.nest(this.child(parent, parentKey + name, name), parentKey + name + '.', (Map<?, ?>) value);
+            else if (parent.containsKey(name))
+                throw new KfgSourceException(this.name, "duplicate key: " + parentKey + name);
+            else
+                parent.put(name, value);
+        }
+    }
+
+    /**
+     * @return the nested map at name in parent, added if missing.
+     */
+    @SuppressWarnings("unchecked")
+    @NotNull
+    private Map<String, Object> child(@NotNull final Map<String, Object> parent,
+                                      @NotNull final String key,
+                                      @NotNull final String name) {
+        final Object child = parent.computeIfAbsent(name, ignored -> new LinkedHashMap<>());
+        if (!(child instanceof Map))
+            throw new KfgSourceException(this.name, "duplicate key, both a value and a parent: " + key);
+        return (Map<String, Object>) child;
+    }
+
+    /**
+     * @return map, made unmodifiable all the way down.
+     */
+    @NotNull
+    private Map<String, ?> flatten(@NotNull final String prefix,
+                                   @NotNull final Map<String, Object> map) {
+        for (final Map.Entry<String, Object> entry : map.entrySet()) {
+            final String key = prefix + entry.getKey();
+            final Object value = entry.getValue();
+            if (value instanceof Map) {
+                @SuppressWarnings("unchecked")
+                final Map<String, ?> parent = this.flatten(key + ".", (Map<String, Object>) value);
+                entry.setValue(parent);
+                this.put(key, PARENT, 0, parent);
+            }
+            else {
+                this.putLeaf(key, value);
+            }
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    private void putLeaf(@NotNull final String key,
+                         @Nullable final Object value) {
+        if (value == null)
+            this.put(key, NULL, 0, null);
+        else if (value instanceof Boolean)
+            this.put(key, BOOL, (Boolean) value ? 1 : 0, null);
+        else if (value instanceof Byte || value instanceof Short || value instanceof Integer || value instanceof Long)
+            this.put(key, LONG, ((Number) value).longValue(), null);
+        else if (value instanceof Float || value instanceof Double)
+            this.put(key, DOUBLE, Double.doubleToRawLongBits(((Number) value).doubleValue()), null);
+        else if (value instanceof String)
+            this.put(key, STRING, 0, value);
+        else if (value instanceof List)
+            this.put(key, OBJECT, 0, Collections.unmodifiableList(new ArrayList<>((List<?>) value)));
+        else if (value instanceof Set)
+            this.put(key, OBJECT, 0, Collections.unmodifiableSet(new HashSet<>((Set<?>) value)));
+        else
+            this.put(key, OBJECT, 0, value);
+    }
+
+    private void put(@NotNull final String key,
+                     final byte tag,
+                     final long primitive,
+                     @Nullable final Object object) {
+        int slot = hash(key) & this.mask;
+        while (this.tags[slot] != EMPTY) {
+            if (this.keys[slot].equals(key))
+                throw new KfgSourceException(this.name, "duplicate key: " + key);
+            slot = (slot + 1) & this.mask;
+        }
+        this.keys[slot] = key;
+        this.tags[slot] = tag;
+        this.primitives[slot] = primitive;
+        this.objects[slot] = object;
+    }
+
+    @Contract(pure = true)
+    private static int hash(@NotNull final String key) {
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return slot of the key, or -1 if missing.
+     */
+    @Contract(pure = true)
+    private int slot(@NotNull final String key) {
+        int slot = hash(key) & this.mask;
+        while (this.tags[slot] != EMPTY) {
+            if (this.keys[slot].equals(key))
+                return slot;
+            slot = (slot + 1) & this.mask;
+        }
+        return -1;
+    }
+
+    @Contract(pure = true)
+    private int slotOrFail(@NotNull final String key) {
+        final int slot = this.slot(key);
+        if (slot < 0)
+            throw new KfgMissingKeyException(this.name(), key);
+        return slot;
+    }
+
+    @NotNull
+    private Object boxed(final int slot) {
+        switch (this.tags[slot]) {
+            case BOOL:
+                return this.primitives[slot] != 0;
+            case LONG:
+                return this.primitives[slot];
+            case DOUBLE:
+                return Double.longBitsToDouble(this.primitives[slot]);
+            default:
+                return this.objects[slot];
+        }
+    }
+
+
+    @NotNull
+    @Override
+    public String name() {
+        return this.name;
+    }
+
+    @Override
+    @NotNull
+    protected Object bool0(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        return this.boxed(this.slotOrFail(key));
+    }
+
+    @Override
+    @NotNull
+    protected Object char0(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        return this.boxed(this.slotOrFail(key));
+    }
+
+    @Override
+    @NotNull
+    protected Object string0(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        return this.boxed(this.slotOrFail(key));
+    }
+
+    @Override
+    @NotNull
+    protected Number number0(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        final int slot = this.slotOrFail(key);
+        if (this.tags[slot] == LONG)
+            return this.primitives[slot];
+        if (this.tags[slot] == DOUBLE)
+            return Double.longBitsToDouble(this.primitives[slot]);
+        throw new KfgTypeException(this.name(), key, Kind.LONG, this.boxed(slot));
+    }
+
+    @Override
+    @NotNull
+    protected Number numberDouble0(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        return this.number0(key);
+    }
+
+    @Override
+    @NotNull
+    protected List<?> list0(@NotNull final String key,
+                            @NotNull final Kind<?> type) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(type, "type");
+
+        return LeafValues.list(this.name, key, type, this.boxed(this.slotOrFail(key)));
+    }
+
+    @Override
+    @NotNull
+    protected Set<?> set0(@NotNull final String key,
+                          @NotNull final Kind<?> type) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(type, "type");
+
+        return LeafValues.set(this.name, key, type, this.boxed(this.slotOrFail(key)));
+    }
+
+    @Override
+    @NotNull
+    protected Object custom0(@NotNull final String key,
+                             @NotNull final Kind<?> type) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(type, "type");
+
+        final Object value = this.boxed(this.slotOrFail(key));
+        if (!type.klass().isInstance(value))
+            throw new KfgTypeException(this.name(), key, type, value);
+        return value;
+    }
+
+    @NotNull
+    @Override
+    protected Collection<String> keys0() {
+        final List<String> leaves = new ArrayList<>();
+        for (int slot = 0; slot < this.tags.length; slot++)
+            if (this.tags[slot] != EMPTY && this.tags[slot] != PARENT)
+                leaves.add(this.keys[slot]);
+        return leaves;
+    }
+
+    @Override
+    protected boolean isNull(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        return this.tags[this.slotOrFail(key)] == NULL;
+    }
+
+    @Override
+    public boolean has(@NotNull final String key,
+                       @NotNull final Kind<?> type) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(type, "type");
+
+        final int slot = this.slot(key);
+        if (slot < 0)
+            return false;
+
+        final long primitive = this.primitives[slot];
+        switch (this.tags[slot]) {
+            case NULL:
+                return true;
+            case BOOL:
+                return type.isBool();
+            case LONG:
+                return type.isByte() && Byte.MIN_VALUE <= primitive && primitive <= Byte.MAX_VALUE
+                    || type.isShort() && Short.MIN_VALUE <= primitive && primitive <= Short.MAX_VALUE
+                    || type.isInt() && Integer.MIN_VALUE <= primitive && primitive <= Integer.MAX_VALUE
+                    || type.isLong()
+                    || type.isFloat()
+                    || type.isDouble()
+                    || type.klass() == Object.class
+                    || type.klass() == Number.class;
+            case DOUBLE:
+                return type.isFloat()
+                    || type.isDouble()
+                    || type.klass() == Object.class
+                    || type.klass() == Number.class;
+            case STRING:
+                return type.isString()
+                    || type.isChar() && ((String) this.objects[slot]).length() == 1
+                    || type.klass() == Object.class
+                    || type.klass() == CharSequence.class;
+            default:
+                final Object value = this.objects[slot];
+                return type.isList() && value instanceof Collection
+                    || type.isSet() && value instanceof Collection
+                    || type.isChar() && value instanceof Character
+                    || type.klass().isInstance(value);
+        }
+    }
+
+}
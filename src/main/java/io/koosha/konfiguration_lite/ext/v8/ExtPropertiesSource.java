@@ -0,0 +1,387 @@
+package io.koosha.konfiguration_lite.ext.v8;
+
+import io.koosha.konfiguration_lite.KfgMissingKeyException;
+import io.koosha.konfiguration_lite.KfgTypeException;
+import io.koosha.konfiguration_lite.Source;
+import io.koosha.konfiguration_lite.type.Kind;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Reads konfig from string key-values, such as {@link Properties},
+ * {@link System#getProperties()} or {@link System#getenv()}.
+ *
+ * <p>Keys are mapped to konfig keys with the given mapping (see
+ * {@link #ENV_KEY_MAPPING}), and values are parsed as numbers and booleans
+ * once at construction, so a read is a single table lookup. Lists and sets
+ * are read from comma separated values.
+ *
+ * <p>Thread safe and immutable.
+ */
+@Immutable
+@ThreadSafe
+@ApiStatus.Internal
+public final class ExtPropertiesSource extends Source {
+
+    /**
+     * Maps environment variable names to konfig keys, {@code DB_POOL_SIZE} is
+     * mapped to {@code db.pool.size}.
+     */
+    public static final Function<String, String> ENV_KEY_MAPPING =
+        key -> key.toLowerCase(Locale.ROOT).replace('_', '.');
+
+    @NotNull
+    @Contract(value = "_ -> new",
+              pure = true)
+    public static ExtPropertiesSource ofSystemProperties(@NotNull final String name) {
+        return new ExtPropertiesSource(name, System.getProperties());
+    }
+
+    @NotNull
+    @Contract(value = "_ -> new",
+              pure = true)
+    public static ExtPropertiesSource ofEnvironment(@NotNull final String name) {
+        return new ExtPropertiesSource(name, System.getenv(), ENV_KEY_MAPPING);
+    }
+
+
+    private static final class Entry {
+
+        static final byte INTEGRAL = 1;
+        static final byte FLOATING = 2;
+        static final byte BOOLEAN = 4;
+
+        final String value;
+        final byte flags;
+        final long integral;
+        final double floating;
+
+        Entry(@NotNull final String value) {
+            this.value = value;
+
+            final String trimmed = value.trim();
+            byte flags = 0;
+            long integral = 0;
+            double floating = 0;
+            try {
+                integral = Long.parseLong(trimmed);
+                floating = integral;
+                flags = INTEGRAL | FLOATING;
+            }
+            catch (final NumberFormatException notIntegral) {
+                if (isDecimal(trimmed)) {
+                    floating = Double.parseDouble(trimmed);
+                    flags = FLOATING;
+                }
+                else if ("true".equalsIgnoreCase(trimmed) || "false".equalsIgnoreCase(trimmed)) {
+                    flags = BOOLEAN;
+                }
+            }
+
+            this.flags = flags;
+            this.integral = integral;
+            this.floating = floating;
+        }
+
+        /**
+         * Whether value is a plain decimal number, as in 1.5, -.5 or 2e-3.
+         * Double.parseDouble alone also takes type suffixes (1d, 2f), hex
+         * (0x1p3), NaN and Infinity.
+         */
+        @Contract(pure = true)
+        static boolean isDecimal(@NotNull final String value) {
+            int i = 0;
+            if (i < value.length() && (value.charAt(i) == '+' || value.charAt(i) == '-'))
+                i++;
+            int digits = 0;
+            while (i < value.length() && isDigit(value.charAt(i))) {
+                i++;
+                digits++;
+            }
+            if (i < value.length() && value.charAt(i) == '.')
+                i++;
+            while (i < value.length() && isDigit(value.charAt(i))) {
+                i++;
+                digits++;
+            }
+            if (digits == 0)
+                return false;
+            if (i == value.length())
+                return true;
+
+            if (value.charAt(i) != 'e' && value.charAt(i) != 'E')
+                return false;
+            i++;
+            if (i < value.length() && (value.charAt(i) == '+' || value.charAt(i) == '-'))
+                i++;
+            final int exponent = i;
+            while (i < value.length() && isDigit(value.charAt(i)))
+                i++;
+            return i > exponent && i == value.length();
+        }
+
+        @Contract(pure = true)
+        private static boolean isDigit(final char c) {
+            return '0' <= c && c <= '9';
+        }
+
+        boolean is(final byte flag) {
+            return (this.flags & flag) != 0;
+        }
+
+        boolean integralIn(final long min,
+                           final long max) {
+            return this.is(INTEGRAL) && min <= this.integral && this.integral <= max;
+        }
+
+    }
+
+    @NotNull
+    private final String name;
+
+    private final Map<String, Entry> table;
+
+    /**
+     * Creates an instance with the given properties, keys are taken as is.
+     *
+     * @param name       name of this source.
+     * @param properties backing store, copied, later changes are not
+     *                   reflected. Non string keys and values are ignored.
+     * @throws NullPointerException if any of its arguments are null.
+     */
+    public ExtPropertiesSource(@NotNull final String name,
+                               @NotNull final Properties properties) {
+        this(name, stringsOf(properties), Function.identity());
+    }
+
+    /**
+     * Creates an instance with the given key-values.
+     *
+     * @param name       name of this source.
+     * @param entries    backing store, copied, later changes are not reflected.
+     * @param keyMapping maps each key of entries to a konfig key, or to null
+     *                   to leave the entry out. If multiple keys are mapped to
+     *                   the same konfig key, the first one in the natural
+     *                   order of the keys wins.
+     * @throws NullPointerException if any of its arguments are null.
+     */
+    public ExtPropertiesSource(@NotNull final String name,
+                               @NotNull final Map<String, String> entries,
+                               @NotNull final Function<String, String> keyMapping) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(entries, "entries");
+        Objects.requireNonNull(keyMapping, "keyMapping");
+        this.name = name;
+
+        final Map<String, Entry> table = new HashMap<>(entries.size() * 2);
+        for (final Map.Entry<String, String> each : new TreeMap<>(entries).entrySet()) {
+            if (each.getValue() == null)
+                continue;
+            final String key = keyMapping.apply(each.getKey());
+            if (key != null && !key.isEmpty())
+                table.putIfAbsent(key, new Entry(each.getValue()));
+        }
+        this.table = table;
+    }
+
+    @NotNull
+    private static Map<String, String> stringsOf(@NotNull final Properties properties) {
+        Objects.requireNonNull(properties, "properties");
+
+        final Map<String, String> strings = new HashMap<>();
+        for (final String key : properties.stringPropertyNames())
+            strings.put(key, properties.getProperty(key));
+        return strings;
+    }
+
+
+    @NotNull
+    private Entry entry(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+
+        final Entry entry = this.table.get(key);
+        if (entry == null)
+            throw new KfgMissingKeyException(this.name(), key);
+        return entry;
+    }
+
+    @Contract(pure = true)
+    private static boolean matches(@NotNull final Entry entry,
+                                   @NotNull final Kind<?> type) {
+        return type.isString()
+            || type.isChar() && entry.value.length() == 1
+            || type.isBool() && entry.is(Entry.BOOLEAN)
+            || type.isByte() && entry.integralIn(Byte.MIN_VALUE, Byte.MAX_VALUE)
+            || type.isShort() && entry.integralIn(Short.MIN_VALUE, Short.MAX_VALUE)
+            || type.isInt() && entry.integralIn(Integer.MIN_VALUE, Integer.MAX_VALUE)
+            || type.isLong() && entry.is(Entry.INTEGRAL)
+            || type.isFloat() && entry.is(Entry.FLOATING)
+            || type.isDouble() && entry.is(Entry.FLOATING);
+    }
+
+    @Nullable
+    private static Object value(@NotNull final Entry entry,
+                                @NotNull final Kind<?> type) {
+        if (type.isString())
+            return entry.value;
+        if (type.isChar())
+            return entry.value.length() == 1 ? entry.value.charAt(0) : null;
+        if (type.isBool())
+            return entry.is(Entry.BOOLEAN) ? Boolean.valueOf(entry.value.trim()) : null;
+        if (type.isByte())
+            return entry.integralIn(Byte.MIN_VALUE, Byte.MAX_VALUE) ? (byte) entry.integral : null;
+        if (type.isShort())
+            return entry.integralIn(Short.MIN_VALUE, Short.MAX_VALUE) ? (short) entry.integral : null;
+        if (type.isInt())
+            return entry.integralIn(Integer.MIN_VALUE, Integer.MAX_VALUE) ? (int) entry.integral : null;
+        if (type.isLong())
+            return entry.is(Entry.INTEGRAL) ? entry.integral : null;
+        if (type.isFloat())
+            return entry.is(Entry.FLOATING) ? (float) entry.floating : null;
+        if (type.isDouble())
+            return entry.is(Entry.FLOATING) ? entry.floating : null;
+        return null;
+    }
+
+
+    @NotNull
+    @Override
+    public String name() {
+        return this.name;
+    }
+
+    @Override
+    @NotNull
+    protected Object bool0(@NotNull final String key) {
+        final Entry entry = this.entry(key);
+        return entry.is(Entry.BOOLEAN) ? Boolean.valueOf(entry.value.trim()) : entry.value;
+    }
+
+    @Override
+    @NotNull
+    protected Object char0(@NotNull final String key) {
+        return this.entry(key).value;
+    }
+
+    @Override
+    @NotNull
+    protected Object string0(@NotNull final String key) {
+        return this.entry(key).value;
+    }
+
+    @Override
+    @NotNull
+    protected Number number0(@NotNull final String key) {
+        final Entry entry = this.entry(key);
+        if (!entry.is(Entry.INTEGRAL))
+            throw new KfgTypeException(this.name(), key, Kind.LONG, entry.value);
+        return entry.integral;
+    }
+
+    @Override
+    @NotNull
+    protected Number numberDouble0(@NotNull final String key) {
+        final Entry entry = this.entry(key);
+        if (!entry.is(Entry.FLOATING))
+            throw new KfgTypeException(this.name(), key, Kind.DOUBLE, entry.value);
+        return entry.floating;
+    }
+
+    @Override
+    @NotNull
+    protected List<?> list0(@NotNull final String key,
+                            @NotNull final Kind<?> type) {
+        Objects.requireNonNull(type, "type");
+
+        final String value = this.entry(key).value;
+        if (value.trim().isEmpty())
+            return Collections.emptyList();
+
+        final List<Object> list = new ArrayList<>();
+        for (final String each : value.split(",")) {
+            final Object element = value(new Entry(each.trim()), type);
+            if (element == null)
+                throw new KfgTypeException(this.name(), key, type.asList(), value);
+            list.add(element);
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    @Override
+    @NotNull
+    protected Set<?> set0(@NotNull final String key,
+                          @NotNull final Kind<?> type) {
+        final List<?> asList = this.list0(key, type);
+        final Set<?> asSet = new HashSet<>(asList);
+        if (asSet.size() != asList.size())
+            throw new KfgTypeException(this.name, key, type.asSet(), asList, "is a list, not a set");
+        return Collections.unmodifiableSet(asSet);
+    }
+
+    @Override
+    @NotNull
+    protected Object custom0(@NotNull final String key,
+                             @NotNull final Kind<?> type) {
+        Objects.requireNonNull(type, "type");
+
+        final Entry entry = this.entry(key);
+        if (!type.klass().isAssignableFrom(String.class))
+            throw new KfgTypeException(this.name(), key, type, entry.value, "only strings are supported");
+        return entry.value;
+    }
+
+    @NotNull
+    @Override
+    protected Collection<String> keys0() {
+        return this.table.keySet();
+    }
+
+    @Override
+    protected boolean isNull(@NotNull final String key) {
+        this.entry(key);
+        return false;
+    }
+
+    @Override
+    public boolean has(@NotNull final String key,
+                       @NotNull final Kind<?> type) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(type, "type");
+
+        final Entry entry = this.table.get(key);
+        if (entry == null)
+            return false;
+
+        if (type.isCollection() && type.isParametrized()) {
+            try {
+                this.list0(key, type.getCollectionContainedKind());
+                return true;
+            }
+            catch (final KfgTypeException e) {
+                return false;
+            }
+        }
+
+        return type.klass().isAssignableFrom(String.class)
+            || matches(entry, type);
+    }
+
+}
@@ -1,13 +1,19 @@
 package io.koosha.konfiguration_lite.ext.v8;
 
+import io.koosha.konfiguration_lite.Interner;
+import io.koosha.konfiguration_lite.JfrEvents;
 import io.koosha.konfiguration_lite.KfgAssertionException;
+import io.koosha.konfiguration_lite.KfgIllegalArgumentException;
 import io.koosha.konfiguration_lite.KfgSourceException;
 import io.koosha.konfiguration_lite.KfgTypeException;
+import io.koosha.konfiguration_lite.LazySource;
 import io.koosha.konfiguration_lite.Source;
+import io.koosha.konfiguration_lite.SourceLoader;
 import io.koosha.konfiguration_lite.type.Kind;
 import net.jcip.annotations.Immutable;
 import net.jcip.annotations.ThreadSafe;
 import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.yaml.snakeyaml.Yaml;
@@ -22,17 +28,23 @@ import org.yaml.snakeyaml.nodes.SequenceNode;
 import org.yaml.snakeyaml.nodes.Tag;
 
 import java.beans.ConstructorProperties;
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Parameter;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
@@ -79,7 +91,7 @@ public final class ExtYamlSource extends Source {
         return klass;
     }
 
-    static final class ByConstructorConstructor<A extends Annotation> extends Constructor {
+    static class ByConstructorConstructor<A extends Annotation> extends Constructor {
 
         private final Class<? extends A> marker;
         private final Function<? super A, String[]> markerExtractor;
@@ -342,6 +354,27 @@ public final class ExtYamlSource extends Source {
 
     }
 
+    /**
+     * Same as the default constructor, and interns the scalars (keys and
+     * values) it constructs.
+     */
+    static final class InterningConstructor extends ByConstructorConstructor<ConstructorProperties> {
+
+        private final Interner interner;
+
+        InterningConstructor(@NotNull final Interner interner) {
+            super(ConstructorProperties.class, ConstructorProperties::value);
+            this.interner = interner;
+        }
+
+        @Override
+        protected Object constructObject(final Node node) {
+            final Object constructed = super.constructObject(node);
+            return node instanceof ScalarNode ? intern(constructed, this.interner) : constructed;
+        }
+
+    }
+
     static final BaseConstructor defaultBaseConstructor = new ByConstructorConstructor<>(
         ConstructorProperties.class,
         ConstructorProperties::value
@@ -351,14 +384,277 @@ public final class ExtYamlSource extends Source {
         ThreadLocal.withInitial(() -> new Yaml(defaultBaseConstructor));
 
     private final Supplier<Yaml> mapper;
-    @SuppressWarnings({"FieldCanBeLocal", "unused"})
-    private final String yaml;
     private final Map<String, ?> root;
 
     @NotNull
     private final String name;
 
 
+    /**
+     * Same as {@link #ExtYamlSource(String, String, Supplier)}, except that
+     * the yaml is parsed on first access rather than here.
+     *
+     * @see LazySource
+     */
+    @NotNull
+    @Contract(value = "_, _, _ -> new",
+              pure = true)
+    public static LazySource lazy(@NotNull final String name,
+                                  @NotNull final String yaml,
+                                  @NotNull final Supplier<Yaml> mapper) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(yaml, "yaml");
+        Objects.requireNonNull(mapper, "mapper");
+        return new LazySource(name, () -> new ExtYamlSource(name, yaml, mapper));
+    }
+
+    @NotNull
+    @Contract(value = "_, _ -> new",
+              pure = true)
+    public static LazySource lazy(@NotNull final String name,
+                                  @NotNull final String yaml) {
+        return lazy(name, yaml, ExtYamlSource.defaultYamlSupplier::get);
+    }
+
+
+    /**
+     * Same as {@link #ExtYamlSource(String, String, Supplier)}, except
+     * that the yaml is read from the given (UTF-8) file and parsed on the
+     * given executor.
+     *
+     * @see SourceLoader#async(String, Path, Function, Executor)
+     */
+    @NotNull
+    @Contract("_, _, _, _ -> new")
+    public static CompletableFuture<Source> async(@NotNull final String name,
+                                                  @NotNull final Path yaml,
+                                                  @NotNull final Supplier<Yaml> mapper,
+                                                  @NotNull final Executor executor) {
+        Objects.requireNonNull(mapper, "mapper");
+        return SourceLoader.async(name, yaml, read -> new ExtYamlSource(name, read, mapper), executor);
+    }
+
+    @NotNull
+    @Contract("_, _, _ -> new")
+    public static CompletableFuture<Source> async(@NotNull final String name,
+                                                  @NotNull final Path yaml,
+                                                  @NotNull final Executor executor) {
+        return async(name, yaml, ExtYamlSource.defaultYamlSupplier::get, executor);
+    }
+
+    /**
+     * Same as {@link #async(String, Path, Supplier, Executor)}, reading from
+     * the given stream instead, which is closed once read.
+     *
+     * @see SourceLoader#async(String, InputStream, Function, Executor)
+     */
+    @NotNull
+    @Contract("_, _, _, _ -> new")
+    public static CompletableFuture<Source> async(@NotNull final String name,
+                                                  @NotNull final InputStream yaml,
+                                                  @NotNull final Supplier<Yaml> mapper,
+                                                  @NotNull final Executor executor) {
+        Objects.requireNonNull(mapper, "mapper");
+        return SourceLoader.async(name, yaml, read -> new ExtYamlSource(name, read, mapper), executor);
+    }
+
+    @NotNull
+    @Contract("_, _, _ -> new")
+    public static CompletableFuture<Source> async(@NotNull final String name,
+                                                  @NotNull final InputStream yaml,
+                                                  @NotNull final Executor executor) {
+        return async(name, yaml, ExtYamlSource.defaultYamlSupplier::get, executor);
+    }
+
+
+    /**
+     * Same as {@link #ExtYamlSource(String, String, Supplier)}, except that
+     * keys and values are interned in the given pool, so that sources loaded
+     * from similar documents share them.
+     *
+     * <p>The constructor of the given mapper can not be swapped, so the loaded
+     * document is interned in a second pass, copying its maps and lists. See
+     * {@link #interned(String, String, Interner)}, which interns as it parses.
+     *
+     * @param name     name of this source.
+     * @param yaml     backing store. Must be a non-null valid yaml string.
+     * @param mapper   see {@link #ExtYamlSource(String, String, Supplier)}.
+     * @param interner pool to intern keys and values in, such as
+     *                 {@link Interner#shared()}.
+     * @return the created source.
+     * @throws NullPointerException if any of its arguments are null.
+     */
+    @NotNull
+    @Contract(value = "_, _, _, _ -> new")
+    public static ExtYamlSource interned(@NotNull final String name,
+                                         @NotNull final String yaml,
+                                         @NotNull final Supplier<Yaml> mapper,
+                                         @NotNull final Interner interner) {
+        Objects.requireNonNull(interner, "interner");
+        final ExtYamlSource loaded = new ExtYamlSource(name, yaml, mapper);
+        @SuppressWarnings("unchecked")
+        final Map<String, ?> root = (Map<String, ?>) intern(loaded.root, interner);
+        return new ExtYamlSource(name, mapper, root);
+    }
+
+    @NotNull
+    @Contract(value = "_, _, _ -> new")
+    public static ExtYamlSource interned(@NotNull final String name,
+                                         @NotNull final String yaml,
+                                         @NotNull final Interner interner) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(yaml, "yaml");
+        Objects.requireNonNull(interner, "interner");
+        final Yaml interning = new Yaml(new InterningConstructor(interner));
+        final Object token = JfrEvents.loadStart();
+        final Map<String, ?> root = Collections.unmodifiableMap(interning.load(yaml));
+        JfrEvents.loaded(token, name, "yaml", yaml.length(), root, ExtYamlSource::countNodes);
+        return new ExtYamlSource(name, ExtYamlSource.defaultYamlSupplier::get, root);
+    }
+
+    /**
+     * Interns strings, numbers and booleans, and the keys of maps, leaves
+     * everything else (custom types) as is.
+     */
+    @Nullable
+    private static Object intern(@Nullable final Object value,
+                                 @NotNull final Interner interner) {
+        if (value instanceof Map) {
+            final Map<Object, Object> copy = new LinkedHashMap<>();
+            for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
+                copy.put(intern(entry.getKey(), interner), intern(entry.getValue(), interner));
+            return Collections.unmodifiableMap(copy);
+        }
+        if (value instanceof List) {
+            final List<Object> copy = new ArrayList<>(((List<?>) value).size());
+            for (final Object element : (List<?>) value)
+                copy.add(intern(element, interner));
+            return copy;
+        }
+        if (value instanceof String
+            || value instanceof Number
+            || value instanceof Boolean
+            || value instanceof Character)
+            return interner.intern(value);
+        return value;
+    }
+
+    /**
+     * A new source with the given (RFC 7386) merge patch applied to the
+     * document of this source, which is left as is.
+     *
+     * <p>Only the maps on the paths touched by the patch are copied, all the
+     * other subtrees are shared with this source. So the cost of a patch
+     * depends on its size and on the width of the maps it touches, not on the
+     * size of the document.
+     *
+     * @param patch the merge patch, a yaml document.
+     * @return the patched source.
+     * @throws KfgSourceException if patch is not a yaml map.
+     */
+    @NotNull
+    @Contract(value = "_ -> new",
+              pure = true)
+    public ExtYamlSource mergePatch(@NotNull final String patch) {
+        Objects.requireNonNull(patch, "patch");
+        final Object parsed;
+        try {
+            parsed = requireNonNull(this.mapper.get(), "supplied mapper is null").load(patch);
+        }
+        catch (final RuntimeException e) {
+            throw new KfgSourceException(this.name(), "error parsing merge patch", e);
+        }
+        if (!(parsed instanceof Map))
+            throw new KfgSourceException(this.name(), "merge patch is not a map");
+        return this.patched(parsed);
+    }
+
+    /**
+     * Same as {@link #mergePatch(String)}, with the patch given as key/value
+     * deltas, such as {@code a.b -> 1}. A null value removes its key, and a
+     * map value is merged into the map at its key, as in a merge patch.
+     * Values must not be modified afterwards.
+     *
+     * @param deltas dotted keys to their new values.
+     * @return the patched source.
+     * @throws KfgIllegalArgumentException if a key is malformed, or if a key
+     *                                     is under another one.
+     */
+    @NotNull
+    @Contract(value = "_ -> new",
+              pure = true)
+    public ExtYamlSource withDeltas(@NotNull final Map<String, ?> deltas) {
+        return this.patched(Deltas.toPatch(this.name(), deltas));
+    }
+
+    @NotNull
+    private ExtYamlSource patched(@NotNull final Object patch) {
+        final List<String> removed = new ArrayList<>();
+        final List<String> added = new ArrayList<>();
+        @SuppressWarnings("unchecked")
+        final Map<String, ?> merged = (Map<String, ?>) merge(this.root, patch, "", removed, added);
+        return new ExtYamlSource(this, merged, removed, added);
+    }
+
+    /**
+     * Maps of target are never modified, the maps on the path of the patch
+     * are copied (shallow) instead.
+     *
+     * @param path    key of target, empty for the root.
+     * @param removed collects the keys removed, along with the keys under
+     *                them, as in {@link #keys0()}.
+     * @param added   collects the leaf keys added.
+     */
+    @Nullable
+    private static Object merge(@Nullable final Object target,
+                                @Nullable final Object patch,
+                                @NotNull final String path,
+                                @NotNull final Collection<String> removed,
+                                @NotNull final Collection<String> added) {
+        if (!(patch instanceof Map)) {
+            removed.add(path);
+            if (!path.isEmpty())
+                added.add(path);
+            return patch;
+        }
+
+        final Map<Object, Object> merged = target instanceof Map
+            ? new LinkedHashMap<>((Map<?, ?>) target)
+            : new LinkedHashMap<>();
+        // A leaf until now.
+        if (merged.isEmpty())
+            removed.add(path);
+
+        for (final Map.Entry<?, ?> entry : ((Map<?, ?>) patch).entrySet()) {
+            final String key = path.isEmpty() ? String.valueOf(entry.getKey()) : path + "." + entry.getKey();
+            if (entry.getValue() == null) {
+                if (merged.containsKey(entry.getKey()))
+                    removed.add(key);
+                merged.remove(entry.getKey());
+            }
+            else {
+                merged.put(entry.getKey(), merge(merged.get(entry.getKey()), entry.getValue(), key, removed, added));
+            }
+        }
+
+        // An empty map is a leaf, see keys0().
+        if (merged.isEmpty() && !path.isEmpty())
+            added.add(path);
+        return Collections.unmodifiableMap(merged);
+    }
+
+    @Contract(pure = true)
+    private static long countNodes(@Nullable final Object value) {
+        long count = 1;
+        if (value instanceof Map)
+            for (final Object child : ((Map<?, ?>) value).values())
+                count += countNodes(child);
+        else if (value instanceof List)
+            for (final Object child : (List<?>) value)
+                count += countNodes(child);
+        return count;
+    }
+
     public ExtYamlSource(@NotNull final String name,
                          @NotNull final String yaml) {
         this(name, yaml, ExtYamlSource.defaultYamlSupplier::get);
@@ -383,7 +679,6 @@ public final class ExtYamlSource extends Source {
         Objects.requireNonNull(mapper, "mapper");
 
         this.name = name;
-        this.yaml = yaml;
         this.mapper = mapper;
 
         // Check early, so we 're not fooled with a dummy object reader.
@@ -399,7 +694,43 @@ public final class ExtYamlSource extends Source {
 
         final Yaml newMapper = mapper.get();
         requireNonNull(newMapper, "supplied mapper is null");
+        final Object token = JfrEvents.loadStart();
         this.root = Collections.unmodifiableMap(newMapper.load(yaml));
+        JfrEvents.loaded(token, this.name, "yaml", yaml.length(), this.root, ExtYamlSource::countNodes);
+    }
+
+    private ExtYamlSource(@NotNull final String name,
+                          @NotNull final Supplier<Yaml> mapper,
+                          @NotNull final Map<String, ?> root) {
+        this.name = name;
+        this.mapper = mapper;
+        this.root = root;
+    }
+
+    /**
+     * A source with the given root, sharing everything else with of, whose
+     * keys are patched as given.
+     */
+    private ExtYamlSource(@NotNull final ExtYamlSource of,
+                          @NotNull final Map<String, ?> root,
+                          @NotNull final Collection<String> removed,
+                          @NotNull final Collection<String> added) {
+        super(of, removed, added);
+        this.name = of.name;
+        this.mapper = of.mapper;
+        this.root = root;
+    }
+
+    /**
+     * A source descended into key of of.
+     */
+    private ExtYamlSource(@NotNull final ExtYamlSource of,
+                          @NotNull final String key,
+                          @NotNull final Map<String, ?> root) {
+        super(of, key);
+        this.name = of.name;
+        this.mapper = of.mapper;
+        this.root = root;
     }
 
 
@@ -452,13 +783,81 @@ public final class ExtYamlSource extends Source {
         Objects.requireNonNull(key, "key");
         Objects.requireNonNull(type, "type");
 
-        final Object g = this.get(key);
-        final Yaml mapper = this.mapper.get();
-        final String yamlAgain = mapper.dump(g);
-        final List<?> asList = (List<?>) mapper.loadAs(yamlAgain, type.klass());
+        final Object value = this.get(key);
+        if (!(value instanceof List))
+            throw new KfgTypeException(this.name, this.fullKey(key), type.asList(), value);
+
+        final List<?> raw = (List<?>) value;
+        final List<Object> asList = new ArrayList<>(raw.size());
+        Yaml mapper = null;
+        for (final Object element : raw) {
+            if (element == null || type.klass().isInstance(element)) {
+                asList.add(element);
+                continue;
+            }
+
+            final Object number = toNumber(element, type);
+            if (number != null) {
+                asList.add(number);
+                continue;
+            }
+            // The mapper would wrap or overflow it instead.
+            if (element instanceof Number && isNumber(type))
+                throw new KfgTypeException(this.name, this.fullKey(key), type.asList(), raw, "element out of range");
+
+            if (mapper == null)
+                mapper = this.mapper.get();
+            try {
+                asList.add(mapper.loadAs(mapper.dump(element), type.klass()));
+            }
+            catch (final RuntimeException e) {
+                throw new KfgTypeException(this.name, this.fullKey(key), type.asList(), raw, e);
+            }
+        }
         return Collections.unmodifiableList(asList);
     }
 
+    /**
+     * Snakeyaml loads an integral number as the smallest of Integer, Long and
+     * BigInteger it fits in, convert it to the requested number type.
+     *
+     * @return the converted number, or null if not a number or does not fit.
+     */
+    @Nullable
+    private static Object toNumber(@NotNull final Object element,
+                                   @NotNull final Kind<?> type) {
+        if (!(element instanceof Number))
+            return null;
+
+        final Number number = (Number) element;
+        if (type.isDouble())
+            return number.doubleValue();
+        if (type.isFloat()) {
+            final float f = number.floatValue();
+            return Float.isInfinite(f) && !Double.isInfinite(number.doubleValue()) ? null : f;
+        }
+
+        if (!(element instanceof Integer || element instanceof Long))
+            return null;
+
+        final long l = number.longValue();
+        if (type.isLong())
+            return l;
+        if (type.isInt() && Integer.MIN_VALUE <= l && l <= Integer.MAX_VALUE)
+            return (int) l;
+        if (type.isShort() && Short.MIN_VALUE <= l && l <= Short.MAX_VALUE)
+            return (short) l;
+        if (type.isByte() && Byte.MIN_VALUE <= l && l <= Byte.MAX_VALUE)
+            return (byte) l;
+        return null;
+    }
+
+    @Contract(pure = true)
+    private static boolean isNumber(@NotNull final Kind<?> type) {
+        return type.isByte() || type.isShort() || type.isInt() || type.isLong()
+            || type.isFloat() || type.isDouble();
+    }
+
     @Override
     @NotNull
     protected Set<?> set0(@NotNull final String key,
@@ -469,7 +868,7 @@ public final class ExtYamlSource extends Source {
         final List<?> asList = this.list0(key, type);
         final HashSet<?> asSet = new HashSet<>(asList);
         if (asSet.size() != asList.size())
-            throw new KfgTypeException(this.name, key, type.asSet(), asList, "is a list, not a set");
+            throw new KfgTypeException(this.name, this.fullKey(key), type.asSet(), asList, "is a list, not a set");
         return Collections.unmodifiableSet(asSet);
     }
 
@@ -491,6 +890,50 @@ public final class ExtYamlSource extends Source {
         return mapper.loadAs(yamlAgain, type.klass());
     }
 
+    /**
+     * Shares the loaded tree and the yaml mapper with this source.
+     */
+    @NotNull
+    @Override
+    protected Source descend(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+
+        Object sub;
+        try {
+            sub = this.get(key);
+        }
+        catch (final KfgSnakeYamlAssertionError e) {
+            sub = null;
+        }
+
+        @SuppressWarnings("unchecked")
+        final Map<String, ?> subRoot = sub instanceof Map
+            ? Collections.unmodifiableMap((Map<String, ?>) sub)
+            : Collections.emptyMap();
+        return new ExtYamlSource(this, key, subRoot);
+    }
+
+    @NotNull
+    @Override
+    protected Collection<String> keys0() {
+        final List<String> keys = new ArrayList<>();
+        leaves(keys, "", this.root);
+        return keys;
+    }
+
+    private static void leaves(@NotNull final Collection<String> into,
+                               @NotNull final String prefix,
+                               @Nullable final Object node) {
+        if (!(node instanceof Map) || ((Map<?, ?>) node).isEmpty()) {
+            if (!prefix.isEmpty())
+                into.add(prefix);
+            return;
+        }
+
+        for (final Map.Entry<?, ?> entry : ((Map<?, ?>) node).entrySet())
+            leaves(into, prefix.isEmpty() ? String.valueOf(entry.getKey()) : prefix + "." + entry.getKey(), entry.getValue());
+    }
+
     @Override
     protected boolean isNull(@NotNull final String key) {
         Objects.requireNonNull(key, "key");
@@ -506,8 +949,25 @@ public final class ExtYamlSource extends Source {
     public boolean has(@NotNull final String key,
                        @NotNull final Kind<?> type) {
         Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(type, "type");
+
+        if (!this.contains(key))
+            return false;
+
+        // Elements are checked on read, like other sources do.
+        if (type.isCollection()) {
+            final Object value = this.get(key);
+            return value == null || value instanceof List;
+        }
+
         if (type.isParametrized())
             return false;
+
+        // Skip the dump and load probe if the value is already of the type.
+        final Object value = this.get(key);
+        if (value == null || upper(type.klass()).isInstance(value) || toNumber(value, type) != null)
+            return true;
+
         try {
             this.custom0(key, type);
             return true;
@@ -518,6 +978,26 @@ public final class ExtYamlSource extends Source {
     }
 
 
+    /**
+     * Whether key is present, even if with a null value.
+     */
+    private boolean contains(@NotNull final String key) {
+        Map<?, ?> node = root;
+        final String[] split = DOT.split(key);
+        for (int i = 0; i < split.length; i++) {
+            if (!node.containsKey(split[i]))
+                return false;
+            if (i == split.length - 1)
+                return true;
+
+            final Object n = node.get(split[i]);
+            if (!(n instanceof Map))
+                return false;
+            node = (Map<?, ?>) n;
+        }
+        return false;
+    }
+
     private Object get(@NotNull final String key) {
         Objects.requireNonNull(key, "key");
         Map<?, ?> node = root;
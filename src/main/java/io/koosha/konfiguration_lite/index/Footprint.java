@@ -0,0 +1,61 @@
+package io.koosha.konfiguration_lite.index;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Estimates heap sizes for {@link KeyIndex#footprint()}, assuming a 64 bit
+ * JVM with compressed references (12 byte object headers, 16 byte array
+ * headers, 4 byte references, 8 byte alignment), and strings laid out as in
+ * Java 8 (a char array of their own each).
+ */
+final class Footprint {
+
+    private Footprint() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Contract(pure = true)
+    static long align(final long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * @param fieldBytes total size of the fields of the object.
+     */
+    @Contract(pure = true)
+    static long object(final long fieldBytes) {
+        return align(12 + fieldBytes);
+    }
+
+    @Contract(pure = true)
+    static long array(final long length,
+                      final int elementBytes) {
+        return align(16 + length * elementBytes);
+    }
+
+    @Contract(pure = true)
+    static long string(@NotNull final String string) {
+        return object(4 + 4) + array(string.length(), 2);
+    }
+
+    @Contract(pure = true)
+    static long strings(@NotNull final String[] strings) {
+        long total = array(strings.length, 4);
+        for (final String string : strings)
+            if (string != null)
+                total += string(string);
+        return total;
+    }
+
+    /**
+     * A {@link java.util.HashMap} of the given size, not counting its keys,
+     * with boxed integer values.
+     */
+    @Contract(pure = true)
+    static long hashMap(final int size) {
+        final long table = size == 0 ? 0 : array(Integer.highestOneBit(Math.max(1, size * 4 / 3) - 1) << 1, 4);
+        return object(6 * 4) + table + size * (object(4 * 4) + object(4));
+    }
+
+}
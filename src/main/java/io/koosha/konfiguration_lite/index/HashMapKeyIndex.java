@@ -0,0 +1,73 @@
+package io.koosha.konfiguration_lite.index;
+
+import io.koosha.konfiguration_lite.KfgIllegalArgumentException;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@link KeyIndex} backed by a {@link HashMap}, positions are in the
+ * iteration order of the given keys.
+ *
+ * <p>Thread safe and immutable.
+ */
+@Immutable
+@ThreadSafe
+public final class HashMapKeyIndex implements KeyIndex {
+
+    @NotNull
+    private final Map<String, Integer> positions;
+
+    @NotNull
+    private final String[] keys;
+
+    /**
+     * @param keys the keys to index.
+     * @throws KfgIllegalArgumentException if a key is repeated.
+     */
+    public HashMapKeyIndex(@NotNull final Collection<String> keys) {
+        Objects.requireNonNull(keys, "keys");
+        this.keys = keys.toArray(new String[0]);
+        this.positions = new HashMap<>(this.keys.length * 4 / 3 + 1);
+        for (int i = 0; i < this.keys.length; i++) {
+            Objects.requireNonNull(this.keys[i], "key");
+            if (this.positions.put(this.keys[i], i) != null)
+                throw new KfgIllegalArgumentException(null, "duplicate key: " + this.keys[i]);
+        }
+    }
+
+    @Override
+    @Contract(pure = true)
+    public int size() {
+        return this.keys.length;
+    }
+
+    @Override
+    @Contract(pure = true)
+    public int indexOf(@NotNull final String key) {
+        final Integer position = this.positions.get(key);
+        return position == null ? -1 : position;
+    }
+
+    @NotNull
+    @Override
+    @Contract(pure = true)
+    public String keyAt(final int index) {
+        return this.keys[index];
+    }
+
+    @Override
+    @Contract(pure = true)
+    public long footprint() {
+        return Footprint.object(2 * 4)
+            + Footprint.hashMap(this.keys.length)
+            + Footprint.strings(this.keys);
+    }
+
+}
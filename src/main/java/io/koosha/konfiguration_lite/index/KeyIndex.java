@@ -0,0 +1,47 @@
+package io.koosha.konfiguration_lite.index;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Maps each of a fixed set of keys to a distinct position in
+ * {@code [0, size())}, so that the values of the keys can be kept in flat
+ * arrays indexed by position.
+ *
+ * <p>Implementations are immutable and thread safe.
+ */
+public interface KeyIndex {
+
+    /**
+     * @return number of the keys in this index.
+     */
+    @Contract(pure = true)
+    int size();
+
+    /**
+     * @param key the key to look up.
+     * @return position of key, or -1 if key is not in this index.
+     */
+    @Contract(pure = true)
+    int indexOf(@NotNull String key);
+
+    /**
+     * @param index a position in {@code [0, size())}.
+     * @return the key at index.
+     * @throws IndexOutOfBoundsException if index is out of range.
+     */
+    @NotNull
+    @Contract(pure = true)
+    String keyAt(int index);
+
+    /**
+     * Estimated heap size of this index in bytes, the keys it keeps
+     * included, for comparing the implementations with each other. Assumes a
+     * 64 bit JVM with compressed references.
+     *
+     * @return estimated heap footprint in bytes.
+     */
+    @Contract(pure = true)
+    long footprint();
+
+}
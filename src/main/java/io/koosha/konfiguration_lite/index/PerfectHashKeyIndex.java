@@ -0,0 +1,332 @@
+package io.koosha.konfiguration_lite.index;
+
+import io.koosha.konfiguration_lite.KfgIllegalArgumentException;
+import io.koosha.konfiguration_lite.KfgIllegalStateException;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * {@link KeyIndex} backed by a minimal perfect hash function, built with
+ * hash and displace (CHD), over flat arrays.
+ *
+ * <p>Keys are hashed into buckets of a few keys each. Buckets are placed
+ * largest first, each one by searching for a displacement which sends all of
+ * its keys to free slots. There are slightly more slots than keys so that the
+ * search stays short, the keys landing in the slots past the end are then
+ * remapped to the slots left free before the end, which makes the function
+ * minimal.
+ *
+ * <p>Keys are hashed by their {@link String#hashCode()}, which strings
+ * cache, mixed with a seed. Keys sharing a hash code with another key can not
+ * be told apart by the function, and are kept in a small overflow map
+ * instead, consulted only when the looked up key shares the hash code of
+ * the key found at its position.
+ *
+ * <p>A lookup is one hash of the key, a read of the displacement of its
+ * bucket, and one comparison with the key at the resulting position. No
+ * objects are allocated on lookup.
+ *
+ * <p>Building is linear in the number of keys, and much slower than
+ * building a {@link HashMapKeyIndex}; it suits keys which are indexed once
+ * and looked up many times.
+ *
+ * <p>Thread safe and immutable.
+ */
+@Immutable
+@ThreadSafe
+public final class PerfectHashKeyIndex implements KeyIndex {
+
+    /**
+     * Average number of keys in a bucket.
+     */
+    private static final int BUCKET_SIZE = 4;
+
+    /**
+     * Displacements tried for a bucket before giving up on a seed.
+     */
+    private static final int MAX_DISPLACEMENT = 1 << 20;
+
+    private static final int MAX_SEEDS = 16;
+
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    @Immutable
+    private static final class Layout {
+
+        final long seed;
+        final int slots;
+        final int[] displacements;
+        final int[] remap;
+        final String[] keys;
+
+        Layout(final long seed,
+               final int slots,
+               final int[] displacements,
+               final int[] remap,
+               final String[] keys) {
+            this.seed = seed;
+            this.slots = slots;
+            this.displacements = displacements;
+            this.remap = remap;
+            this.keys = keys;
+        }
+
+    }
+
+    private final long seed;
+
+    private final int slots;
+
+    private final int[] displacements;
+
+    /**
+     * Position of the slots past the end of keys, by slot minus size.
+     */
+    private final int[] remap;
+
+    /**
+     * Keys by position, the ones covered by the function first.
+     */
+    private final String[] keys;
+
+    /**
+     * Number of the keys covered by the function.
+     */
+    private final int covered;
+
+    /**
+     * Positions of the keys sharing their hash code with a covered key.
+     */
+    @NotNull
+    private final Map<String, Integer> overflow;
+
+    /**
+     * @param keys the keys to index.
+     * @throws KfgIllegalArgumentException if a key is repeated.
+     * @throws KfgIllegalStateException    if no perfect hash function could
+     *                                     be found, which is practically
+     *                                     impossible.
+     */
+    public PerfectHashKeyIndex(@NotNull final Collection<String> keys) {
+        Objects.requireNonNull(keys, "keys");
+
+        final Set<String> seen = new HashSet<>(keys.size() * 4 / 3 + 1);
+        final Set<Integer> hashCodes = new HashSet<>(keys.size() * 4 / 3 + 1);
+        final List<String> unique = new ArrayList<>(keys.size());
+        final List<String> sharing = new ArrayList<>();
+        for (final String key : keys) {
+            if (!seen.add(Objects.requireNonNull(key, "key")))
+                throw new KfgIllegalArgumentException(null, "duplicate key: " + key);
+            (hashCodes.add(key.hashCode()) ? unique : sharing).add(key);
+        }
+
+        Layout layout = null;
+        for (int attempt = 1; layout == null && attempt <= MAX_SEEDS; attempt++)
+            layout = build(unique.toArray(new String[0]), mix(attempt * GOLDEN));
+        if (layout == null)
+            throw new KfgIllegalStateException(null, "could not find a perfect hash function for the keys");
+
+        this.seed = layout.seed;
+        this.slots = layout.slots;
+        this.displacements = layout.displacements;
+        this.remap = layout.remap;
+        this.covered = unique.size();
+
+        this.keys = new String[keys.size()];
+        System.arraycopy(layout.keys, 0, this.keys, 0, this.covered);
+        final Map<String, Integer> overflow = new HashMap<>();
+        for (int i = 0; i < sharing.size(); i++) {
+            this.keys[this.covered + i] = sharing.get(i);
+            overflow.put(sharing.get(i), this.covered + i);
+        }
+        this.overflow = overflow.isEmpty() ? Collections.emptyMap() : overflow;
+    }
+
+    @Nullable
+    private static Layout build(@NotNull final String[] keys,
+                                final long seed) {
+        final int n = keys.length;
+        final int buckets = n / BUCKET_SIZE + 1;
+        final int slots = n + n / 16 + 1;
+
+        final long[] hashes = new long[n];
+        final int[] bucketStart = new int[buckets + 1];
+        for (int i = 0; i < n; i++) {
+            hashes[i] = hash(keys[i], seed);
+            bucketStart[bucket(hashes[i], buckets) + 1]++;
+        }
+
+        // Counting sort of the keys by bucket, and of the buckets by size.
+        int largest = 0;
+        for (int b = 0; b < buckets; b++) {
+            largest = Math.max(largest, bucketStart[b + 1]);
+            bucketStart[b + 1] += bucketStart[b];
+        }
+        final int[] members = new int[n];
+        final int[] fill = bucketStart.clone();
+        for (int i = 0; i < n; i++)
+            members[fill[bucket(hashes[i], buckets)]++] = i;
+
+        final int[] bySizeStart = new int[largest + 2];
+        for (int b = 0; b < buckets; b++)
+            bySizeStart[largest - (bucketStart[b + 1] - bucketStart[b]) + 1]++;
+        for (int s = 0; s <= largest; s++)
+            bySizeStart[s + 1] += bySizeStart[s];
+        final int[] order = new int[buckets];
+        for (int b = 0; b < buckets; b++)
+            order[bySizeStart[largest - (bucketStart[b + 1] - bucketStart[b])]++] = b;
+
+        final int[] displacements = new int[buckets];
+        final int[] owner = new int[slots];
+        final int[] positions = new int[largest];
+        for (final int b : order) {
+            final int from = bucketStart[b];
+            final int size = bucketStart[b + 1] - from;
+            if (size == 0)
+                break;
+
+            int d = 0;
+            while (!place(hashes, members, from, size, d, slots, owner, positions))
+                if (++d == MAX_DISPLACEMENT)
+                    return null;
+            displacements[b] = d;
+        }
+
+        // Move the keys past the end to the free slots before the end.
+        final String[] byPosition = new String[n];
+        final int[] remap = new int[slots - n];
+        int free = 0;
+        for (int slot = n; slot < slots; slot++) {
+            if (owner[slot] == 0)
+                continue;
+            while (owner[free] != 0)
+                free++;
+            remap[slot - n] = free;
+            owner[free] = owner[slot];
+            free++;
+        }
+        for (int slot = 0; slot < n; slot++)
+            byPosition[slot] = keys[owner[slot] - 1];
+
+        return new Layout(seed, slots, displacements, remap, byPosition);
+    }
+
+    /**
+     * Claim the slots of the keys of a bucket under displacement d, if they
+     * are all free. Owners are kept as key index plus one, zero being free.
+     */
+    private static boolean place(@NotNull final long[] hashes,
+                                 @NotNull final int[] members,
+                                 final int from,
+                                 final int size,
+                                 final int d,
+                                 final int slots,
+                                 @NotNull final int[] owner,
+                                 @NotNull final int[] positions) {
+        for (int j = 0; j < size; j++) {
+            final int p = position(hashes[members[from + j]], d, slots);
+            if (owner[p] != 0) {
+                for (int k = 0; k < j; k++)
+                    owner[positions[k]] = 0;
+                return false;
+            }
+            owner[p] = members[from + j] + 1;
+            positions[j] = p;
+        }
+        return true;
+    }
+
+    @Contract(pure = true)
+    private static long hash(@NotNull final String key,
+                             final long seed) {
+        return mix(key.hashCode() * GOLDEN ^ seed);
+    }
+
+    /**
+     * Finalizer of murmur3.
+     */
+    @Contract(pure = true)
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Both the bucket and the position map 31 bits of a hash onto their
+     * range with a multiply and a shift, instead of a division.
+     */
+    @Contract(pure = true)
+    private static int bucket(final long hash,
+                              final int buckets) {
+        return (int) (((hash >>> 33) * buckets) >>> 31);
+    }
+
+    @Contract(pure = true)
+    private static int position(final long hash,
+                                final int displacement,
+                                final int slots) {
+        return (int) (((mix(hash + displacement * GOLDEN) >>> 33) * slots) >>> 31);
+    }
+
+
+    @Override
+    @Contract(pure = true)
+    public int size() {
+        return this.keys.length;
+    }
+
+    @Override
+    @Contract(pure = true)
+    public int indexOf(@NotNull final String key) {
+        final int n = this.covered;
+        if (n == 0)
+            return -1;
+
+        final long h = hash(key, this.seed);
+        int p = position(h, this.displacements[bucket(h, this.displacements.length)], this.slots);
+        if (p >= n)
+            p = this.remap[p - n];
+
+        final String found = this.keys[p];
+        if (found.equals(key))
+            return p;
+        if (this.overflow.isEmpty() || found.hashCode() != key.hashCode())
+            return -1;
+        return this.overflow.getOrDefault(key, -1);
+    }
+
+    @NotNull
+    @Override
+    @Contract(pure = true)
+    public String keyAt(final int index) {
+        return this.keys[index];
+    }
+
+    @Override
+    @Contract(pure = true)
+    public long footprint() {
+        return Footprint.object(8 + 5 * 4)
+            + Footprint.array(this.displacements.length, 4)
+            + Footprint.array(this.remap.length, 4)
+            + Footprint.strings(this.keys)
+            + (this.overflow.isEmpty() ? 0 : Footprint.hashMap(this.overflow.size()));
+    }
+
+}
@@ -0,0 +1,378 @@
+package io.koosha.konfiguration_lite.index;
+
+import io.koosha.konfiguration_lite.KfgIllegalArgumentException;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * {@link KeyIndex} backed by a radix (patricia) trie over flat arrays, for
+ * large sets of dotted keys sharing long prefixes, such as
+ * {@code tenants.acme.limits.rps}.
+ *
+ * <p>Each shared prefix is stored once, as the label of a trie edge, in a
+ * single char array. The keys themselves are not kept, {@link #keyAt(int)}
+ * rebuilds them. Edges are split right after each dot, so that every
+ * namespace ({@code tenants.acme.}) is a node, and {@link #descend(String)}
+ * is a walk down the trie.
+ *
+ * <p>Positions are in the sorted order of the keys, so the keys under a
+ * namespace have contiguous positions.
+ *
+ * <p>Thread safe and immutable.
+ */
+@Immutable
+@ThreadSafe
+public final class RadixKeyIndex implements KeyIndex {
+
+    private static final int ROOT = 0;
+
+    /**
+     * Edge labels, of all the nodes.
+     */
+    private final char[] labels;
+
+    /**
+     * Label of the edge into each node: labels[labelStart, labelStart of the
+     * next node). Nodes are numbered so that the labels are in order.
+     */
+    private final int[] labelStart;
+
+    /**
+     * Children of each node are contiguous and sorted by the first char of
+     * their label: [firstChild, firstChild + childCount).
+     */
+    private final int[] firstChild;
+
+    private final int[] childCount;
+
+    /**
+     * Position of the key ending at each node, or -1.
+     */
+    private final int[] terminal;
+
+    /**
+     * Smallest position in the subtree of each node.
+     */
+    private final int[] from;
+
+    /**
+     * Root of this (sub) index.
+     */
+    private final int root;
+
+    /**
+     * Position, in the whole trie, of the first position of this index.
+     */
+    private final int base;
+
+    private final int size;
+
+    /**
+     * @param keys the keys to index.
+     * @throws KfgIllegalArgumentException if a key is repeated.
+     */
+    public RadixKeyIndex(@NotNull final Collection<String> keys) {
+        Objects.requireNonNull(keys, "keys");
+        final String[] sorted = keys.toArray(new String[0]);
+        for (final String key : sorted)
+            Objects.requireNonNull(key, "key");
+        Arrays.sort(sorted);
+        for (int i = 1; i < sorted.length; i++)
+            if (sorted[i].equals(sorted[i - 1]))
+                throw new KfgIllegalArgumentException(null, "duplicate key: " + sorted[i]);
+
+        final Builder builder = new Builder(sorted);
+        builder.build();
+
+        this.labels = Arrays.copyOf(builder.labels, builder.labelCount);
+        this.labelStart = Arrays.copyOf(builder.labelStart, builder.nodes + 1);
+        this.labelStart[builder.nodes] = builder.labelCount;
+        this.firstChild = Arrays.copyOf(builder.firstChild, builder.nodes);
+        this.childCount = Arrays.copyOf(builder.childCount, builder.nodes);
+        this.terminal = Arrays.copyOf(builder.terminal, builder.nodes);
+        this.from = Arrays.copyOf(builder.from, builder.nodes);
+        this.root = ROOT;
+        this.base = 0;
+        this.size = sorted.length;
+    }
+
+    private RadixKeyIndex(@NotNull final RadixKeyIndex of,
+                          final int root,
+                          final int base,
+                          final int size) {
+        this.labels = of.labels;
+        this.labelStart = of.labelStart;
+        this.firstChild = of.firstChild;
+        this.childCount = of.childCount;
+        this.terminal = of.terminal;
+        this.from = of.from;
+        this.root = root;
+        this.base = base;
+        this.size = size;
+    }
+
+    /**
+     * Builds the trie depth first, allocating the children of a node
+     * together, before descending into them.
+     */
+    private static final class Builder {
+
+        final String[] keys;
+
+        char[] labels = new char[64];
+        int labelCount;
+
+        int[] labelStart = new int[16];
+        int[] firstChild = new int[16];
+        int[] childCount = new int[16];
+        int[] terminal = new int[16];
+        int[] from = new int[16];
+        int nodes;
+
+        Builder(@NotNull final String[] keys) {
+            this.keys = keys;
+        }
+
+        void build() {
+            this.node(0, "", 0, 0);
+            this.fill(ROOT, 0, this.keys.length, 0);
+        }
+
+        int node(final int rangeFrom,
+                 @NotNull final String label,
+                 final int start,
+                 final int end) {
+            if (this.nodes == this.terminal.length) {
+                final int capacity = this.nodes * 2;
+                this.labelStart = Arrays.copyOf(this.labelStart, capacity + 1);
+                this.firstChild = Arrays.copyOf(this.firstChild, capacity);
+                this.childCount = Arrays.copyOf(this.childCount, capacity);
+                this.terminal = Arrays.copyOf(this.terminal, capacity);
+                this.from = Arrays.copyOf(this.from, capacity);
+            }
+            if (this.labelCount + end - start > this.labels.length)
+                this.labels = Arrays.copyOf(this.labels, Math.max(this.labels.length * 2, this.labelCount + end - start));
+
+            label.getChars(start, end, this.labels, this.labelCount);
+            this.labelStart[this.nodes] = this.labelCount;
+            this.labelCount += end - start;
+            this.terminal[this.nodes] = -1;
+            this.from[this.nodes] = rangeFrom;
+            return this.nodes++;
+        }
+
+        /**
+         * Fill the subtree of node with keys[lo, hi), all sharing their first
+         * depth chars.
+         */
+        void fill(final int node,
+                  int lo,
+                  final int hi,
+                  final int depth) {
+            if (lo < hi && this.keys[lo].length() == depth)
+                this.terminal[node] = lo++;
+
+            // Labels are allocated in node order, so children are allocated
+            // in one go, and filled after.
+            final int first = this.nodes;
+            int count = 0;
+            for (int a = lo; a < hi; count++) {
+                final char c = this.keys[a].charAt(depth);
+                int b = a + 1;
+                while (b < hi && this.keys[b].charAt(depth) == c)
+                    b++;
+                this.node(a, this.keys[a], depth, labelEnd(this.keys[a], this.keys[b - 1], depth));
+                a = b;
+            }
+            this.firstChild[node] = first;
+            this.childCount[node] = count;
+
+            for (int child = first; child < first + count; child++) {
+                final int end = child + 1 < first + count ? this.from[child + 1] : hi;
+                this.fill(child, this.from[child], end, depth + this.labelLength(child));
+            }
+        }
+
+        /**
+         * Labels are appended in node order, so a label ends where the label
+         * of the next node starts.
+         */
+        int labelLength(final int node) {
+            final int end = node + 1 < this.nodes ? this.labelStart[node + 1] : this.labelCount;
+            return end - this.labelStart[node];
+        }
+
+        /**
+         * End of the common prefix of first and last (the first and last of
+         * a sorted group) from depth on, cut right after the first dot.
+         */
+        private static int labelEnd(@NotNull final String first,
+                                    @NotNull final String last,
+                                    final int depth) {
+            final int max = Math.min(first.length(), last.length());
+            int end = depth;
+            while (end < max && first.charAt(end) == last.charAt(end))
+                if (first.charAt(end++) == '.')
+                    break;
+            return end;
+        }
+
+    }
+
+
+    /**
+     * @return the node reached by walking key down from the root of this
+     * index, or -1 if key does not end exactly on a node.
+     */
+    @Contract(pure = true)
+    private int walk(@NotNull final String key) {
+        int node = this.root;
+        int i = 0;
+        while (i < key.length()) {
+            final int child = this.child(node, key.charAt(i));
+            if (child < 0)
+                return -1;
+
+            final int start = this.labelStart[child];
+            final int length = this.labelStart[child + 1] - start;
+            if (i + length > key.length())
+                return -1;
+            for (int j = 0; j < length; j++)
+                if (this.labels[start + j] != key.charAt(i + j))
+                    return -1;
+
+            i += length;
+            node = child;
+        }
+        return node;
+    }
+
+    /**
+     * @return the child of node whose label starts with c, or -1.
+     */
+    @Contract(pure = true)
+    private int child(final int node,
+                      final char c) {
+        int lo = this.firstChild[node];
+        int hi = lo + this.childCount[node] - 1;
+        while (lo <= hi) {
+            final int mid = (lo + hi) >>> 1;
+            final char at = this.labels[this.labelStart[mid]];
+            if (at < c)
+                lo = mid + 1;
+            else if (at > c)
+                hi = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+
+    /**
+     * The keys under the namespace of key (those starting with key followed
+     * by a dot), with that prefix stripped. The returned index shares the
+     * trie with this one, nothing is copied.
+     *
+     * @param key the namespace to descend into.
+     * @return index of the keys under key, or null if there are none.
+     */
+    @Nullable
+    @Contract(pure = true)
+    public RadixKeyIndex descend(@NotNull final String key) {
+        Objects.requireNonNull(key, "key");
+        final int node = this.walk(key.endsWith(".") ? key : key + '.');
+        if (node < 0)
+            return null;
+
+        // The namespace itself is not a key under it.
+        final int first = this.terminal[node] < 0 ? this.from[node] : this.from[node] + 1;
+        final int end = this.end(node);
+        return first == end ? null : new RadixKeyIndex(this, node, first, end - first);
+    }
+
+    /**
+     * @return one past the largest position in the subtree of node.
+     */
+    @Contract(pure = true)
+    private int end(final int node) {
+        int last = node;
+        while (this.childCount[last] > 0)
+            last = this.firstChild[last] + this.childCount[last] - 1;
+        return this.from[last] + 1;
+    }
+
+    /**
+     * Position of the first key of this index among all the keys of the
+     * index it descends from, 0 for an index which is not a
+     * {@link #descend(String) descendant}.
+     *
+     * @return base position of this index.
+     */
+    @Contract(pure = true)
+    public int base() {
+        return this.base;
+    }
+
+    @Override
+    @Contract(pure = true)
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    @Contract(pure = true)
+    public int indexOf(@NotNull final String key) {
+        final int node = this.walk(key);
+        if (node < 0 || this.terminal[node] < 0)
+            return -1;
+        final int position = this.terminal[node] - this.base;
+        return position < 0 ? -1 : position;
+    }
+
+    @NotNull
+    @Override
+    @Contract(pure = true)
+    public String keyAt(final int index) {
+        if (index < 0 || index >= this.size)
+            throw new IndexOutOfBoundsException("index=" + index + ", size=" + this.size);
+
+        final int position = index + this.base;
+        final StringBuilder sb = new StringBuilder();
+        int node = this.root;
+        while (this.terminal[node] != position) {
+            // The last child starting at or before position.
+            int lo = this.firstChild[node];
+            int hi = lo + this.childCount[node] - 1;
+            while (lo < hi) {
+                final int mid = (lo + hi + 1) >>> 1;
+                if (this.from[mid] <= position)
+                    lo = mid;
+                else
+                    hi = mid - 1;
+            }
+            node = lo;
+            sb.append(this.labels, this.labelStart[node], this.labelStart[node + 1] - this.labelStart[node]);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    @Contract(pure = true)
+    public long footprint() {
+        return Footprint.array(this.labels.length, 2)
+            + Footprint.array(this.labelStart.length, 4)
+            + Footprint.array(this.firstChild.length, 4)
+            + Footprint.array(this.childCount.length, 4)
+            + Footprint.array(this.terminal.length, 4)
+            + Footprint.array(this.from.length, 4)
+            + Footprint.object(4 * 8 + 3 * 4);
+    }
+
+}
@@ -106,7 +106,8 @@ public abstract class Kind<TYPE> implements Serializable {
 
     @Contract(pure = true)
     public final Kind<?> getCollectionContainedKind() {
-        throw new UnsupportedOperationException();
+        return new Kind<Object>(this.getCollectionContainedType()) {
+        };
     }
 
 
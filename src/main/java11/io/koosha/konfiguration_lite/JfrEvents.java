@@ -0,0 +1,196 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.type.Kind;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Java Flight Recorder events of konfigurations: loading of sources,
+ * reloads, and reads slower than a threshold.
+ *
+ * <p>This is the Java 11 version, which emits the events. The slow read
+ * threshold is the {@code threshold} setting of the
+ * {@value #READ} event, 10 ms by default, and can be changed in the
+ * recording settings like that of any other event.
+ *
+ * <p>Each event is started by a {@code *Start()} method returning a token,
+ * which is null if the event is disabled, and is ended by passing the token
+ * back. No work is done and nothing is allocated for disabled events.
+ *
+ * <p>For internal use of sources and views.
+ */
+@ApiStatus.Internal
+public final class JfrEvents {
+
+    private static final String CATEGORY = "Konfiguration";
+
+    static final String LOAD = "io.koosha.konfiguration_lite.SourceLoad";
+    static final String RELOAD = "io.koosha.konfiguration_lite.Reload";
+    static final String READ = "io.koosha.konfiguration_lite.SlowRead";
+
+    @Name(LOAD)
+    @Label("Source Load")
+    @Description("Construction of a source, parsing included")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class SourceLoad extends Event {
+
+        @Label("Source")
+        String source;
+
+        @Label("Format")
+        String format;
+
+        @Label("Size")
+        @DataAmount
+        long bytes;
+
+        @Label("Nodes")
+        @Description("Number of nodes in the parsed document")
+        long nodes;
+
+    }
+
+    @Name(RELOAD)
+    @Label("Reload")
+    @Description("Swap of a new version into a reloadable konfiguration")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class Reload extends Event {
+
+        @Label("Name")
+        String name;
+
+        @Label("Changed Keys")
+        @Description("Keys added, removed or changed, -1 if the keys can not be enumerated")
+        long changedKeys;
+
+    }
+
+    @Name(READ)
+    @Label("Slow Read")
+    @Description("Read of a key slower than the threshold")
+    @Category(CATEGORY)
+    @Threshold("10 ms")
+    static final class SlowRead extends Event {
+
+        @Label("Source")
+        String source;
+
+        @Label("Key")
+        String key;
+
+        @Label("Kind")
+        @Description("Class read, of the elements for lists, sets and arrays")
+        String kind;
+
+    }
+
+    private static final EventType LOAD_TYPE = EventType.getEventType(SourceLoad.class);
+    private static final EventType RELOAD_TYPE = EventType.getEventType(Reload.class);
+    private static final EventType READ_TYPE = EventType.getEventType(SlowRead.class);
+
+    private JfrEvents() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Nullable
+    @Contract(pure = true)
+    public static Object loadStart() {
+        if (!LOAD_TYPE.isEnabled())
+            return null;
+        final SourceLoad event = new SourceLoad();
+        event.begin();
+        return event;
+    }
+
+    public static <T> void loaded(@Nullable final Object token,
+                                  @NotNull final String source,
+                                  @NotNull final String format,
+                                  final long bytes,
+                                  @Nullable final T root,
+                                  @NotNull final ToLongFunction<? super T> nodes) {
+        if (token == null)
+            return;
+        final SourceLoad event = (SourceLoad) token;
+        event.end();
+        if (!event.shouldCommit())
+            return;
+        event.source = source;
+        event.format = format;
+        event.bytes = bytes;
+        event.nodes = root == null ? 0 : nodes.applyAsLong(root);
+        event.commit();
+    }
+
+    @Nullable
+    @Contract(pure = true)
+    public static Object reloadStart() {
+        if (!RELOAD_TYPE.isEnabled())
+            return null;
+        final Reload event = new Reload();
+        event.begin();
+        return event;
+    }
+
+    public static void reloaded(@Nullable final Object token,
+                                @NotNull final String name,
+                                @NotNull final Supplier<Set<String>> changed) {
+        if (token == null)
+            return;
+        final Reload event = (Reload) token;
+        event.end();
+        if (!event.shouldCommit())
+            return;
+        event.name = name;
+        final Set<String> keys = changed.get();
+        event.changedKeys = keys == null ? -1 : keys.size();
+        event.commit();
+    }
+
+    @Nullable
+    @Contract(pure = true)
+    public static Object readStart() {
+        if (!READ_TYPE.isEnabled())
+            return null;
+        final SlowRead event = new SlowRead();
+        event.begin();
+        return event;
+    }
+
+    @Contract("_, _, _, _, _, _ -> param6")
+    public static <T> T read(@Nullable final Object token,
+                             @NotNull final String source,
+                             @NotNull final String prefix,
+                             @NotNull final String key,
+                             @NotNull final Kind<?> kind,
+                             final T value) {
+        if (token == null)
+            return value;
+        final SlowRead event = (SlowRead) token;
+        event.end();
+        if (event.shouldCommit()) {
+            event.source = source;
+            event.key = prefix.isEmpty() ? key : prefix + key;
+            event.kind = kind.klass().getName();
+            event.commit();
+        }
+        return value;
+    }
+
+}
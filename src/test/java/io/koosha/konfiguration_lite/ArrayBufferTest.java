@@ -0,0 +1,120 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.ext.v8.ExtGsonJsonSource;
+import io.koosha.konfiguration_lite.ext.v8.ExtJacksonJsonSource;
+import io.koosha.konfiguration_lite.ext.v8.ExtYamlSource;
+import org.testng.annotations.Test;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Test for {@link Konfiguration#intArray(String)},
+ * {@link Konfiguration#longArray(String)} and
+ * {@link Konfiguration#doubleArray(String)}.
+ */
+public class ArrayBufferTest {
+
+    private static final String JSON = "{\"a\": {\"ints\": [1, -2, 3], \"big\": [3000000000], \"reals\": [0.5, 2]," +
+        " \"empty\": [], \"nothing\": null, \"mixed\": [1, \"x\"], \"str\": \"s\"}}";
+
+    private static final String YAML = "a:\n  ints: [1, -2, 3]\n  big: [3000000000]\n  reals: [0.5, 2]\n" +
+        "  empty: []\n  nothing: null\n  mixed: [1, x]\n  str: s\n";
+
+    // Jackson decodes the array nodes directly, the others convert their
+    // lists.
+    private final List<Konfiguration> sources = Arrays.asList(
+        new ExtJacksonJsonSource("jackson", JSON),
+        new ExtGsonJsonSource("gson", JSON),
+        new ExtYamlSource("yaml", YAML),
+        new TrackingView(new ExtJacksonJsonSource("tracked", JSON)));
+
+    private static void assertFails(final Konfiguration source,
+                                    final Runnable read) {
+        try {
+            read.run();
+            fail("expected failure: " + source.name());
+        }
+        catch (final KfgMissingKeyException | KfgTypeException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testValues() {
+        for (final Konfiguration source : this.sources) {
+            final IntBuffer ints = source.intArray("a.ints");
+            assertEquals(ints.remaining(), 3, source.name());
+            assertEquals(ints.get(0), 1, source.name());
+            assertEquals(ints.get(1), -2, source.name());
+            assertEquals(ints.get(2), 3, source.name());
+
+            final LongBuffer longs = source.longArray("a.big");
+            assertEquals(longs.remaining(), 1, source.name());
+            assertEquals(longs.get(0), 3_000_000_000L, source.name());
+
+            final DoubleBuffer reals = source.doubleArray("a.reals");
+            assertEquals(reals.remaining(), 2, source.name());
+            assertEquals(reals.get(0), 0.5, 0.0);
+            assertEquals(reals.get(1), 2.0, 0.0);
+
+            assertEquals(source.longArray("a.ints").get(1), -2L, source.name());
+            assertEquals(source.doubleArray("a.ints").get(2), 3.0, 0.0);
+            assertEquals(source.intArray("a.empty").remaining(), 0, source.name());
+            assertNull(source.intArray("a.nothing"), source.name());
+            assertEquals(new SubsetView("a", source, "a").intArray("ints").get(2), 3, source.name());
+        }
+    }
+
+    @Test
+    public void testBuffersAreReadOnlyAndIndependent() {
+        for (final Konfiguration source : this.sources) {
+            final IntBuffer first = source.intArray("a.ints");
+            assertTrue(first.isReadOnly(), source.name());
+            try {
+                first.put(0, 42);
+                fail("expected failure: " + source.name());
+            }
+            catch (final ReadOnlyBufferException e) {
+                // expected
+            }
+
+            assertEquals(first.get(), 1, source.name());
+            assertEquals(first.get(), -2, source.name());
+            final IntBuffer second = source.intArray("a.ints");
+            assertEquals(second.position(), 0, source.name());
+            assertEquals(second.get(), 1, source.name());
+            assertEquals(first.get(), 3, source.name());
+
+            assertTrue(source.longArray("a.ints").isReadOnly(), source.name());
+            assertTrue(source.doubleArray("a.ints").isReadOnly(), source.name());
+        }
+    }
+
+    @Test
+    public void testWrongElements() {
+        for (final Konfiguration source : this.sources) {
+            assertFails(source, () -> source.intArray("a.big"));
+            assertFails(source, () -> source.intArray("a.reals"));
+            assertFails(source, () -> source.longArray("a.reals"));
+            assertFails(source, () -> source.intArray("a.mixed"));
+            assertFails(source, () -> source.doubleArray("a.mixed"));
+            assertFails(source, () -> source.intArray("a.str"));
+            assertFails(source, () -> source.intArray("a.missing"));
+
+            // A failure is not cached, the key reads the same later.
+            assertFails(source, () -> source.intArray("a.big"));
+            assertEquals(source.longArray("a.big").get(0), 3_000_000_000L, source.name());
+        }
+    }
+
+}
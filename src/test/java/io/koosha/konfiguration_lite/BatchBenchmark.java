@@ -0,0 +1,94 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.ext.v8.ExtJacksonJsonSource;
+import io.koosha.konfiguration_lite.type.Kind;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hand rolled timing of {@link Konfiguration#getAll(Map)} against the same
+ * keys read one by one, on {@link ExtJacksonJsonSource}: each read as by
+ * getAll, and as plain ints. Not a test, run its
+ * main method with jackson on the class path. Numbers are rough, there is no
+ * JMH setup in the build.
+ */
+public final class BatchBenchmark {
+
+    private static final int SECTIONS = 50;
+    private static final int KEYS = 20;
+    private static final int ROUNDS = 2_000;
+
+    private static volatile long sink;
+
+    private BatchBenchmark() {
+    }
+
+    private static String json() {
+        final StringBuilder json = new StringBuilder("{\"app\": {\"services\": {");
+        for (int s = 0; s < SECTIONS; s++) {
+            json.append(s == 0 ? "" : ", ").append("\"s").append(s).append("\": {");
+            for (int k = 0; k < KEYS; k++)
+                json.append(k == 0 ? "" : ", ").append("\"k").append(k).append("\": ").append(k);
+            json.append('}');
+        }
+        return json.append("}}}").toString();
+    }
+
+    /**
+     * @return nanoseconds per key.
+     */
+    private static double batch(final Source source,
+                                final Map<String, Kind<?>> keys) {
+        final long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++)
+            sink += source.getAll(keys).size();
+        return (System.nanoTime() - start) / (double) (ROUNDS * keys.size());
+    }
+
+    /**
+     * @return nanoseconds per key.
+     */
+    private static double single(final Source source,
+                                 final Map<String, Kind<?>> keys) {
+        final long start = System.nanoTime();
+        long sum = 0;
+        for (int i = 0; i < ROUNDS; i++)
+            for (final Map.Entry<String, Kind<?>> key : keys.entrySet())
+                sum += source.custom(key.getKey(), key.getValue()).hashCode();
+        sink += sum;
+        return (System.nanoTime() - start) / (double) (ROUNDS * keys.size());
+    }
+
+    /**
+     * @return nanoseconds per key.
+     */
+    private static double ints(final Source source,
+                               final Map<String, Kind<?>> keys) {
+        final long start = System.nanoTime();
+        long sum = 0;
+        for (int i = 0; i < ROUNDS; i++)
+            for (final String key : keys.keySet())
+                sum += source.int_(key);
+        sink += sum;
+        return (System.nanoTime() - start) / (double) (ROUNDS * keys.size());
+    }
+
+    public static void main(final String... args) {
+        final Source source = new ExtJacksonJsonSource("jackson", json());
+        final Map<String, Kind<?>> keys = new HashMap<>();
+        for (int s = 0; s < SECTIONS; s++)
+            for (int k = 0; k < KEYS; k++)
+                keys.put("app.services.s" + s + ".k" + k, Kind.INT);
+
+        for (int round = 0; round < 10; round++) {
+            final double b = batch(source, keys);
+            final double s = single(source, keys);
+            final double i = ints(source, keys);
+            if (round == 9)
+                System.out.printf("%d keys, %d per parent: getAll %.0f ns/key, custom() %.0f ns/key, int_() %.0f ns/key%n",
+                    keys.size(), KEYS, b, s, i);
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.ext.v8.ExtJacksonJsonSource;
+import io.koosha.konfiguration_lite.type.Kind;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Test for {@link Konfiguration#getAll(Map)} and {@link Batch}, over the
+ * batch parent cache of {@link ExtJacksonJsonSource}.
+ */
+public class BatchTest {
+
+    // Parents sharing a prefix ("a", "ab") and of different depths, so that
+    // a wrongly reused parent gives wrong values.
+    private static final String JSON = "{" +
+        "\"a\": {\"x\": 1, \"y\": 2, \"b\": {\"x\": 3}}," +
+        " \"ab\": {\"x\": 4}," +
+        " \"b\": {\"x\": 5, \"n\": null}," +
+        " \"top\": \"t\"" +
+        "}";
+
+    private final ExtJacksonJsonSource source = new ExtJacksonJsonSource("json", JSON);
+
+    private static Map<String, Kind<?>> kinds(final Kind<?> kind,
+                                              final String... keys) {
+        final Map<String, Kind<?>> kinds = new HashMap<>();
+        for (final String key : keys)
+            kinds.put(key, kind);
+        return kinds;
+    }
+
+    @Test
+    public void testGetAll() {
+        final Map<String, Kind<?>> kinds = kinds(Kind.INT, "a.x", "a.y", "a.b.x", "ab.x", "b.x", "b.n");
+        kinds.put("top", Kind.STRING);
+
+        final Batch batch = this.source.getAll(kinds);
+
+        assertEquals(batch.size(), 7);
+        assertEquals(batch.get("a.x", Kind.INT), Integer.valueOf(1));
+        assertEquals(batch.get("a.y", Kind.INT), Integer.valueOf(2));
+        assertEquals(batch.get("a.b.x", Kind.INT), Integer.valueOf(3));
+        assertEquals(batch.get("ab.x", Kind.INT), Integer.valueOf(4));
+        assertEquals(batch.get("b.x", Kind.INT), Integer.valueOf(5));
+        assertNull(batch.get("b.n", Kind.INT));
+        assertEquals(batch.get("top", Kind.STRING), "t");
+        assertTrue(batch.has("top"));
+        assertFalse(batch.has("a"));
+    }
+
+    @Test
+    public void testBatchMatchesSingleReads() {
+        final String[] keys = {"a.x", "a.y", "a.b.x", "ab.x", "b.x"};
+        for (int i = 0; i < keys.length; i++)
+            for (int j = 0; j < keys.length; j++) {
+                final Batch batch = this.source.getAll(kinds(Kind.LONG, keys[i], keys[j]));
+                assertEquals(batch.get(keys[i], Kind.LONG), this.source.long_(keys[i]));
+                assertEquals(batch.get(keys[j], Kind.LONG), this.source.long_(keys[j]));
+            }
+    }
+
+    @Test
+    public void testBatchOfSubset() {
+        final Batch batch = new SubsetView("a", this.source, "a").getAll(kinds(Kind.INT, "x", "b.x"));
+
+        assertEquals(batch.get("x", Kind.INT), Integer.valueOf(1));
+        assertEquals(batch.get("b.x", Kind.INT), Integer.valueOf(3));
+    }
+
+    @Test
+    public void testBatchGetChecksKeyAndKind() {
+        final Batch batch = this.source.getAll(kinds(Kind.INT, "a.x"));
+
+        try {
+            batch.get("a.y", Kind.INT);
+            fail("expected failure");
+        }
+        catch (final KfgMissingKeyException e) {
+            // expected
+        }
+        try {
+            batch.get("a.x", Kind.STRING);
+            fail("expected failure");
+        }
+        catch (final KfgTypeException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testFailedBatchLeavesSourceUsable() {
+        try {
+            this.source.getAll(kinds(Kind.INT, "a.x", "a.missing"));
+            fail("expected failure");
+        }
+        catch (final KfgMissingKeyException e) {
+            // expected
+        }
+
+        // Nothing is left behind by the failed batch.
+        final ExtJacksonJsonSource other = new ExtJacksonJsonSource("other", "{\"a\": {\"x\": 10}}");
+        assertEquals(other.int_("a.x"), Integer.valueOf(10));
+        assertEquals(this.source.int_("a.x"), Integer.valueOf(1));
+        assertEquals(this.source.getAll(kinds(Kind.INT, "a.b.x")).get("a.b.x", Kind.INT), Integer.valueOf(3));
+    }
+
+    @Test
+    public void testFailureNamesTheWholeKey() {
+        for (final String key : new String[]{"a.b.missing", "top.x", "missing.x"})
+            try {
+                this.source.getAll(kinds(Kind.INT, "a.x", key));
+                fail("expected failure: " + key);
+            }
+            catch (final KfgMissingKeyException e) {
+                assertEquals(e.key(), key);
+            }
+
+        try {
+            this.source.getAll(kinds(Kind.INT.asList(), "a.b.x"));
+            fail("expected failure");
+        }
+        catch (final KfgMissingKeyException | KfgTypeException e) {
+            assertEquals(e.key(), "a.b.x");
+        }
+    }
+
+}
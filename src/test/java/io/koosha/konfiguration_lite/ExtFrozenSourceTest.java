@@ -0,0 +1,85 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.ext.v8.ExtFrozenSource;
+import io.koosha.konfiguration_lite.ext.v8.ExtJacksonJsonSource;
+import io.koosha.konfiguration_lite.ext.v8.ExtYamlSource;
+import io.koosha.konfiguration_lite.index.HashMapKeyIndex;
+import io.koosha.konfiguration_lite.index.RadixKeyIndex;
+import io.koosha.konfiguration_lite.type.Kind;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test for {@link ExtFrozenSource}
+ */
+public class ExtFrozenSourceTest {
+
+    private static final String JSON = "{\"a\": {\"int\": 1, \"str\": \"x\", \"list\": [1, 2, 3]," +
+        " \"nothing\": null, \"double\": 2.5, \"bool\": true}}";
+
+    private static final String YAML = "a:\n  int: 1\n  str: x\n  list: [1, 2, 3]\n" +
+        "  nothing: null\n  double: 2.5\n  bool: true\n";
+
+    private final List<Source> sources = Arrays.asList(
+        new ExtFrozenSource(new ExtJacksonJsonSource("json", JSON)),
+        new ExtFrozenSource(new ExtYamlSource("yaml", YAML)),
+        new ExtFrozenSource(new ExtJacksonJsonSource("json", JSON), HashMapKeyIndex::new),
+        new ExtFrozenSource(new ExtYamlSource("yaml", YAML), RadixKeyIndex::new));
+
+    @Test
+    public void testReadsAsOrigin() {
+        for (final Source frozen : this.sources) {
+            assertEquals(frozen.keys().size(), 6);
+            assertEquals(frozen.int_("a.int"), Integer.valueOf(1));
+            assertEquals(frozen.long_("a.int"), Long.valueOf(1));
+            assertEquals(frozen.string("a.str"), "x");
+            assertEquals(frozen.char_("a.str"), Character.valueOf('x'));
+            assertEquals(frozen.list("a.list", Kind.INT), Arrays.asList(1, 2, 3));
+            assertEquals(frozen.intArray("a.list").get(2), 3);
+            assertNull(frozen.string("a.nothing"));
+            assertEquals(frozen.double_("a.double"), Double.valueOf(2.5));
+            assertEquals(frozen.bool("a.bool"), Boolean.TRUE);
+            assertEquals(new SubsetView("a", frozen, "a").int_("int"), Integer.valueOf(1));
+        }
+    }
+
+    @Test
+    public void testHas() {
+        for (final Source frozen : this.sources) {
+            assertTrue(frozen.has("a.int", Kind.BYTE));
+            assertTrue(frozen.has("a.double", Kind.FLOAT));
+            assertFalse(frozen.has("a.double", Kind.INT));
+            assertFalse(frozen.has("a.str", Kind.INT));
+            assertFalse(frozen.has("a.missing", Kind.INT));
+            assertFalse(frozen.has("a", Kind.INT));
+        }
+    }
+
+    @Test(expectedExceptions = KfgMissingKeyException.class)
+    public void testMissingKeyThrowsException() {
+        this.sources.get(0).int_("a.missing");
+    }
+
+    @Test
+    public void testSubsetDescendsIntoRadixIndex() {
+        final Source frozen = new ExtFrozenSource(
+            new ExtJacksonJsonSource("json", "{\"a\": {\"b\": {\"c\": 1, \"d\": 2}, \"e\": 3}, \"f\": 4}"),
+            RadixKeyIndex::new);
+
+        final Konfiguration ab = new SubsetView("ab", frozen, "a.b");
+        assertEquals(ab.int_("c"), Integer.valueOf(1));
+        assertEquals(ab.int_("d"), Integer.valueOf(2));
+        assertFalse(ab.has("e", Kind.INT));
+        assertEquals(ab.keys(), new java.util.TreeSet<>(Arrays.asList("c", "d")));
+        assertEquals(ab.subset("x").int_("c", 5), Integer.valueOf(5));
+        assertEquals(new SubsetView("a", frozen, "a").subset("b").int_("d"), Integer.valueOf(2));
+    }
+
+}
@@ -0,0 +1,128 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.ext.v8.ExtGsonJsonSource;
+import io.koosha.konfiguration_lite.type.Kind;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Test for {@link ExtGsonJsonSource}
+ */
+public class ExtGsonJsonSourceTest {
+
+    private static final String JSON = "{" +
+        "\"a\": {\"int\": 1, \"str\": \"x\", \"nothing\": null, \"double\": 2.5, \"bool\": true," +
+        " \"big\": 3000000000, \"exp\": 1e2}," +
+        " \"list\": [1, 2, null]," +
+        " \"big\": [1, 300]," +
+        " \"chars\": [\"a\", \"bc\"]," +
+        " \"mixed\": [1, \"a\"]," +
+        " \"dup\": [1, 1]," +
+        " \"zero\": [-0, 0]," +
+        " \"huge\": [1.0, 1.0e300]," +
+        " \"long\": [9223372036854775807, 9223372036854775808]" +
+        "}";
+
+    private final Source source = new ExtGsonJsonSource("gson", JSON);
+
+    private static void assertFails(final Class<? extends KfgException> expected,
+                                    final Runnable read) {
+        try {
+            read.run();
+            fail("expected failure");
+        }
+        catch (final KfgException e) {
+            assertEquals(e.getClass(), expected, e.toString());
+        }
+    }
+
+    @Test
+    public void testReads() {
+        assertEquals(this.source.int_("a.int"), Integer.valueOf(1));
+        assertEquals(this.source.long_("a.big"), Long.valueOf(3_000_000_000L));
+        assertEquals(this.source.string("a.str"), "x");
+        assertEquals(this.source.char_("a.str"), Character.valueOf('x'));
+        assertNull(this.source.string("a.nothing"));
+        assertEquals(this.source.double_("a.double"), Double.valueOf(2.5));
+        assertEquals(this.source.double_("a.exp"), Double.valueOf(100));
+        assertEquals(this.source.bool("a.bool"), Boolean.TRUE);
+        assertEquals(this.source.list("list", Kind.INT), Arrays.asList(1, 2, null));
+        assertEquals(this.source.set("list", Kind.LONG), new HashSet<>(Arrays.asList(1L, 2L, null)));
+        assertEquals(this.source.custom("a", Kind.of(Map.class)).size(), 7);
+        assertEquals(new SubsetView("a", this.source, "a").int_("int"), Integer.valueOf(1));
+        assertEquals(this.source.keys(), new HashSet<>(Arrays.asList(
+            "a.int", "a.str", "a.nothing", "a.double", "a.bool", "a.big", "a.exp",
+            "list", "big", "chars", "mixed", "dup", "zero", "huge", "long")));
+    }
+
+    @Test
+    public void testHas() {
+        assertTrue(this.source.has("a.int", Kind.BYTE));
+        assertTrue(this.source.has("a.double", Kind.FLOAT));
+        assertFalse(this.source.has("a.double", Kind.INT));
+        assertFalse(this.source.has("a.exp", Kind.INT));
+        assertFalse(this.source.has("a.big", Kind.INT));
+        assertFalse(this.source.has("a.str", Kind.INT));
+        assertFalse(this.source.has("a.missing", Kind.INT));
+        assertTrue(this.source.has("a.nothing", Kind.INT));
+    }
+
+    @Test
+    public void testListElementsAreRangeChecked() {
+        assertEquals(this.source.list("big", Kind.SHORT), Arrays.asList((short) 1, (short) 300));
+        assertEquals(this.source.list("big", Kind.INT), Arrays.asList(1, 300));
+        assertTrue(this.source.has("big", Kind.SHORT.asList()));
+
+        assertFalse(this.source.has("big", Kind.BYTE.asList()));
+        assertFalse(this.source.has("big", Kind.BYTE.asSet()));
+        assertFalse(this.source.has("chars", Kind.CHAR.asList()));
+        assertFalse(this.source.has("mixed", Kind.INT.asList()));
+        assertFalse(this.source.has("mixed", Kind.STRING.asList()));
+
+        assertNull(this.source.list("big", Kind.BYTE, null));
+        // Of the wrong kind, the same as single values.
+        assertFails(KfgMissingKeyException.class, () -> this.source.list("big", Kind.BYTE));
+        assertFails(KfgMissingKeyException.class, () -> this.source.set("big", Kind.BYTE));
+        // Not truncated by gson when asked anyway.
+        assertFails(KfgTypeException.class, () -> this.source.list0("big", Kind.BYTE));
+        assertFails(KfgTypeException.class, () -> this.source.set0("big", Kind.BYTE));
+        assertFails(KfgTypeException.class, () -> this.source.list0("chars", Kind.CHAR));
+    }
+
+    @Test
+    public void testListElementEdges() {
+        assertEquals(this.source.list("zero", Kind.BYTE), Arrays.asList((byte) 0, (byte) 0));
+        assertEquals(this.source.list("zero", Kind.LONG), Arrays.asList(0L, 0L));
+
+        assertEquals(this.source.list("huge", Kind.DOUBLE), Arrays.asList(1.0, 1.0e300));
+        assertFalse(this.source.has("huge", Kind.FLOAT.asList()));
+        assertFalse(this.source.has("huge", Kind.FLOAT.asSet()));
+        assertFails(KfgTypeException.class, () -> this.source.list0("huge", Kind.FLOAT));
+
+        assertFalse(this.source.has("long", Kind.LONG.asList()));
+        assertFails(KfgTypeException.class, () -> this.source.list0("long", Kind.LONG));
+    }
+
+    @Test
+    public void testListIsNoSet() {
+        assertFails(KfgTypeException.class, () -> this.source.set("dup", Kind.INT));
+    }
+
+    @Test
+    public void testTypeMismatch() {
+        assertFails(KfgMissingKeyException.class, () -> this.source.int_("a.str"));
+        assertFails(KfgMissingKeyException.class, () -> this.source.byte_("a.big"));
+        assertFails(KfgMissingKeyException.class, () -> this.source.int_("a.double"));
+        assertFails(KfgMissingKeyException.class, () -> this.source.string("a.int"));
+    }
+
+}
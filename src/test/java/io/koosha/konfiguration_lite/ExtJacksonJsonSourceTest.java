@@ -0,0 +1,155 @@
+package io.koosha.konfiguration_lite;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.koosha.konfiguration_lite.ext.v8.ExtJacksonJsonSource;
+import io.koosha.konfiguration_lite.type.Kind;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Test for {@link ExtJacksonJsonSource}
+ */
+public class ExtJacksonJsonSourceTest {
+
+    private static final String JSON = "{" +
+        "\"service\": {\"foo\": {\"port\": 1, \"hosts\": [\"a\", {\"b\": 2}]}, \"bar\": {\"port\": 2}}," +
+        " \"services\": {\"port\": 3}," +
+        " \"db\": {\"url\": \"u\", \"pool\": [1, 2]}," +
+        " \"flag\": true," +
+        " \"skipped\": {\"deep\": [[{\"x\": {\"y\": null}}], \"}\"]}" +
+        "}";
+
+    private static final String POINTS = "{\"a\": {\"p1\": {\"x\": 1, \"y\": 2}, \"p2\": {\"x\": 3, \"y\": 4}," +
+        " \"l1\": [1], \"l2\": [2, 3], \"m\": [{\"k\": 1}, {\"k\": 2}]}}";
+
+    public static final class Point {
+        public int x;
+        public int y;
+    }
+
+    /**
+     * Counts the readers it creates.
+     */
+    private static final class CountingMapper extends ObjectMapper {
+        private static final long serialVersionUID = 1L;
+
+        private final AtomicInteger readers = new AtomicInteger();
+
+        @Override
+        public ObjectReader readerFor(final JavaType type) {
+            this.readers.incrementAndGet();
+            return super.readerFor(type);
+        }
+    }
+
+    @Test
+    public void testPartialKeepsPrefixes() {
+        final Source full = new ExtJacksonJsonSource("json", JSON);
+        final Source partial = ExtJacksonJsonSource.partial("json", JSON, Arrays.asList("service.foo", "db.", "flag"));
+
+        assertEquals(partial.keys(), new HashSet<>(Arrays.asList(
+            "service.foo.port", "service.foo.hosts", "db.url", "db.pool", "flag")));
+        for (final String key : partial.keys())
+            assertEquals(partial.custom(key, Kind.of(Object.class)), full.custom(key, Kind.of(Object.class)), key);
+        assertEquals(partial.int_("service.foo.port"), Integer.valueOf(1));
+        assertEquals(partial.list("db.pool", Kind.INT), Arrays.asList(1, 2));
+        assertEquals(new SubsetView("foo", partial, "service.foo").int_("port"), Integer.valueOf(1));
+    }
+
+    @Test
+    public void testPartialSkipsTheRest() {
+        final Source partial = ExtJacksonJsonSource.partial("json", JSON, Collections.singleton("service.foo"));
+
+        // Siblings of the prefix and of its ancestors, and keys sharing a
+        // prefix of its name.
+        assertFalse(partial.has("service.bar.port", Kind.INT));
+        assertFalse(partial.has("services.port", Kind.INT));
+        assertFalse(partial.has("db.url", Kind.STRING));
+        assertFalse(partial.has("flag", Kind.BOOL));
+        assertFalse(partial.has("skipped", Kind.of(Object.class)));
+        try {
+            partial.int_("service.bar.port");
+            fail("expected failure");
+        }
+        catch (final KfgMissingKeyException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testPartialPrefixesNotInJson() {
+        final Source partial = ExtJacksonJsonSource.partial("json", JSON,
+            Arrays.asList("missing", "flag.x", "service.foo.port.x"));
+        assertEquals(partial.keys(), Collections.emptySet());
+
+        assertEquals(ExtJacksonJsonSource.partial("json", JSON, Collections.emptySet()).keys(),
+            Collections.emptySet());
+    }
+
+    @Test
+    public void testPartialOfMalformedJson() {
+        for (final String json : Arrays.asList("{", "{\"db\": {\"url\": }", "{\"skipped\": [1, }")) {
+            try {
+                ExtJacksonJsonSource.partial("json", json, Collections.singleton("db"));
+                fail("expected failure: " + json);
+            }
+            catch (final KfgSourceException e) {
+                assertTrue(e.getMessage().contains("parsing"), e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testReadersAreCachedPerType() {
+        final AtomicInteger mappers = new AtomicInteger();
+        final CountingMapper mapper = new CountingMapper();
+        final Source source = new ExtJacksonJsonSource("json", POINTS, () -> {
+            mappers.incrementAndGet();
+            return mapper;
+        });
+        final Kind<Point> point = Kind.of(Point.class);
+
+        // Distinct keys, so that nothing is served from the source's own
+        // value caches.
+        assertEquals(source.custom("a.p1", point).x, 1);
+        assertEquals(source.custom("a.p2", point).y, 4);
+        assertEquals(mapper.readers.get(), 1);
+        assertEquals(source.list("a.l1", Kind.INT), Collections.singletonList(1));
+        assertEquals(source.list("a.l2", Kind.INT), Arrays.asList(2, 3));
+        assertEquals(mapper.readers.get(), 2);
+
+        // Descended sources share the readers.
+        final SubsetView a = new SubsetView("a", source, "a");
+        assertEquals(a.custom("p1", point).y, 2);
+        assertEquals(a.set("l2", Kind.INT), new HashSet<>(Arrays.asList(2, 3)));
+        assertEquals(mapper.readers.get(), 2);
+
+        assertEquals(source.list("a.l2", Kind.LONG), Arrays.asList(2L, 3L));
+        assertEquals(mapper.readers.get(), 3);
+        assertEquals(mappers.get(), 1);
+    }
+
+    @Test
+    public void testListOfGenericElements() {
+        final Source source = new ExtJacksonJsonSource("json", POINTS);
+
+        final List<Map<String, Long>> maps = source.list("a.m", new Kind<Map<String, Long>>() {
+        });
+        assertEquals(maps.size(), 2);
+        assertEquals(maps.get(1).get("k"), Long.valueOf(2));
+    }
+
+}
@@ -0,0 +1,132 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.ext.v8.ExtMapSource;
+import io.koosha.konfiguration_lite.type.Kind;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Test for {@link ExtMapSource}
+ */
+public class ExtMapSourceTest {
+
+    private static Map<String, Object> map(final Object... keyValues) {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2)
+            map.put((String) keyValues[i], keyValues[i + 1]);
+        return map;
+    }
+
+    @Test
+    public void testDottedKeysAreMergedIntoParents() {
+        // Dotted before nested, and the other way around.
+        final List<Map<String, Object>> maps = Arrays.asList(
+            map("a.b", 1, "a", map("c", 2.5)),
+            map("a", map("c", 2.5), "a.b", 1),
+            map("a", map("c", 2.5, "b", 1)));
+
+        for (final Map<String, Object> map : maps) {
+            final Source source = new ExtMapSource("map", map);
+            assertEquals(source.long_("a.b"), Long.valueOf(1), map.toString());
+            assertEquals(source.double_("a.c"), Double.valueOf(2.5), map.toString());
+
+            final Map<?, ?> a = source.custom("a", Kind.of(Map.class));
+            assertEquals(a.keySet(), new HashSet<>(Arrays.asList("b", "c")), map.toString());
+            assertEquals(source.keys(), new HashSet<>(Arrays.asList("a.b", "a.c")), map.toString());
+        }
+    }
+
+    @Test
+    public void testNestedMapsAreUnmodifiable() {
+        final Source source = new ExtMapSource("map", map("a.b.c", 1, "a", map("d", 2)));
+
+        final Map<?, ?> a = source.custom("a", Kind.of(Map.class));
+        try {
+            ((Map<?, ?>) a.get("b")).clear();
+            fail("expected failure");
+        }
+        catch (final UnsupportedOperationException e) {
+            // expected
+        }
+        assertEquals(source.int_("a.b.c"), Integer.valueOf(1));
+    }
+
+    @Test
+    public void testDuplicateKeys() {
+        final List<Map<String, Object>> maps = Arrays.asList(
+            map("a.b", 1, "a", map("b", 2)),
+            map("a", map("b", 2), "a.b", 1),
+            map("a", 1, "a.b", 2),
+            map("a.b", 2, "a", 1),
+            map("a.b", 1, "a", map("b", map("c", 2))));
+
+        for (final Map<String, Object> map : maps) {
+            try {
+                new ExtMapSource("map", map);
+                fail("expected failure: " + map);
+            }
+            catch (final KfgSourceException e) {
+                assertTrue(e.getMessage().contains("duplicate key"), e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testListElementsAreWidened() {
+        final Map<String, Object> map = new HashMap<>();
+        map.put("ints", Arrays.asList(1, 2, null));
+        map.put("longs", Arrays.asList(1L, (long) Integer.MAX_VALUE + 1));
+        map.put("floats", Arrays.asList(1.5f, 2.5f));
+        map.put("chars", Arrays.asList("a", "b"));
+        map.put("strings", Arrays.asList("a", "bc"));
+        map.put("set", new HashSet<>(Arrays.asList((byte) 1, (short) 2)));
+        final Source source = new ExtMapSource("map", map);
+
+        assertEquals(source.list("ints", Kind.LONG), Arrays.asList(1L, 2L, null));
+        assertEquals(source.list("ints", Kind.INT), Arrays.asList(1, 2, null));
+        assertEquals(source.list("ints", Kind.DOUBLE), Arrays.asList(1.0, 2.0, null));
+        assertEquals(source.list("longs", Kind.LONG), Arrays.asList(1L, (long) Integer.MAX_VALUE + 1));
+        assertEquals(source.list("floats", Kind.DOUBLE), Arrays.asList(1.5, 2.5));
+        assertEquals(source.list("chars", Kind.CHAR), Arrays.asList('a', 'b'));
+        assertEquals(source.list("strings", Kind.STRING), Arrays.asList("a", "bc"));
+        assertEquals(source.set("set", Kind.INT), new HashSet<>(Arrays.asList(1, 2)));
+        assertEquals(source.set("ints", Kind.LONG), new HashSet<>(Arrays.asList(1L, 2L, null)));
+    }
+
+    @Test
+    public void testListElementsOutOfRange() {
+        final Source source = new ExtMapSource("map", Collections.singletonMap(
+            "big", Arrays.asList(1, 300)));
+
+        assertEquals(source.list("big", Kind.SHORT), Arrays.asList((short) 1, (short) 300));
+        for (final Kind<?> kind : Arrays.asList(Kind.BYTE, Kind.CHAR, Kind.STRING)) {
+            try {
+                source.list("big", kind);
+                fail("expected failure: " + kind);
+            }
+            catch (final KfgTypeException e) {
+                // expected
+            }
+        }
+        try {
+            new ExtMapSource("map", Collections.singletonMap("floats", Arrays.asList(1.5)))
+                .list("floats", Kind.INT);
+            fail("expected failure");
+        }
+        catch (final KfgTypeException e) {
+            // expected
+        }
+    }
+
+}
@@ -0,0 +1,154 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.ext.v8.ExtPropertiesSource;
+import io.koosha.konfiguration_lite.type.Kind;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Test for {@link ExtPropertiesSource}
+ */
+public class ExtPropertiesSourceTest {
+
+    private static Source source() {
+        final Properties properties = new Properties();
+        properties.setProperty("db.port", "5432");
+        properties.setProperty("db.big", "3000000000");
+        properties.setProperty("db.ratio", " 0.5 ");
+        properties.setProperty("db.enabled", "TRUE");
+        properties.setProperty("db.name", "orders");
+        properties.setProperty("db.mode", "x");
+        properties.setProperty("db.hosts", "a, b,c");
+        properties.setProperty("db.ports", "1,2, 300");
+        properties.setProperty("db.none", " ");
+        properties.put("db.ignored", 1);
+        return new ExtPropertiesSource("props", properties);
+    }
+
+    @Test
+    public void testReads() {
+        final Source source = source();
+
+        assertEquals(source.int_("db.port"), Integer.valueOf(5432));
+        assertEquals(source.short_("db.port"), Short.valueOf((short) 5432));
+        assertEquals(source.long_("db.big"), Long.valueOf(3_000_000_000L));
+        assertEquals(source.double_("db.port"), Double.valueOf(5432));
+        assertEquals(source.double_("db.ratio"), Double.valueOf(0.5));
+        assertEquals(source.bool("db.enabled"), Boolean.TRUE);
+        assertEquals(source.string("db.name"), "orders");
+        assertEquals(source.string("db.port"), "5432");
+        assertEquals(source.char_("db.mode"), Character.valueOf('x'));
+        assertEquals(source.custom("db.name", Kind.of(CharSequence.class)), "orders");
+        assertEquals(new SubsetView("db", source, "db").int_("port"), Integer.valueOf(5432));
+        assertEquals(source.keys("db").size(), 9);
+        assertFalse(source.keys().contains("db.ignored"));
+    }
+
+    @Test
+    public void testHas() {
+        final Source source = source();
+
+        assertTrue(source.has("db.port", Kind.INT));
+        assertFalse(source.has("db.port", Kind.BYTE));
+        assertFalse(source.has("db.big", Kind.INT));
+        assertFalse(source.has("db.ratio", Kind.LONG));
+        assertTrue(source.has("db.ratio", Kind.FLOAT));
+        assertFalse(source.has("db.name", Kind.BOOL));
+        assertFalse(source.has("db.name", Kind.CHAR));
+        assertFalse(source.has("db.missing", Kind.STRING));
+        assertFalse(source.has("db.name", Kind.of(Map.class)));
+    }
+
+    @Test
+    public void testOnlyPlainDecimalsAreNumbers() {
+        final Properties properties = new Properties();
+        properties.setProperty("ok.0", "-.5");
+        properties.setProperty("ok.1", "2.");
+        properties.setProperty("ok.2", "+1e3");
+        properties.setProperty("ok.3", "2E-3");
+        properties.setProperty("no.0", "1d");
+        properties.setProperty("no.1", "2f");
+        properties.setProperty("no.2", "0x1p3");
+        properties.setProperty("no.3", "NaN");
+        properties.setProperty("no.4", "-Infinity");
+        properties.setProperty("no.5", "1e");
+        properties.setProperty("no.6", ".");
+        properties.setProperty("no.7", "1.5.");
+        final Source source = new ExtPropertiesSource("props", properties);
+
+        assertEquals(source.double_("ok.0"), Double.valueOf(-0.5));
+        assertEquals(source.double_("ok.1"), Double.valueOf(2));
+        assertEquals(source.double_("ok.2"), Double.valueOf(1000));
+        assertEquals(source.double_("ok.3"), Double.valueOf(0.002));
+        for (int i = 0; i < 8; i++) {
+            final String key = "no." + i;
+            assertFalse(source.has(key, Kind.DOUBLE), key);
+            assertFalse(source.has(key, Kind.FLOAT), key);
+            assertEquals(source.string(key), properties.getProperty(key));
+        }
+    }
+
+    @Test
+    public void testLists() {
+        final Source source = source();
+
+        assertEquals(source.list("db.hosts", Kind.STRING), Arrays.asList("a", "b", "c"));
+        assertEquals(source.list("db.ports", Kind.INT), Arrays.asList(1, 2, 300));
+        assertEquals(source.set("db.ports", Kind.LONG), new HashSet<>(Arrays.asList(1L, 2L, 300L)));
+        assertEquals(source.list("db.none", Kind.INT), Collections.emptyList());
+        assertEquals(source.list("db.port", Kind.INT), Collections.singletonList(5432));
+
+        assertFalse(source.has("db.ports", Kind.BYTE.asList()));
+        assertFalse(source.has("db.hosts", Kind.INT.asList()));
+        try {
+            source.list("db.ports", Kind.BYTE);
+            fail("expected failure");
+        }
+        catch (final KfgMissingKeyException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testEnvironmentMapping() {
+        final Map<String, String> env = new HashMap<>();
+        env.put("DB_POOL_SIZE", "8");
+        env.put("DB_HOST", "upper");
+        env.put("db_host", "lower");
+        env.put("PATH", "/bin");
+        env.put("NOTHING", null);
+        final Source source = new ExtPropertiesSource("env", env, ExtPropertiesSource.ENV_KEY_MAPPING);
+
+        assertEquals(source.int_("db.pool.size"), Integer.valueOf(8));
+        // Both map to db.host, the first one in natural order wins.
+        assertEquals(source.string("db.host"), "upper");
+        assertEquals(source.string("path"), "/bin");
+        assertEquals(source.keys(), new HashSet<>(Arrays.asList("db.pool.size", "db.host", "path")));
+
+        final Source onlyDb = new ExtPropertiesSource("env", env,
+            key -> key.startsWith("DB_") ? ExtPropertiesSource.ENV_KEY_MAPPING.apply(key.substring(3)) : null);
+        assertEquals(onlyDb.keys(), new HashSet<>(Arrays.asList("pool.size", "host")));
+    }
+
+    @Test
+    public void testCopiesItsInput() {
+        final Map<String, String> entries = new HashMap<>();
+        entries.put("a", "1");
+        final Source source = new ExtPropertiesSource("map", entries, key -> key);
+        entries.put("a", "2");
+
+        assertEquals(source.int_("a"), Integer.valueOf(1));
+    }
+
+}
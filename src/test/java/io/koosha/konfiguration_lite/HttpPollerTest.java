@@ -0,0 +1,206 @@
+package io.koosha.konfiguration_lite;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.koosha.konfiguration_lite.ext.v8.ExtJacksonJsonSource;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Test for {@link HttpPoller}, against an in-process http server.
+ */
+public class HttpPollerTest {
+
+    /**
+     * Serves a json document, versioned by an ETag and a Last-Modified date.
+     */
+    private static final class ConfigServer implements AutoCloseable {
+
+        private final HttpServer server;
+
+        volatile String body = "{\"a\": 1}";
+        volatile int version = 1;
+        volatile int status = 200;
+        volatile boolean etags = true;
+
+        final AtomicInteger ok = new AtomicInteger();
+        final AtomicInteger notModified = new AtomicInteger();
+        final Set<InetSocketAddress> clients = ConcurrentHashMap.newKeySet();
+
+        ConfigServer() throws IOException {
+            this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            this.server.createContext("/config", this::handle);
+            this.server.start();
+        }
+
+        URL url() throws IOException {
+            return new URL("http://127.0.0.1:" + this.server.getAddress().getPort() + "/config");
+        }
+
+        private String lastModified() {
+            return "Sat, 0" + this.version + " Jan 2000 00:00:00 GMT";
+        }
+
+        private void handle(final HttpExchange exchange) throws IOException {
+            final String etag = '"' + "v" + this.version + '"';
+            final boolean unchanged = this.etags
+                ? etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))
+                : this.lastModified().equals(exchange.getRequestHeaders().getFirst("If-Modified-Since"));
+
+            this.clients.add(exchange.getRemoteAddress());
+            if (this.status != 200) {
+                final byte[] bytes = "error".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(this.status, bytes.length);
+                try (final OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+            else if (unchanged) {
+                this.notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+            }
+            else {
+                this.ok.incrementAndGet();
+                if (this.etags)
+                    exchange.getResponseHeaders().set("ETag", etag);
+                else
+                    exchange.getResponseHeaders().set("Last-Modified", this.lastModified());
+                final byte[] bytes = this.body.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (final OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+            exchange.close();
+        }
+
+        void change(final String body) {
+            this.body = body;
+            this.version++;
+        }
+
+        @Override
+        public void close() {
+            this.server.stop(0);
+        }
+
+    }
+
+    private static Function<String, Source> counting(final AtomicInteger parsed) {
+        return json -> {
+            parsed.incrementAndGet();
+            return new ExtJacksonJsonSource("http", json);
+        };
+    }
+
+    @Test
+    public void testUnchangedPollIsNotParsed() throws IOException {
+        for (final boolean etags : new boolean[]{true, false})
+            try (final ConfigServer server = new ConfigServer()) {
+                server.etags = etags;
+                final AtomicInteger parsed = new AtomicInteger();
+                final HttpPoller poller = new HttpPoller("http", server.url(), counting(parsed));
+                final Konfiguration first = poller.konfiguration().current();
+                assertEquals(poller.konfiguration().int_("a"), Integer.valueOf(1));
+
+                assertFalse(poller.poll());
+                assertFalse(poller.poll());
+                assertSame(poller.konfiguration().current(), first);
+                assertEquals(parsed.get(), 1);
+                assertEquals(server.ok.get(), 1);
+                assertEquals(server.notModified.get(), 2);
+
+                server.change("{\"a\": 2}");
+                assertTrue(poller.poll());
+                assertEquals(poller.konfiguration().int_("a"), Integer.valueOf(2));
+                assertFalse(poller.poll());
+                assertEquals(parsed.get(), 2);
+            }
+    }
+
+    @Test
+    public void testFailedPollKeepsLastGood() throws IOException {
+        try (final ConfigServer server = new ConfigServer()) {
+            final HttpPoller poller = new HttpPoller("http", server.url(), counting(new AtomicInteger()));
+            final Konfiguration good = poller.konfiguration().current();
+
+            server.status = 500;
+            assertFalse(poller.poll());
+            assertNotNull(poller.lastFailure());
+            assertSame(poller.konfiguration().current(), good);
+
+            server.status = 200;
+            server.change("{\"a\": ");
+            assertFalse(poller.poll());
+            assertNotNull(poller.lastFailure());
+            assertEquals(poller.konfiguration().int_("a"), Integer.valueOf(1));
+
+            // The broken version is fetched again, not taken as unchanged.
+            server.body = "{\"a\": 3}";
+            assertTrue(poller.poll());
+            assertNull(poller.lastFailure());
+            assertEquals(poller.konfiguration().int_("a"), Integer.valueOf(3));
+        }
+    }
+
+    @Test
+    public void testConnectionIsKeptAlive() throws IOException {
+        try (final ConfigServer server = new ConfigServer()) {
+            final HttpPoller poller = new HttpPoller("http", server.url(), counting(new AtomicInteger()));
+
+            // Every response has a body: the in-process server closes the
+            // connection after one without (such as a 304) by itself.
+            server.status = 500;
+            assertFalse(poller.poll());
+            server.status = 200;
+            server.change("{\"a\": 2}");
+            assertTrue(poller.poll());
+            server.change("{\"a\": 3}");
+            assertTrue(poller.poll());
+
+            assertEquals(poller.konfiguration().int_("a"), Integer.valueOf(3));
+            assertEquals(server.ok.get(), 3);
+            assertEquals(server.clients.size(), 1, server.clients.toString());
+        }
+    }
+
+    @Test
+    public void testFallback() throws IOException {
+        final URL url;
+        try (final ConfigServer server = new ConfigServer()) {
+            url = server.url();
+        }
+
+        try {
+            new HttpPoller("http", url, counting(new AtomicInteger()));
+            fail("expected failure");
+        }
+        catch (final KfgSourceException e) {
+            assertEquals(e.source(), "http");
+        }
+
+        final Source fallback = new ExtJacksonJsonSource("local", "{\"a\": 0}");
+        final HttpPoller poller = new HttpPoller("http", url, counting(new AtomicInteger()), fallback);
+        assertSame(poller.konfiguration().current(), fallback);
+        assertNotNull(poller.lastFailure());
+    }
+
+}
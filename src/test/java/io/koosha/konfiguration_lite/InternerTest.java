@@ -0,0 +1,131 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.ext.v8.ExtJacksonJsonSource;
+import io.koosha.konfiguration_lite.ext.v8.ExtYamlSource;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test for {@link Interner}
+ */
+public class InternerTest {
+
+    private static final int TENANTS = 1000;
+
+    private static final List<String> KEYS = Arrays.asList(
+        "tenant.id", "tenant.region", "tenant.tier", "db.driver", "db.pool.mode");
+
+    private static String tenantJson(final int i) {
+        return "{\"tenant\": {\"id\": \"tenant-" + i + "\", \"region\": \"eu-west-" + (i % 3) + "\", \"tier\": \"GOLD\"}," +
+            " \"db\": {\"driver\": \"postgresql\", \"pool\": {\"mode\": \"TRANSACTION\", \"size\": 16}}}";
+    }
+
+    private static String tenantYaml(final int i) {
+        return "tenant:\n  id: tenant-" + i + "\n  region: eu-west-" + (i % 3) + "\n  tier: GOLD\n" +
+            "db:\n  driver: postgresql\n  pool:\n    mode: TRANSACTION\n    size: 16\n";
+    }
+
+    /**
+     * Number of distinct string instances the sources keep for KEYS, a proxy
+     * for their heap footprint which does not depend on the garbage collector.
+     * The sources are all kept alive meanwhile, as the pool only holds on to
+     * what the loaded sources refer to.
+     */
+    private static int retainedStrings(final BiFunction<String, Integer, Source> load) {
+        final List<Source> sources = new ArrayList<>(TENANTS);
+        final Set<Object> retained = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < TENANTS; i++) {
+            final Source source = load.apply("tenant" + i, i);
+            sources.add(source);
+            for (final String key : KEYS)
+                retained.add(source.string(key));
+        }
+        final int count = retained.size();
+        for (int i = 0; i < TENANTS; i++)
+            assertEquals(sources.get(i).string("tenant.id"), "tenant-" + i);
+        return count;
+    }
+
+    @Test
+    public void testInternReturnsPooledInstance() {
+        final Interner interner = new Interner();
+        final String first = new String("eu-west-1".toCharArray());
+        final String second = new String("eu-west-1".toCharArray());
+
+        assertSame(interner.intern(first), first);
+        assertSame(interner.intern(second), first);
+        assertEquals(interner.size(), 1);
+    }
+
+    @Test
+    public void testInternKeepsClass() {
+        final Interner interner = new Interner();
+        assertSame(interner.intern(1L).getClass(), Long.class);
+        assertSame(interner.intern(1).getClass(), Integer.class);
+    }
+
+    @Test
+    public void testInternedJsonTenantsShareValues() {
+        final Interner interner = new Interner();
+        final int plain = retainedStrings((name, i) -> new ExtJacksonJsonSource(name, tenantJson(i)));
+        final int interned = retainedStrings((name, i) -> ExtJacksonJsonSource.interned(name, tenantJson(i), interner));
+
+        assertEquals(plain, TENANTS * KEYS.size());
+        // Unique ids, 3 regions, and one of each of the rest.
+        assertEquals(interned, TENANTS + 3 + 3);
+        assertTrue(interned * 4 < plain);
+    }
+
+    @Test
+    public void testInternedYamlTenantsShareValues() {
+        final Interner interner = new Interner();
+        final int plain = retainedStrings((name, i) -> new ExtYamlSource(name, tenantYaml(i)));
+        final int interned = retainedStrings((name, i) -> ExtYamlSource.interned(name, tenantYaml(i), interner));
+
+        assertEquals(plain, TENANTS * KEYS.size());
+        assertEquals(interned, TENANTS + 3 + 3);
+        assertTrue(interned * 4 < plain);
+    }
+
+    @Test
+    public void testInternedKeysArePooled() {
+        final List<BiFunction<String, Interner, Source>> loads = Arrays.asList(
+            (name, interner) -> ExtYamlSource.interned(name, tenantYaml(0), interner),
+            (name, interner) -> ExtJacksonJsonSource.interned(name, tenantJson(0), interner));
+
+        for (final BiFunction<String, Interner, Source> load : loads) {
+            final Interner interner = new Interner();
+            final Source source = load.apply("tenant", interner);
+            for (final String key : Arrays.asList("tenant", "driver", "pool", "mode")) {
+                final String probe = new String(key.toCharArray());
+                assertNotSame(interner.intern(probe), probe, key);
+            }
+            assertEquals(source.int_("db.pool.size"), Integer.valueOf(16));
+        }
+    }
+
+    @Test
+    public void testInternedSourceReadsTheSame() {
+        final Source json = ExtJacksonJsonSource.interned("json", tenantJson(7), new Interner());
+        final Source yaml = ExtYamlSource.interned("yaml", tenantYaml(7), new Interner());
+
+        for (final Source source : Arrays.asList(json, yaml)) {
+            assertEquals(source.string("tenant.id"), "tenant-7");
+            assertEquals(source.string("tenant.region"), "eu-west-1");
+            assertEquals(source.int_("db.pool.size"), Integer.valueOf(16));
+        }
+    }
+
+}
@@ -0,0 +1,161 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.ext.v8.ExtJacksonJsonSource;
+import io.koosha.konfiguration_lite.type.Kind;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test for {@link InterpolatingView}
+ */
+public class InterpolatingViewTest {
+
+    private static final Function<String, String> ENV =
+        Collections.singletonMap("REGION", "eu-west-1")::get;
+
+    private static InterpolatingView view(final String json) {
+        return new InterpolatingView(new ExtJacksonJsonSource("json", json), ENV);
+    }
+
+    @Test
+    public void testReferencesAreResolved() {
+        final InterpolatingView view = view("{" +
+            "\"host\": \"db.${REGION}.local\"," +
+            " \"port\": 5432," +
+            " \"url\": \"jdbc://${host}:${port}/${name:orders}\"," +
+            " \"plain\": \"no refs\"" +
+            "}");
+
+        assertEquals(view.string("host"), "db.eu-west-1.local");
+        assertEquals(view.string("url"), "jdbc://db.eu-west-1.local:5432/orders");
+        assertEquals(view.custom("url", Kind.STRING), "jdbc://db.eu-west-1.local:5432/orders");
+        assertEquals(view.string("plain"), "no refs");
+        assertEquals(view.int_("port"), Integer.valueOf(5432));
+    }
+
+    @Test
+    public void testKeyIsPreferredOverEnvironmentAndDefault() {
+        final InterpolatingView view = view("{\"REGION\": \"local\", \"a\": \"${REGION:def}\"}");
+        assertEquals(view.string("a"), "local");
+    }
+
+    @Test
+    public void testSubsetIsResolved() {
+        final InterpolatingView view = view("{\"db\": {\"url\": \"${db.host}\", \"host\": \"h\"}}");
+        assertEquals(view.subset("db").string("url"), "h");
+    }
+
+    @Test
+    public void testCycleThrowsException() {
+        try {
+            view("{\"a\": \"${b}\", \"b\": \"${c}\", \"c\": \"${a}\"}");
+            throw new AssertionError("expected exception");
+        }
+        catch (final KfgSourceException e) {
+            assertTrue(e.getMessage().contains("a -> b -> c -> a"), e.getMessage());
+        }
+    }
+
+    @Test(expectedExceptions = KfgMissingKeyException.class)
+    public void testUnresolvedReferenceThrowsException() {
+        view("{\"a\": \"${nope}\"}");
+    }
+
+    @Test
+    public void testReloadRecomputesOnlyDownstreamValues() {
+        final InterpolatingView first = view("{" +
+            "\"host\": \"h1\", \"a\": \"${host}/a\", \"b\": \"${a}/b\"," +
+            " \"other\": \"x\", \"c\": \"${other}/c\"" +
+            "}");
+        final InterpolatingView second = first.withBase(new ExtJacksonJsonSource("json", "{" +
+            "\"host\": \"h2\", \"a\": \"${host}/a\", \"b\": \"${a}/b\"," +
+            " \"other\": \"x\", \"c\": \"${other}/c\"" +
+            "}"));
+
+        assertEquals(second.string("b"), "h2/a/b");
+        assertNotSame(second.string("a"), first.string("a"));
+        assertNotSame(second.string("b"), first.string("b"));
+        assertSame(second.string("c"), first.string("c"));
+    }
+
+    @Test
+    public void testReloadReadsOnlyChangedKeys() {
+        final String json = "{\"host\": \"h1\", \"a\": \"${host}/a\", \"b\": \"${a}/b\"," +
+            " \"other\": \"x\", \"c\": \"${other}/c\"}";
+        final InterpolatingView first = view(json);
+        final TrackingView base = new TrackingView(new ExtJacksonJsonSource("json", json.replace("h1", "h2")));
+        final InterpolatingView second = first.withBase(base, Collections.singleton("host"));
+
+        assertEquals(base.unused(), new TreeSet<>(Arrays.asList("a", "b", "c", "other")));
+        assertEquals(second.string("b"), "h2/a/b");
+        assertSame(second.string("c"), first.string("c"));
+        assertEquals(second.string("c"), view(json.replace("h1", "h2")).string("c"));
+    }
+
+    @Test
+    public void testLiveViewFollowsSwap() {
+        final ReloadableKonfiguration reloadable = new ReloadableKonfiguration(
+            new ExtJacksonJsonSource("json", "{\"host\": \"h1\", \"url\": \"${host}/x\", \"n\": 1}"));
+        final InterpolatingView view = new InterpolatingView(reloadable, ENV);
+        final Konfiguration subset = view.subset("url");
+        assertEquals(view.string("url"), "h1/x");
+
+        reloadable.swap(new ExtJacksonJsonSource("json", "{\"host\": \"h2\", \"url\": \"${host}/x\", \"n\": 1}"));
+        assertEquals(view.string("url"), "h2/x");
+        assertEquals(view.custom("url", Kind.STRING), "h2/x");
+        assertEquals(view.getAll(Collections.singletonMap("url", Kind.STRING)).get("url", Kind.STRING), "h2/x");
+
+        // Told the changed keys, the rest are not compared.
+        final TrackingView next = new TrackingView(
+            new ExtJacksonJsonSource("json", "{\"host\": \"h3\", \"url\": \"${host}/x\", \"n\": 1}"));
+        reloadable.swap(next, Collections.singleton("host"));
+        assertEquals(view.string("url"), "h3/x");
+        assertTrue(next.unused().contains("n"), next.unused().toString());
+        assertTrue(next.unused().contains("url"), next.unused().toString());
+    }
+
+    @Test
+    public void testSnapshotIsInterpolatedOncePerVersion() {
+        final ReloadableKonfiguration reloadable = new ReloadableKonfiguration(
+            new ExtJacksonJsonSource("json", "{\"host\": \"h1\", \"url\": \"${host}/x\"}"));
+        final InterpolatingView view = new InterpolatingView(reloadable, ENV);
+
+        final Konfiguration first = view.snapshot();
+        assertSame(view.snapshot(), first);
+        assertEquals(first.string("url"), "h1/x");
+
+        reloadable.swap(new ExtJacksonJsonSource("json", "{\"host\": \"h2\", \"url\": \"${host}/x\"}"));
+        final Konfiguration second = view.snapshot();
+        assertNotSame(second, first);
+        assertSame(view.snapshot(), second);
+        assertEquals(second.string("url"), "h2/x");
+        assertEquals(first.string("url"), "h1/x");
+    }
+
+    @Test
+    public void testGetAll() {
+        final InterpolatingView view = view("{\"host\": \"h\", \"port\": 1, \"url\": \"${host}:${port}\"}");
+        final Map<String, Kind<?>> keys = new HashMap<>();
+        keys.put("url", Kind.STRING);
+        keys.put("host", Kind.STRING);
+        keys.put("port", Kind.INT);
+
+        final Batch batch = view.getAll(keys);
+        assertEquals(batch.size(), 3);
+        assertEquals(batch.get("url", Kind.STRING), "h:1");
+        assertEquals(batch.get("host", Kind.STRING), "h");
+        assertEquals(batch.get("port", Kind.INT), Integer.valueOf(1));
+    }
+
+}
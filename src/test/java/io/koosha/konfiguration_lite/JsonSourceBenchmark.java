@@ -0,0 +1,115 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.ext.v8.ExtGsonJsonSource;
+import io.koosha.konfiguration_lite.ext.v8.ExtJacksonJsonSource;
+import io.koosha.konfiguration_lite.type.Kind;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Hand rolled comparison of {@link ExtGsonJsonSource} and
+ * {@link ExtJacksonJsonSource}: load time, and single key reads of a few
+ * kinds. Not a test, run its main method with both libraries on the class
+ * path. Numbers are rough, there is no JMH setup in the build.
+ */
+public final class JsonSourceBenchmark {
+
+    private static final int SECTIONS = 100;
+    private static final int KEYS = 100;
+    private static final int LOADS = 20;
+    private static final int READS = 1_000_000;
+
+    private static volatile long sink;
+
+    private JsonSourceBenchmark() {
+    }
+
+    private static String json() {
+        final StringBuilder json = new StringBuilder("{");
+        for (int s = 0; s < SECTIONS; s++) {
+            json.append(s == 0 ? "" : ", ").append("\"s").append(s).append("\": {");
+            for (int k = 0; k < KEYS; k++)
+                json.append(k == 0 ? "" : ", ")
+                    .append("\"i").append(k).append("\": ").append(k)
+                    .append(", \"t").append(k).append("\": \"v").append(k).append('"')
+                    .append(", \"l").append(k).append("\": [1, 2, 3]");
+            json.append('}');
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * @return median nanoseconds per load.
+     */
+    private static long load(final Function<String, Source> factory,
+                             final String json) {
+        final long[] times = new long[LOADS];
+        for (int i = 0; i < LOADS; i++) {
+            final long start = System.nanoTime();
+            sink += factory.apply(json).hashCode();
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        return times[LOADS / 2];
+    }
+
+    /**
+     * @return nanoseconds per read.
+     */
+    private static double read(final Source source,
+                               final String[] keys,
+                               final char kind) {
+        final long start = System.nanoTime();
+        long sum = 0;
+        for (int i = 0; i < READS; i++) {
+            final String key = keys[i & (keys.length - 1)];
+            switch (kind) {
+                case 'i':
+                    sum += source.int_(key);
+                    break;
+                case 't':
+                    sum += source.string(key).length();
+                    break;
+                default:
+                    sum += source.list(key, Kind.INT).size();
+            }
+        }
+        sink += sum;
+        return (System.nanoTime() - start) / (double) READS;
+    }
+
+    private static String[] keys(final char kind) {
+        final Random random = new Random(0);
+        final String[] keys = new String[1024];
+        for (int i = 0; i < keys.length; i++)
+            keys[i] = "s" + random.nextInt(SECTIONS) + "." + kind + random.nextInt(KEYS);
+        return keys;
+    }
+
+    public static void main(final String... args) {
+        final String json = json();
+        final Source gson = new ExtGsonJsonSource("gson", json);
+        final Source jackson = new ExtJacksonJsonSource("jackson", json);
+
+        for (int round = 0; round < 3; round++) {
+            final boolean report = round == 2;
+            final long gsonLoad = load(j -> new ExtGsonJsonSource("gson", j), json);
+            final long jacksonLoad = load(j -> new ExtJacksonJsonSource("jackson", j), json);
+            if (report)
+                System.out.printf("load (%d keys, %d KB): gson %.2f ms, jackson %.2f ms%n",
+                    SECTIONS * KEYS * 3, json.length() / 1024, gsonLoad / 1e6, jacksonLoad / 1e6);
+
+            for (final char kind : new char[]{'i', 't', 'l'}) {
+                final String[] keys = keys(kind);
+                final double g = read(gson, keys, kind);
+                final double j = read(jackson, keys, kind);
+                if (report)
+                    System.out.printf("read %s: gson %.0f ns, jackson %.0f ns%n",
+                        kind == 'i' ? "int" : kind == 't' ? "string" : "list", g, j);
+            }
+        }
+    }
+
+}
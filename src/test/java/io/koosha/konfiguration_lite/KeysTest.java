@@ -0,0 +1,79 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.ext.v8.ExtJacksonJsonSource;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Test for {@link Konfiguration#keys()} and {@link Konfiguration#keys(String)}
+ * of sources and subset views.
+ */
+public class KeysTest {
+
+    // "a-b" and "a/b" sort right before and after "a.", "ab" after "a/".
+    private static final String JSON = "{" +
+        "\"a\": {\"x\": 1, \"y\": {\"z\": 2}}," +
+        " \"a-b\": 3," +
+        " \"a/b\": 4," +
+        " \"ab\": 5," +
+        " \"b\": {\"c\": 6}" +
+        "}";
+
+    private final Source source = new ExtJacksonJsonSource("json", JSON);
+
+    @Test
+    public void testKeys() {
+        assertEquals(new ArrayList<>(this.source.keys()),
+            Arrays.asList("a-b", "a.x", "a.y.z", "a/b", "ab", "b.c"));
+    }
+
+    @Test
+    public void testPrefixBoundaries() {
+        assertEquals(new ArrayList<>(this.source.keys("a")), Arrays.asList("a.x", "a.y.z"));
+        assertEquals(this.source.keys("a."), this.source.keys("a"));
+        assertEquals(this.source.keys("a.y"), Collections.singleton("a.y.z"));
+        assertEquals(this.source.keys(""), this.source.keys());
+
+        // A leaf has nothing under it, nor has a missing key.
+        assertEquals(this.source.keys("a.x"), Collections.emptySet());
+        assertEquals(this.source.keys("a.y.z"), Collections.emptySet());
+        assertEquals(this.source.keys("missing"), Collections.emptySet());
+        assertEquals(this.source.keys("b.c.d"), Collections.emptySet());
+    }
+
+    @Test
+    public void testKeysAreUnmodifiable() {
+        for (final String prefix : Arrays.asList("", "a")) {
+            try {
+                this.source.keys(prefix).add("a.w");
+                fail("expected failure: " + prefix);
+            }
+            catch (final UnsupportedOperationException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testSubsetKeysAreRelative() {
+        final Konfiguration a = new SubsetView("a", this.source, "a");
+
+        assertEquals(new ArrayList<>(a.keys()), Arrays.asList("x", "y.z"));
+        assertEquals(a.keys("y"), Collections.singleton("y.z"));
+        assertEquals(a.keys("x"), Collections.emptySet());
+        assertTrue(a.keys().contains("y.z"));
+        assertFalse(a.keys().contains("a.y.z"));
+
+        final Konfiguration y = new SubsetView("y", a, "y");
+        assertEquals(y.keys(), Collections.singleton("z"));
+    }
+
+}
@@ -0,0 +1,153 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.ext.v8.ExtJacksonJsonSource;
+import io.koosha.konfiguration_lite.type.Kind;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Test for {@link LazySource}
+ */
+public class LazySourceTest {
+
+    private static final String JSON = "{\"a\": {\"b\": 1}}";
+
+    private static Supplier<Source> counting(final AtomicInteger calls,
+                                             final Supplier<Source> factory) {
+        return () -> {
+            calls.incrementAndGet();
+            return factory.get();
+        };
+    }
+
+    private static KfgSourceException failure(final Source source) {
+        try {
+            source.int_("a.b");
+        }
+        catch (final KfgSourceException e) {
+            assertEquals(e.source(), "lazy");
+            return e;
+        }
+        fail("expected failure");
+        return null;
+    }
+
+    @Test
+    public void testLoadsOnFirstAccess() {
+        final AtomicInteger calls = new AtomicInteger();
+        final LazySource lazy = new LazySource("lazy", counting(calls, () -> new ExtJacksonJsonSource("json", JSON)));
+
+        assertEquals(lazy.name(), "lazy");
+        assertFalse(lazy.isLoaded());
+        assertEquals(calls.get(), 0);
+
+        assertTrue(lazy.has("a.b", Kind.INT));
+        assertEquals(lazy.int_("a.b"), Integer.valueOf(1));
+        assertEquals(new SubsetView("a", lazy, "a").int_("b"), Integer.valueOf(1));
+        assertTrue(lazy.isLoaded());
+        assertEquals(calls.get(), 1);
+    }
+
+    @Test
+    public void testLoadsOnceUnderContention() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final LazySource lazy = new LazySource("lazy", counting(calls, () -> new ExtJacksonJsonSource("json", JSON)));
+
+        final int threads = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<Integer>> reads = new ArrayList<>();
+            for (int i = 0; i < threads; i++)
+                reads.add(executor.submit(() -> {
+                    start.await();
+                    return lazy.int_("a.b");
+                }));
+            start.countDown();
+            for (final Future<Integer> read : reads)
+                assertEquals(read.get(), Integer.valueOf(1));
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        assertEquals(calls.get(), 1);
+    }
+
+    @Test
+    public void testFailureIsKept() {
+        final AtomicInteger calls = new AtomicInteger();
+        final LazySource lazy = new LazySource("lazy", counting(calls, () -> new ExtJacksonJsonSource("json", "{")));
+
+        final KfgSourceException first = failure(lazy);
+        final KfgSourceException second = failure(lazy);
+        assertTrue(first.getCause() instanceof KfgSourceException, String.valueOf(first.getCause()));
+        assertSame(second.getCause(), first.getCause());
+        assertFalse(lazy.isLoaded());
+        assertEquals(calls.get(), 1);
+    }
+
+    @Test
+    public void testNullSourceIsAFailure() {
+        final LazySource lazy = new LazySource("lazy", () -> null);
+
+        assertTrue(failure(lazy).getCause() instanceof NullPointerException);
+        assertTrue(failure(lazy).getCause() instanceof NullPointerException);
+    }
+
+    @Test
+    public void testErrorIsThrownThenKept() {
+        final AtomicInteger calls = new AtomicInteger();
+        final Error error = new AssertionError("boom");
+        final LazySource lazy = new LazySource("lazy", counting(calls, () -> {
+            throw error;
+        }));
+
+        try {
+            lazy.int_("a.b");
+            fail("expected failure");
+        }
+        catch (final AssertionError e) {
+            assertSame(e, error);
+        }
+        assertSame(failure(lazy).getCause(), error);
+        assertSame(failure(lazy).getCause(), error);
+        assertEquals(calls.get(), 1);
+    }
+
+    @Test
+    public void testWarmUp() {
+        final LazySource lazy = new LazySource("lazy", () -> new ExtJacksonJsonSource("json", JSON));
+        final Source loaded = lazy.warmUp(Runnable::run).join();
+        assertTrue(lazy.isLoaded());
+        assertSame(lazy.warmUp().join(), loaded);
+
+        final CompletableFuture<Source> failed = new LazySource("lazy", () -> {
+            throw new IllegalStateException();
+        }).warmUp(Runnable::run);
+        try {
+            failed.join();
+            fail("expected failure");
+        }
+        catch (final CompletionException e) {
+            assertTrue(e.getCause() instanceof KfgSourceException, String.valueOf(e.getCause()));
+            assertTrue(e.getCause().getCause() instanceof IllegalStateException);
+        }
+    }
+
+}
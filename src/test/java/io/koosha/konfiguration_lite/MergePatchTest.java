@@ -0,0 +1,122 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.ext.v8.ExtJacksonJsonSource;
+import io.koosha.konfiguration_lite.ext.v8.ExtYamlSource;
+import io.koosha.konfiguration_lite.type.Kind;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Test for the merge patches and deltas of {@link ExtJacksonJsonSource} and
+ * {@link ExtYamlSource}.
+ */
+public class MergePatchTest {
+
+    private static final String JSON = "{\"a\": \"b\", \"c\": {\"d\": \"e\", \"f\": \"g\"}}";
+    private static final String YAML = "a: b\nc:\n  d: e\n  f: g\n";
+
+    @Test
+    public void testMergePatch() {
+        final Map<Source, Function<String, Source>> sources = new HashMap<>();
+        final ExtJacksonJsonSource json = new ExtJacksonJsonSource("json", JSON);
+        sources.put(json, json::mergePatch);
+        final ExtYamlSource yaml = new ExtYamlSource("yaml", YAML);
+        sources.put(yaml, yaml::mergePatch);
+
+        for (final Map.Entry<Source, Function<String, Source>> each : sources.entrySet()) {
+            // The example of RFC 7386, section 3.
+            final Source patched = each.getValue().apply("{\"a\": \"z\", \"c\": {\"f\": null}, \"h\": {\"i\": 1}}");
+
+            assertEquals(patched.string("a"), "z");
+            assertEquals(patched.string("c.d"), "e");
+            assertFalse(patched.has("c.f", Kind.STRING));
+            assertEquals(patched.int_("h.i"), Integer.valueOf(1));
+
+            final Source original = each.getKey();
+            assertEquals(original.string("a"), "b");
+            assertEquals(original.string("c.f"), "g");
+            assertFalse(original.has("h.i", Kind.INT));
+        }
+    }
+
+    @Test
+    public void testDeltas() {
+        final Map<String, Object> deltas = new LinkedHashMap<>();
+        deltas.put("c.d", 1);
+        deltas.put("c.x.y", Arrays.asList(1, 2));
+        deltas.put("a", null);
+
+        final Source json = new ExtJacksonJsonSource("json", JSON).withDeltas(deltas);
+        final Source yaml = new ExtYamlSource("yaml", YAML).withDeltas(deltas);
+        for (final Source patched : Arrays.asList(json, yaml)) {
+            assertEquals(patched.int_("c.d"), Integer.valueOf(1));
+            assertEquals(patched.string("c.f"), "g");
+            assertEquals(patched.list("c.x.y", Kind.INT), Arrays.asList(1, 2));
+            assertFalse(patched.has("a", Kind.STRING));
+        }
+    }
+
+    @Test
+    public void testKeysFollowPatches() {
+        final String[] patches = {
+            "{\"a\": {\"x\": 1}, \"c\": {\"d\": null}}",
+            "{\"c\": 2, \"e\": {}}",
+            "{\"a\": {\"x\": null}, \"e\": {\"f\": {\"g\": 3}}, \"missing\": null}",
+            "{\"e\": null, \"h\": {\"i\": {}}}",
+        };
+
+        final ExtJacksonJsonSource json = new ExtJacksonJsonSource("json", JSON);
+        final ExtYamlSource yaml = new ExtYamlSource("yaml", YAML);
+        for (final boolean indexed : new boolean[]{true, false}) {
+            // Patched from the index of the original, or from the chained
+            // patches if it is not built yet.
+            Source j = indexed ? json : new ExtJacksonJsonSource("json", JSON);
+            Source y = indexed ? yaml : new ExtYamlSource("yaml", YAML);
+            if (indexed) {
+                assertEquals(j.keys(), new TreeSet<>(Arrays.asList("a", "c.d", "c.f")));
+                assertEquals(y.keys(), j.keys());
+            }
+
+            for (final String patch : patches) {
+                j = ((ExtJacksonJsonSource) j).mergePatch(patch);
+                y = ((ExtYamlSource) y).mergePatch(patch);
+            }
+            assertEquals(j.keys(), new TreeSet<>(j.keys0()), "indexed=" + indexed);
+            assertEquals(y.keys(), new TreeSet<>(y.keys0()), "indexed=" + indexed);
+            assertEquals(j.keys(), new TreeSet<>(Arrays.asList("a", "c", "h.i")));
+            assertEquals(y.keys(), j.keys());
+            assertEquals(j.keys("h"), Collections.singleton("h.i"));
+        }
+    }
+
+    @Test
+    public void testConflictingDeltas() {
+        final ExtJacksonJsonSource json = new ExtJacksonJsonSource("json", JSON);
+        for (final String[] keys : new String[][]{{"c", "c.d"}, {"c.d", "c"}, {"c..d"}, {".c"}}) {
+            final Map<String, Object> deltas = new LinkedHashMap<>();
+            for (final String key : keys)
+                deltas.put(key, 1);
+            try {
+                json.withDeltas(deltas);
+                fail("expected failure: " + Arrays.toString(keys));
+            }
+            catch (final KfgIllegalArgumentException e) {
+                assertTrue(e.getMessage().contains("conflicting") || e.getMessage().contains("malformed"),
+                    e.getMessage());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.ext.v8.ExtJacksonJsonSource;
+import io.koosha.konfiguration_lite.type.Kind;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test for {@link OverlaySource} and its {@link Hamt}.
+ */
+public class OverlaySourceTest {
+
+    private static Source base() {
+        return new ExtJacksonJsonSource("base",
+            "{\"limits\": {\"rps\": 100, \"burst\": 10}, \"features\": {\"beta\": true}, \"region\": \"eu\"}");
+    }
+
+    @Test
+    public void testOverrides() {
+        final Source base = base();
+        final OverlaySource acme = new OverlaySource("acme", base)
+            .with("limits.rps", 500)
+            .with("limits.ratio", 0.5)
+            .with("region", null)
+            .with("hosts", Arrays.asList("a", "b"))
+            .without("features.beta");
+
+        assertEquals(acme.int_("limits.rps"), Integer.valueOf(500));
+        assertEquals(acme.long_("limits.rps"), Long.valueOf(500));
+        assertEquals(acme.int_("limits.burst"), Integer.valueOf(10));
+        assertEquals(acme.double_("limits.ratio"), Double.valueOf(0.5));
+        assertFalse(acme.has("limits.ratio", Kind.INT));
+        assertNull(acme.string("region"));
+        assertEquals(acme.list("hosts", Kind.STRING), Arrays.asList("a", "b"));
+        assertFalse(acme.has("features.beta", Kind.BOOL));
+        assertEquals(acme.bool("features.beta", false), Boolean.FALSE);
+        assertEquals(acme.overrides(), 5);
+        assertEquals(acme.keys(), new HashSet<>(Arrays.asList(
+            "limits.rps", "limits.burst", "limits.ratio", "region", "hosts")));
+        assertEquals(new SubsetView("acme", acme, "limits").int_("rps"), Integer.valueOf(500));
+
+        assertEquals(base.int_("limits.rps"), Integer.valueOf(100));
+        assertEquals(base.string("region"), "eu");
+        assertTrue(base.bool("features.beta"));
+    }
+
+    @Test
+    public void testVariantsShareBase() {
+        final Source base = base();
+        final OverlaySource shared = new OverlaySource("tenants", base).with("limits.burst", 20);
+
+        final List<OverlaySource> tenants = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++)
+            tenants.add(shared.with("limits.rps", i));
+
+        for (int i = 0; i < tenants.size(); i++) {
+            final OverlaySource tenant = tenants.get(i);
+            assertSame(tenant.base(), base);
+            assertEquals(tenant.int_("limits.rps"), Integer.valueOf(i));
+            assertEquals(tenant.int_("limits.burst"), Integer.valueOf(20));
+            assertEquals(tenant.string("region"), "eu");
+        }
+        assertEquals(shared.int_("limits.rps"), Integer.valueOf(100));
+
+        // Stacked overlays.
+        final OverlaySource stacked = new OverlaySource("stacked", tenants.get(7)).with("region", "us");
+        assertEquals(stacked.int_("limits.rps"), Integer.valueOf(7));
+        assertEquals(stacked.string("region"), "us");
+    }
+
+    @Test
+    public void testHamt() {
+        final Random random = new Random(0);
+        final Map<String, Integer> expected = new HashMap<>();
+        Hamt<Integer> hamt = Hamt.empty();
+        for (int i = 0; i < 100_000; i++) {
+            final String key = "k" + random.nextInt(50_000);
+            expected.put(key, i);
+            hamt = hamt.put(key, i);
+        }
+        // Same hash codes: "Aa" and "BB", and their concatenations.
+        for (final String key : Arrays.asList("AaAa", "AaBB", "BBAa", "BBBB")) {
+            expected.put(key, key.length());
+            hamt = hamt.put(key, key.length());
+        }
+        final Hamt<Integer> before = hamt;
+        hamt = hamt.put("AaBB", -1);
+
+        assertEquals(hamt.size(), expected.size());
+        for (final Map.Entry<String, Integer> entry : expected.entrySet())
+            assertEquals(before.get(entry.getKey()), entry.getValue());
+        assertEquals(hamt.get("AaBB"), Integer.valueOf(-1));
+        assertEquals(hamt.get("BBBB"), Integer.valueOf(4));
+        assertNull(hamt.get("missing"));
+
+        final Map<String, Integer> iterated = new HashMap<>();
+        before.forEach(iterated::put);
+        assertEquals(iterated, expected);
+    }
+
+}
@@ -0,0 +1,88 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.ext.v8.ExtJacksonJsonSource;
+import org.testng.annotations.Test;
+
+import java.lang.ref.WeakReference;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+/**
+ * Test for {@link ReloadableKonfiguration}
+ */
+public class ReloadableKonfigurationTest {
+
+    private static Source version(final String host, final int port) {
+        return new ExtJacksonJsonSource("json",
+            "{\"db\": {\"host\": \"" + host + "\", \"port\": " + port + "}}");
+    }
+
+    @Test
+    public void testReadsFollowSwap() {
+        final ReloadableKonfiguration k = new ReloadableKonfiguration(version("a", 1));
+        final Konfiguration db = k.subset("db");
+
+        k.swap(version("b", 2));
+
+        assertEquals(k.string("db.host"), "b");
+        assertEquals(db.int_("port"), Integer.valueOf(2));
+    }
+
+    @Test
+    public void testSnapshotIsPinned() {
+        final Source v1 = version("a", 1);
+        final ReloadableKonfiguration k = new ReloadableKonfiguration(v1);
+        final Konfiguration snapshot = k.snapshot();
+        final Konfiguration db = snapshot.subset("db");
+
+        assertSame(k.swap(version("b", 2)), v1);
+
+        assertEquals(snapshot.string("db.host"), "a");
+        assertEquals(db.string("host"), "a");
+        assertEquals(db.int_("port"), Integer.valueOf(1));
+    }
+
+    @Test
+    public void testSnapshotOfLiveSubsetIsPinned() {
+        final ReloadableKonfiguration k = new ReloadableKonfiguration(version("a", 1));
+        final Konfiguration db = k.subset("db").snapshot();
+        final Konfiguration tracked = new TrackingView(k).snapshot();
+
+        k.swap(version("b", 2));
+
+        assertEquals(db.string("host"), "a");
+        assertEquals(tracked.string("db.host"), "a");
+    }
+
+    @Test
+    public void testSnapshotIsKeptPerVersion() {
+        final ReloadableKonfiguration k = new ReloadableKonfiguration(version("a", 1));
+        final Konfiguration first = k.snapshot();
+        assertSame(k.snapshot(), first);
+
+        k.swap(version("b", 2));
+        final Konfiguration second = k.snapshot();
+        assertNotSame(second, first);
+        assertSame(k.snapshot(), second);
+        assertEquals(second.string("db.host"), "b");
+    }
+
+    @Test
+    public void testUnpinnedVersionIsCollected() throws InterruptedException {
+        final ReloadableKonfiguration k = new ReloadableKonfiguration(version("a", 1));
+        final WeakReference<Konfiguration> old = new WeakReference<>(k.current());
+        k.snapshot();
+
+        k.swap(version("b", 2));
+
+        for (int i = 0; i < 50 && old.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(old.get());
+    }
+
+}
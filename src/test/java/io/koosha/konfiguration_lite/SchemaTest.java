@@ -0,0 +1,158 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.ext.v8.ExtJacksonJsonSource;
+import io.koosha.konfiguration_lite.ext.v8.ExtPropertiesSource;
+import io.koosha.konfiguration_lite.type.Kind;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+/**
+ * Test for {@link Schema}
+ */
+public class SchemaTest {
+
+    private static final String JSON = "{" +
+        "\"db\": {\"port\": 5432, \"name\": \"orders\", \"pool\": null}," +
+        " \"limits\": [10, 20, 30]," +
+        " \"other\": true" +
+        "}";
+
+    private static final Schema SCHEMA = Schema.empty()
+        .with("db.port", Kind.INT)
+        .withRange("db.port", 1, 65535)
+        .with("db.name", Kind.STRING)
+        .withPattern("db.name", "[a-z_]+")
+        .withOptional("db.pool", Kind.INT)
+        .withOptional("db.user", Kind.STRING)
+        .with("limits", Kind.INT.asList())
+        .withRange("limits", 1, 5);
+
+    private final Source source = new ExtJacksonJsonSource("json", JSON);
+
+    @Test
+    public void testValidSource() {
+        final Source validated = SCHEMA.validate(this.source);
+
+        assertEquals(validated.name(), "json");
+        assertEquals(validated.int_("db.port"), Integer.valueOf(5432));
+        assertEquals(validated.long_("db.port"), Long.valueOf(5432));
+        assertEquals(validated.string("db.name"), "orders");
+        assertNull(validated.int_("db.pool"));
+        assertFalse(validated.has("db.user", Kind.STRING));
+        assertEquals(validated.list("limits", Kind.INT), Arrays.asList(10, 20, 30));
+        assertEquals(validated.string("db.user", "def"), "def");
+    }
+
+    @Test
+    public void testUndeclaredKeysAreReadFromSource() {
+        assertEquals(SCHEMA.validate(this.source).bool("other"), Boolean.TRUE);
+    }
+
+    @Test
+    public void testDeclaredValuesAreSnapshot() {
+        final Source validated = SCHEMA.validate(this.source);
+        final List<Integer> limits = validated.list("limits", Kind.INT);
+        assertSame(validated.list("limits", Kind.INT), limits);
+    }
+
+    @Test
+    public void testDeclaredKeyReadAsAnotherKind() {
+        final Properties properties = new Properties();
+        properties.setProperty("db.port", "5432");
+        properties.setProperty("db.debug", "true");
+        final Source validated = Schema.empty()
+            .with("db.port", Kind.INT)
+            .with("db.debug", Kind.STRING)
+            .validate(new ExtPropertiesSource("props", properties));
+
+        assertEquals(validated.int_("db.port"), Integer.valueOf(5432));
+        assertEquals(validated.string("db.port"), "5432");
+        assertEquals(validated.string("db.debug"), "true");
+        assertEquals(validated.bool("db.debug"), Boolean.TRUE);
+    }
+
+    @Test(expectedExceptions = KfgMissingKeyException.class)
+    public void testMissingRequiredKeyThrowsException() {
+        Schema.empty()
+              .with("db.missing", Kind.INT)
+              .validate(this.source);
+    }
+
+    @Test(expectedExceptions = KfgTypeException.class)
+    public void testWrongKindThrowsException() {
+        Schema.empty()
+              .with("db.name", Kind.INT)
+              .validate(this.source);
+    }
+
+    @Test(expectedExceptions = KfgTypeException.class)
+    public void testOptionalKeyOfWrongKindThrowsException() {
+        Schema.empty()
+              .withOptional("p", Kind.INT)
+              .validate(new ExtJacksonJsonSource("json", "{\"p\": \"abc\"}"));
+    }
+
+    @Test
+    public void testFloatReadAsDouble() {
+        final Source validated = Schema.empty()
+                                       .with("ratio", Kind.FLOAT)
+                                       .with("scale", Kind.DOUBLE)
+                                       .validate(new ExtJacksonJsonSource("json", "{\"ratio\": 0.1, \"scale\": 0.1}"));
+
+        assertEquals(validated.float_("ratio"), Float.valueOf(0.1F));
+        assertEquals(validated.double_("ratio"), Double.valueOf(0.1));
+        assertEquals(validated.double_("scale"), Double.valueOf(0.1));
+        assertEquals(validated.float_("scale"), Float.valueOf(0.1F));
+    }
+
+    @Test(expectedExceptions = KfgTypeException.class)
+    public void testOutOfRangeThrowsException() {
+        Schema.empty()
+              .with("db.port", Kind.INT)
+              .withRange("db.port", 1, 1024)
+              .validate(this.source);
+    }
+
+    @Test(expectedExceptions = KfgTypeException.class)
+    public void testPatternMismatchThrowsException() {
+        Schema.empty()
+              .with("db.name", Kind.STRING)
+              .withPattern("db.name", "[0-9]+")
+              .validate(this.source);
+    }
+
+    @Test
+    public void testAllErrorsAreReported() {
+        try {
+            Schema.empty()
+                  .with("a", Kind.INT)
+                  .with("b", Kind.INT)
+                  .with("db.port", Kind.INT)
+                  .withRange("db.port", 1, 2)
+                  .validate(this.source);
+            throw new AssertionError("expected exception");
+        }
+        catch (final KfgMissingKeyException e) {
+            assertEquals(e.getSuppressed().length, 2);
+        }
+    }
+
+    @Test(expectedExceptions = KfgIllegalArgumentException.class)
+    public void testConstraintOnUndeclaredKeyThrowsException() {
+        Schema.empty().withRange("a", 1, 2);
+    }
+
+    @Test(expectedExceptions = KfgIllegalArgumentException.class)
+    public void testDuplicateKeyThrowsException() {
+        Schema.empty().with("a", Kind.INT).withOptional("a", Kind.INT);
+    }
+
+}
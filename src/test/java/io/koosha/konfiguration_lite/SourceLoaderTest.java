@@ -0,0 +1,199 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.ext.v8.ExtJacksonJsonSource;
+import io.koosha.konfiguration_lite.ext.v8.ExtYamlSource;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Test for {@link SourceLoader}
+ */
+public class SourceLoaderTest {
+
+    private final Executor executor = ForkJoinPool.commonPool();
+
+    private static KfgSourceException failure(final CompletableFuture<Source> future) throws InterruptedException {
+        try {
+            future.get();
+        }
+        catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof KfgSourceException, String.valueOf(e.getCause()));
+            return (KfgSourceException) e.getCause();
+        }
+        fail("expected failure");
+        return null;
+    }
+
+    @Test
+    public void testAsyncFromPathAndStream() throws Exception {
+        final Path json = Files.createTempFile("kfg", ".json");
+        try {
+            Files.write(json, "{\"a\": {\"b\": 1}}".getBytes(StandardCharsets.UTF_8));
+            final Source fromPath = ExtJacksonJsonSource.async("json", json, this.executor).get();
+            assertEquals(fromPath.int_("a.b"), Integer.valueOf(1));
+        }
+        finally {
+            Files.delete(json);
+        }
+
+        final InputStream yaml = new ByteArrayInputStream("a:\n  b: 2\n".getBytes(StandardCharsets.UTF_8));
+        final Source fromStream = ExtYamlSource.async("yaml", yaml, this.executor).get();
+        assertEquals(fromStream.int_("a.b"), Integer.valueOf(2));
+    }
+
+    @Test
+    public void testErrorsAreSourceExceptions() throws Exception {
+        final InputStream invalid = new ByteArrayInputStream("{\"a\": ".getBytes(StandardCharsets.UTF_8));
+        assertEquals(failure(ExtJacksonJsonSource.async("bad", invalid, this.executor)).source(), "bad");
+
+        final Path missing = Files.createTempDirectory("kfg").resolve("missing.json");
+        assertTrue(failure(ExtJacksonJsonSource.async("missing", missing, this.executor)).getCause()
+            instanceof NoSuchFileException);
+
+        final CompletableFuture<Source> rejected = ExtJacksonJsonSource.async("rejected", missing, command -> {
+            throw new RejectedExecutionException();
+        });
+        assertTrue(failure(rejected).getCause() instanceof RejectedExecutionException);
+    }
+
+    @Test
+    public void testRejectedLoadClosesStream() throws Exception {
+        final AtomicBoolean closed = new AtomicBoolean();
+        final InputStream input = new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+
+        final CompletableFuture<Source> rejected = SourceLoader.async("rejected", input,
+            content -> new ExtJacksonJsonSource("rejected", content), command -> {
+                throw new RejectedExecutionException();
+            });
+        assertTrue(failure(rejected).getCause() instanceof RejectedExecutionException);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void testCancelStopsReading() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch closed = new CountDownLatch(1);
+        final InputStream endless = new InputStream() {
+            @Override
+            public int read() {
+                return ' ';
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) {
+                started.countDown();
+                Arrays.fill(b, off, off + len, (byte) ' ');
+                return len;
+            }
+
+            @Override
+            public void close() {
+                closed.countDown();
+            }
+        };
+        final AtomicBoolean parsed = new AtomicBoolean();
+
+        final CompletableFuture<Source> future = SourceLoader.async("endless", endless, content -> {
+            parsed.set(true);
+            return new ExtJacksonJsonSource("endless", content);
+        }, this.executor);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(future.cancel(true));
+
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+        assertFalse(parsed.get());
+    }
+
+    @Test
+    public void testLoadAll() {
+        final List<Source> loaded = SourceLoader.loadAll(Arrays.asList(
+            () -> new ExtJacksonJsonSource("first", "{\"a\": 1}"),
+            () -> new ExtYamlSource("second", "a: 2\n")));
+
+        assertEquals(loaded.size(), 2);
+        assertEquals(loaded.get(0).int_("a"), Integer.valueOf(1));
+        assertEquals(loaded.get(1).int_("a"), Integer.valueOf(2));
+        try {
+            loaded.clear();
+            fail("expected failure");
+        }
+        catch (final UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testLoadAllReportsAllFailures() {
+        final AtomicInteger ran = new AtomicInteger();
+        final Error error = new AssertionError("boom");
+        final List<Supplier<Source>> sources = Arrays.asList(
+            () -> {
+                ran.incrementAndGet();
+                return new ExtJacksonJsonSource("good", "{}");
+            },
+            () -> {
+                ran.incrementAndGet();
+                return new ExtJacksonJsonSource("bad", "{");
+            },
+            () -> {
+                ran.incrementAndGet();
+                return null;
+            },
+            () -> {
+                ran.incrementAndGet();
+                throw error;
+            },
+            () -> {
+                ran.incrementAndGet();
+                return new ExtYamlSource("good", "a: 1\n");
+            });
+
+        // Run inline as well, so that a failure can not keep the rest from
+        // running.
+        for (final Executor executor : Arrays.asList(this.executor, (Executor) Runnable::run)) {
+            ran.set(0);
+            try {
+                SourceLoader.loadAll(sources, executor);
+                fail("expected failure");
+            }
+            catch (final KfgSourceException e) {
+                assertEquals(ran.get(), 5);
+                assertTrue(e.getMessage().contains("[#1(bad), #2, #3]"), e.getMessage());
+                assertTrue(e.getCause() instanceof KfgSourceException, String.valueOf(e.getCause()));
+                assertEquals(((KfgSourceException) e.getCause()).source(), "bad");
+                assertEquals(e.getSuppressed().length, 2);
+                assertTrue(e.getSuppressed()[0] instanceof NullPointerException, String.valueOf(e.getSuppressed()[0]));
+                assertTrue(e.getSuppressed()[1] == error, String.valueOf(e.getSuppressed()[1]));
+            }
+        }
+    }
+
+}
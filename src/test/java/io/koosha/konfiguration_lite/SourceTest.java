@@ -1,5 +1,8 @@
 package io.koosha.konfiguration_lite;
 
+import io.koosha.konfiguration_lite.ext.v8.ExtGsonJsonSource;
+import io.koosha.konfiguration_lite.ext.v8.ExtJacksonJsonSource;
+import io.koosha.konfiguration_lite.ext.v8.ExtYamlSource;
 import io.koosha.konfiguration_lite.type.Kind;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -7,11 +10,15 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
 
 /**
  * Test for {@link Source}
@@ -481,6 +488,42 @@ public class SourceTest {
         this.source.int_("double:" + Double.MIN_VALUE);
     }
 
+    @Test
+    public void testFloatNegativeValue() {
+        final long value0 = -9L;
+        final Float value = -9F;
+        assertEquals(this.source.float_("byte:" + value0), value);
+        assertEquals(this.source.float_("short:" + value0), value);
+        assertEquals(this.source.float_("int:" + value0), value);
+        assertEquals(this.source.float_("long:" + value0), value);
+        assertEquals(this.source.float_("float:" + value0), value);
+        assertEquals(this.source.float_("double:" + value0), value);
+
+        final Float min = -Float.MAX_VALUE;
+        assertEquals(this.source.float_("float:" + min), min);
+        assertEquals(this.source.float_("double:" + min), min);
+
+        final Float tiny = -Float.MIN_VALUE;
+        assertEquals(this.source.float_("float:" + tiny), tiny);
+    }
+
+    @Test
+    public void testFloatNonFiniteValue() {
+        assertEquals(this.source.float_("double:" + Double.NEGATIVE_INFINITY), (Float) Float.NEGATIVE_INFINITY);
+        assertEquals(this.source.float_("float:" + Float.POSITIVE_INFINITY), (Float) Float.POSITIVE_INFINITY);
+        assertEquals(this.source.float_("double:NaN"), (Float) Float.NaN);
+    }
+
+    @Test(expectedExceptions = KfgTypeException.class)
+    public void testFloatBadValue2ThrowsException() {
+        this.source.float_("double:" + Double.MAX_VALUE);
+    }
+
+    @Test(expectedExceptions = KfgTypeException.class)
+    public void testFloatBadValue3ThrowsException() {
+        this.source.float_("double:" + -Double.MAX_VALUE);
+    }
+
     @Test
     public void testFloatNullValue() {
         assertNull(this.source.int_(NULL));
@@ -491,6 +534,73 @@ public class SourceTest {
         this.source.int_(MISSING);
     }
 
+    // --------------------------------- DOUBLE
+
+    @Test
+    public void testDoubleValue() {
+        final long value0 = -9L;
+        final Double value = -9D;
+        assertEquals(this.source.double_("byte:" + value0), value);
+        assertEquals(this.source.double_("short:" + value0), value);
+        assertEquals(this.source.double_("int:" + value0), value);
+        assertEquals(this.source.double_("long:" + value0), value);
+        assertEquals(this.source.double_("float:" + value0), value);
+        assertEquals(this.source.double_("double:" + value0), value);
+
+        final Double min = -Double.MAX_VALUE;
+        assertEquals(this.source.double_("double:" + min), min);
+
+        final Double max = Double.MAX_VALUE;
+        assertEquals(this.source.double_("double:" + max), max);
+
+        final Double tiny = Double.MIN_VALUE;
+        assertEquals(this.source.double_("double:" + tiny), tiny);
+
+        assertEquals(this.source.double_("long:" + Long.MIN_VALUE), (Double) (double) Long.MIN_VALUE);
+    }
+
+    @Test
+    public void testDoubleNullValue() {
+        assertNull(this.source.double_(NULL));
+    }
+
+    @Test(expectedExceptions = KfgMissingKeyException.class)
+    public void testDoubleMissingValueThrowsException() {
+        this.source.double_(MISSING);
+    }
+
+    // --------------------------------- INTEGRAL BOUNDS
+
+    @Test
+    public void testIntegralBounds() {
+        assertEquals(this.source.byte_("long:" + Byte.MIN_VALUE), (Byte) Byte.MIN_VALUE);
+        assertEquals(this.source.byte_("long:" + Byte.MAX_VALUE), (Byte) Byte.MAX_VALUE);
+        assertEquals(this.source.short_("long:" + Short.MIN_VALUE), (Short) Short.MIN_VALUE);
+        assertEquals(this.source.short_("long:" + Short.MAX_VALUE), (Short) Short.MAX_VALUE);
+        assertEquals(this.source.int_("long:" + Integer.MIN_VALUE), (Integer) Integer.MIN_VALUE);
+        assertEquals(this.source.int_("long:" + Integer.MAX_VALUE), (Integer) Integer.MAX_VALUE);
+    }
+
+    @Test(expectedExceptions = KfgTypeException.class)
+    public void testByteBelowMinThrowsException() {
+        this.source.byte_("long:" + (Byte.MIN_VALUE - 1));
+    }
+
+    @Test(expectedExceptions = KfgTypeException.class)
+    public void testShortAboveMaxThrowsException() {
+        this.source.short_("long:" + (Short.MAX_VALUE + 1));
+    }
+
+    @Test(expectedExceptions = KfgTypeException.class)
+    public void testIntBelowMinThrowsException() {
+        this.source.int_("long:" + (Integer.MIN_VALUE - 1L));
+    }
+
+    @Test(expectedExceptions = KfgTypeException.class)
+    public void testLongFloatValueThrowsException() {
+        this.source.long_("float:1.0");
+    }
+
     // --------------------------------- LIST
 
     @Test
@@ -506,10 +616,95 @@ public class SourceTest {
         }));
     }
 
+    @Test
+    public void testListIsValidatedOnce() {
+        this.listValue = Arrays.asList("a", "b");
+        final List<String> first = this.source.list("any", Kind.STRING);
+
+        // Sources are immutable, the already validated list is returned.
+        this.listValue = Arrays.asList(1, 2);
+        assertSame(this.source.list("any", Kind.STRING), first);
+    }
+
+    @Test(expectedExceptions = KfgTypeException.class)
+    public void testListOfMutableElementsIsValidatedOnEveryRead() {
+        final Kind<StringBuilder> kind = Kind.of(StringBuilder.class);
+        this.listValue = Collections.singletonList(new StringBuilder());
+        this.source.list("any", kind);
+
+        this.listValue = Collections.singletonList("not a string builder");
+        this.source.list("any", kind);
+    }
+
+    @Test
+    public void testListDefaultValue() {
+        final List<String> def = Collections.singletonList("def");
+        assertSame(this.source.list(MISSING, Kind.STRING, def), def);
+    }
+
     @Test(expectedExceptions = KfgMissingKeyException.class)
     public void testListMissingValueThrowsException() {
         this.source.list(MISSING, new Kind<Object>() {
         });
     }
 
+    // --------------------------------- LIST AND SET ELEMENT BOUNDS
+
+    private static final String BOUNDS = "{" +
+        "\"byte\": [127, -128], \"byteOver\": [1, 128], \"byteUnder\": [-129]," +
+        " \"short\": [32767, -32768], \"shortOver\": [32768], \"shortUnder\": [-32769]," +
+        " \"int\": [2147483647, -2147483648], \"intOver\": [2147483648], \"intUnder\": [-2147483649]," +
+        " \"long\": [9223372036854775807, -9223372036854775808]," +
+        " \"longOver\": [9223372036854775808], \"longUnder\": [-9223372036854775809]," +
+        " \"float\": [3.4028234663852886E38, -3.4028234663852886E38, 1.5]," +
+        " \"floatOver\": [1.0e300], \"floatUnder\": [-1.0e300]" +
+        "}";
+
+    /**
+     * Each source, json is valid yaml too.
+     */
+    private static List<Source> boundsSources() {
+        return Arrays.asList(
+            new ExtJacksonJsonSource("jackson", BOUNDS),
+            new ExtGsonJsonSource("gson", BOUNDS),
+            new ExtYamlSource("yaml", BOUNDS));
+    }
+
+    @Test
+    public void testCollectionElementBounds() {
+        final List<Kind<?>> kinds = Arrays.asList(Kind.BYTE, Kind.SHORT, Kind.INT, Kind.LONG, Kind.FLOAT);
+        final List<String> keys = Arrays.asList("byte", "short", "int", "long", "float");
+        final List<List<?>> expected = Arrays.asList(
+            Arrays.asList(Byte.MAX_VALUE, Byte.MIN_VALUE),
+            Arrays.asList(Short.MAX_VALUE, Short.MIN_VALUE),
+            Arrays.asList(Integer.MAX_VALUE, Integer.MIN_VALUE),
+            Arrays.asList(Long.MAX_VALUE, Long.MIN_VALUE),
+            Arrays.asList(Float.MAX_VALUE, -Float.MAX_VALUE, 1.5F));
+
+        for (final Source source : boundsSources())
+            for (int i = 0; i < kinds.size(); i++) {
+                final Kind<?> kind = kinds.get(i);
+                final String key = keys.get(i);
+                assertEquals(source.name() + ": " + key, expected.get(i), source.list(key, kind));
+                assertEquals(source.name() + ": " + key, new HashSet<>(expected.get(i)), source.set(key, kind));
+
+                for (final String bad : Arrays.asList(key + "Over", key + "Under")) {
+                    assertOutOfBounds(source, bad, () -> source.list(bad, kind));
+                    assertOutOfBounds(source, bad, () -> source.set(bad, kind));
+                }
+            }
+    }
+
+    private static void assertOutOfBounds(final Source source,
+                                          final String key,
+                                          final Runnable read) {
+        try {
+            read.run();
+            fail(source.name() + ": " + key);
+        }
+        catch (final KfgMissingKeyException | KfgTypeException e) {
+            // expected, gson says it has no such list, the others fail on read.
+        }
+    }
+
 }
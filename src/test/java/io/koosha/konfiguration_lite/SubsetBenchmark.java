@@ -0,0 +1,83 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.ext.v8.ExtJacksonJsonSource;
+import io.koosha.konfiguration_lite.ext.v8.ExtYamlSource;
+
+/**
+ * Hand rolled timing of reads through a deep {@link SubsetView}, against
+ * reads of top level keys and of the same deep keys read in full. Not a
+ * test, run its main method with jackson and snakeyaml on the class path.
+ * Numbers are rough, there is no JMH setup in the build.
+ */
+public final class SubsetBenchmark {
+
+    private static final String DEEP = "app.tenants.acme.services.billing";
+    private static final int KEYS = 64;
+    private static final int READS = 2_000_000;
+
+    private static volatile long sink;
+
+    private SubsetBenchmark() {
+    }
+
+    private static String keys() {
+        final StringBuilder keys = new StringBuilder("{");
+        for (int k = 0; k < KEYS; k++)
+            keys.append(k == 0 ? "" : ", ").append("\"k").append(k).append("\": ").append(k);
+        return keys.append('}').toString();
+    }
+
+    /**
+     * The same keys at the top level and under {@link #DEEP}. Json is valid
+     * yaml.
+     */
+    private static String document() {
+        String deep = keys();
+        final String[] parts = DEEP.split("\\.");
+        for (int i = parts.length - 1; i >= 0; i--)
+            deep = "{\"" + parts[i] + "\": " + deep + "}";
+        final String top = keys();
+        return top.substring(0, top.length() - 1) + ", " + deep.substring(1);
+    }
+
+    /**
+     * @return nanoseconds per read.
+     */
+    private static double read(final Konfiguration konfiguration,
+                               final String prefix) {
+        final String[] keys = new String[KEYS];
+        for (int k = 0; k < KEYS; k++)
+            keys[k] = prefix + "k" + k;
+
+        final long start = System.nanoTime();
+        long sum = 0;
+        for (int i = 0; i < READS; i++)
+            sum += konfiguration.int_(keys[i & (KEYS - 1)]);
+        sink += sum;
+        return (System.nanoTime() - start) / (double) READS;
+    }
+
+    private static void run(final Source source,
+                            final boolean report) {
+        final double top = read(source, "");
+        final double full = read(source, DEEP + ".");
+        final double subset = read(new SubsetView("subset", source, DEEP), "");
+        // Not a source, so the subset prepends the base key to every read.
+        final double prefixing = read(new SubsetView("tracked", new TrackingView(source), DEEP), "");
+        if (report)
+            System.out.printf("%s: top level %.0f ns, full deep key %.0f ns, deep subset %.0f ns," +
+                " prefixing deep subset %.0f ns%n", source.name(), top, full, subset, prefixing);
+    }
+
+    public static void main(final String... args) {
+        final String document = document();
+        final Source jackson = new ExtJacksonJsonSource("jackson", document);
+        final Source yaml = new ExtYamlSource("yaml", document);
+
+        for (int round = 0; round < 3; round++) {
+            run(jackson, round == 2);
+            run(yaml, round == 2);
+        }
+    }
+
+}
@@ -0,0 +1,138 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.ext.v8.ExtFrozenSource;
+import io.koosha.konfiguration_lite.ext.v8.ExtJacksonJsonSource;
+import io.koosha.konfiguration_lite.ext.v8.ExtYamlSource;
+import io.koosha.konfiguration_lite.index.RadixKeyIndex;
+import io.koosha.konfiguration_lite.type.Kind;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Test for {@link SubsetView}, over sources {@link Source#descend(String)
+ * descending} into its base key and konfigurations which do not.
+ */
+public class SubsetViewTest {
+
+    private static final String JSON = "{" +
+        "\"db\": {\"port\": 5432, \"pool\": {\"size\": 8, \"modes\": [\"a\", \"b\"]}}," +
+        " \"name\": \"orders\"" +
+        "}";
+
+    private static final String YAML = "" +
+        "db:\n" +
+        "  port: 5432\n" +
+        "  pool:\n" +
+        "    size: 8\n" +
+        "    modes: [a, b]\n" +
+        "name: orders\n";
+
+    private static List<Konfiguration> konfigurations() {
+        final Source json = new ExtJacksonJsonSource("json", JSON);
+        final Source yaml = new ExtYamlSource("yaml", YAML);
+        final Source frozen = new ExtFrozenSource(json, RadixKeyIndex::new);
+        // TrackingView is no source, its subsets prepend the base key.
+        return Arrays.asList(json, yaml, frozen, new TrackingView(json), new TrackingView(yaml));
+    }
+
+    @Test
+    public void testDescend() {
+        final Source json = new ExtJacksonJsonSource("json", JSON);
+        final Source yaml = new ExtYamlSource("yaml", YAML);
+        for (final String key : Arrays.asList("db", "db.pool", "missing")) {
+            assertNotNull(json.descend(key), key);
+            assertNotNull(yaml.descend(key), key);
+        }
+        assertEquals(json.descend("db.pool").int_("size"), Integer.valueOf(8));
+        assertEquals(yaml.descend("db.pool").int_("size"), Integer.valueOf(8));
+    }
+
+    @Test
+    public void testReads() {
+        for (final Konfiguration k : konfigurations()) {
+            final Konfiguration db = new SubsetView("db", k, "db");
+            assertEquals(db.int_("port"), Integer.valueOf(5432), k.name());
+            assertEquals(db.int_("pool.size"), Integer.valueOf(8), k.name());
+            assertEquals(db.list("pool.modes", Kind.STRING), Arrays.asList("a", "b"), k.name());
+            assertFalse(db.has("name", Kind.STRING), k.name());
+            assertEquals(db.string("name", "def"), "def", k.name());
+
+            // A trailing dot is the same base key.
+            assertEquals(new SubsetView("db", k, "db.").int_("port"), Integer.valueOf(5432), k.name());
+        }
+    }
+
+    @Test
+    public void testNestedSubsets() {
+        for (final Konfiguration k : konfigurations()) {
+            final Konfiguration pool = new SubsetView("db", k, "db").subset("pool");
+            assertEquals(pool.int_("size"), Integer.valueOf(8), k.name());
+            assertEquals(pool.keys(), new HashSet<>(Arrays.asList("modes", "size")), k.name());
+            assertEquals(new SubsetView("db.pool", k, "db.pool").int_("size"), Integer.valueOf(8), k.name());
+        }
+    }
+
+    @Test
+    public void testMissingAndLeafBaseKeys() {
+        for (final Konfiguration k : konfigurations()) {
+            for (final String baseKey : Arrays.asList("missing", "name", "db.port")) {
+                final Konfiguration subset = new SubsetView(baseKey, k, baseKey);
+                assertFalse(subset.has("x", Kind.INT), k.name() + " " + baseKey);
+                assertNull(subset.int_("x", null), k.name() + " " + baseKey);
+                try {
+                    subset.int_("x");
+                    fail("expected failure: " + k.name() + " " + baseKey);
+                }
+                catch (final KfgMissingKeyException e) {
+                    assertEquals(e.key(), baseKey + ".x", k.name());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFailuresNameTheWholeKey() {
+        for (final Konfiguration k : konfigurations()) {
+            final Konfiguration pool = new SubsetView("db", k, "db").subset("pool");
+            try {
+                pool.int_("zz");
+                fail("expected failure: " + k.name());
+            }
+            catch (final KfgMissingKeyException e) {
+                assertEquals(e.key(), "db.pool.zz", k.name());
+            }
+            try {
+                pool.int_("modes");
+                fail("expected failure: " + k.name());
+            }
+            catch (final KfgMissingKeyException | KfgTypeException e) {
+                assertEquals(e.key(), "db.pool.modes", k.name());
+            }
+        }
+    }
+
+    @Test
+    public void testMalformedBaseKey() {
+        final Konfiguration json = new ExtJacksonJsonSource("json", JSON);
+        for (final String baseKey : Arrays.asList(".", ".db", "db..pool")) {
+            try {
+                new SubsetView("json", json, baseKey);
+                fail("expected failure: " + baseKey);
+            }
+            catch (final KfgIllegalArgumentException e) {
+                assertTrue(e.getMessage().contains("dot"), e.getMessage());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.ext.v8.ExtJacksonJsonSource;
+import io.koosha.konfiguration_lite.type.Kind;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Test for {@link TrackingView}
+ */
+public class TrackingViewTest {
+
+    private static final String JSON = "{" +
+        "\"db\": {\"port\": 5432, \"name\": \"orders\", \"pool\": {\"min\": 1, \"max\": 8}}," +
+        " \"limits\": [10, 20]," +
+        " \"other\": true" +
+        "}";
+
+    private TrackingView view() {
+        return new TrackingView(new ExtJacksonJsonSource("json", JSON));
+    }
+
+    @Test
+    public void testReadsAreTracked() {
+        final TrackingView view = this.view();
+
+        assertEquals(view.int_("db.port"), Integer.valueOf(5432));
+        assertEquals(view.list("limits", Kind.INT), Arrays.asList(10, 20));
+        assertEquals(view.subset("db").string("name"), "orders");
+
+        assertEquals(view.accessed(), new HashSet<>(Arrays.asList("db.port", "limits", "db.name")));
+        assertEquals(view.unused(), new TreeSet<>(Arrays.asList("db.pool.max", "db.pool.min", "other")));
+    }
+
+    @Test
+    public void testParentReadMarksChildrenUsed() {
+        final TrackingView view = this.view();
+
+        view.custom("db.pool", Kind.of(Map.class));
+
+        assertEquals(view.unused(), new TreeSet<>(Arrays.asList("db.name", "db.port", "limits", "other")));
+    }
+
+    @Test
+    public void testHasDefaultsAndFailuresAreNotTracked() {
+        final TrackingView view = this.view();
+
+        assertTrue(view.has("db.port", Kind.INT));
+        assertEquals(view.string("db.user", "def"), "def");
+        assertEquals(view.int_("db.name", 7), Integer.valueOf(7));
+        try {
+            view.int_("db.missing");
+            fail("expected failure");
+        }
+        catch (final KfgMissingKeyException e) {
+            // expected
+        }
+
+        assertEquals(view.accessed(), Collections.emptySet());
+
+        assertEquals(view.int_("db.port", 7), Integer.valueOf(5432));
+        assertEquals(view.accessed(), Collections.singleton("db.port"));
+    }
+
+    @Test
+    public void testBatchIsTracked() {
+        final TrackingView view = this.view();
+
+        view.getAll(Collections.singletonMap("other", Kind.BOOL));
+
+        assertEquals(view.accessed(), Collections.singleton("other"));
+    }
+
+}
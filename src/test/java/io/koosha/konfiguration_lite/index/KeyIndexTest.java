@@ -0,0 +1,152 @@
+package io.koosha.konfiguration_lite.index;
+
+import io.koosha.konfiguration_lite.KfgIllegalArgumentException;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test for {@link PerfectHashKeyIndex}, {@link RadixKeyIndex} and
+ * {@link HashMapKeyIndex}
+ */
+public class KeyIndexTest {
+
+    private static final List<Function<Collection<String>, KeyIndex>> INDEXERS =
+        Arrays.asList(PerfectHashKeyIndex::new, RadixKeyIndex::new, HashMapKeyIndex::new);
+
+    private static final List<String> LIMITS = Arrays.asList(
+        "rps", "burst", "connections", "payload.max-bytes", "payload.max-items",
+        "timeout.read-ms", "timeout.write-ms", "quota.daily", "quota.monthly", "enabled");
+
+    private static List<String> keys(final int count) {
+        final List<String> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            keys.add("tenants.t" + (i / 100) + ".limits.k" + (i % 100));
+        return keys;
+    }
+
+    @Test
+    public void testEveryKeyHasDistinctPosition() {
+        final List<String> keys = keys(20_000);
+        for (final Function<Collection<String>, KeyIndex> indexer : INDEXERS) {
+            final KeyIndex index = indexer.apply(keys);
+
+            assertEquals(index.size(), keys.size());
+            final boolean[] taken = new boolean[keys.size()];
+            for (final String key : keys) {
+                final int position = index.indexOf(new String(key.toCharArray()));
+                assertFalse(taken[position], key);
+                taken[position] = true;
+                assertEquals(index.keyAt(position), key);
+            }
+        }
+    }
+
+    @Test
+    public void testMissingKey() {
+        for (final Function<Collection<String>, KeyIndex> indexer : INDEXERS) {
+            final KeyIndex index = indexer.apply(keys(1000));
+            assertEquals(index.indexOf("tenants.t0.limits"), -1);
+            assertEquals(index.indexOf(""), -1);
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        for (final Function<Collection<String>, KeyIndex> indexer : INDEXERS) {
+            final KeyIndex index = indexer.apply(Collections.emptyList());
+            assertEquals(index.size(), 0);
+            assertEquals(index.indexOf("a"), -1);
+        }
+    }
+
+    @Test(expectedExceptions = KfgIllegalArgumentException.class)
+    public void testDuplicateKeyThrowsExceptionPerfectHash() {
+        new PerfectHashKeyIndex(Arrays.asList("a", "b", "a"));
+    }
+
+    @Test(expectedExceptions = KfgIllegalArgumentException.class)
+    public void testDuplicateKeyThrowsExceptionRadix() {
+        new RadixKeyIndex(Arrays.asList("a", "b", "a"));
+    }
+
+    @Test(expectedExceptions = KfgIllegalArgumentException.class)
+    public void testDuplicateKeyThrowsExceptionHashMap() {
+        new HashMapKeyIndex(Arrays.asList("a", "b", "a"));
+    }
+
+    @Test
+    public void testKeysSharingHashCode() {
+        // All of these have the same hash code.
+        final List<String> keys = Arrays.asList("AaAa", "AaBB", "BBAa", "BBBB", "x");
+        final KeyIndex index = new PerfectHashKeyIndex(keys);
+
+        for (final String key : keys)
+            assertEquals(index.keyAt(index.indexOf(key)), key);
+        assertEquals(index.indexOf("Aa"), -1);
+        assertTrue(index.indexOf("BBBB") >= 0);
+    }
+
+    @Test
+    public void testRadixPositionsAreSorted() {
+        final RadixKeyIndex index = new RadixKeyIndex(Arrays.asList("ab", "a.c.d", "", "a", "a.b"));
+        final List<String> sorted = new ArrayList<>();
+        for (int i = 0; i < index.size(); i++)
+            sorted.add(index.keyAt(i));
+        assertEquals(sorted, Arrays.asList("", "a", "a.b", "a.c.d", "ab"));
+    }
+
+    @Test
+    public void testRadixDescend() {
+        final RadixKeyIndex index = new RadixKeyIndex(Arrays.asList("a", "a.b", "a.c.d", "a.c.e", "ab.x"));
+
+        final RadixKeyIndex a = index.descend("a");
+        assertNotNull(a);
+        assertEquals(a.size(), 3);
+        assertEquals(a.keyAt(0), "b");
+        assertEquals(a.keyAt(2), "c.e");
+        assertEquals(a.indexOf("c.d"), 1);
+        assertEquals(a.indexOf(""), -1);
+        assertEquals(a.indexOf("x"), -1);
+        assertEquals(a.base(), 1);
+
+        final RadixKeyIndex c = a.descend("c");
+        assertNotNull(c);
+        assertEquals(c.size(), 2);
+        assertEquals(c.indexOf("e"), 1);
+        assertEquals(c.base(), 2);
+
+        assertNull(index.descend("a.b"));
+        assertNull(index.descend("x"));
+        assertEquals(index.descend("ab").keyAt(0), "x");
+    }
+
+    @Test
+    public void testRadixFootprintOnLargeFixture() {
+        final List<String> keys = new ArrayList<>(500_000);
+        for (int tenant = 0; tenant < 50_000; tenant++)
+            for (final String limit : LIMITS)
+                keys.add("tenants.tenant-" + tenant + ".limits." + limit);
+
+        final KeyIndex radix = new RadixKeyIndex(keys);
+        final KeyIndex hash = new HashMapKeyIndex(keys);
+
+        assertEquals(radix.size(), 500_000);
+        final String key = "tenants.tenant-49999.limits.quota.daily";
+        assertEquals(radix.keyAt(radix.indexOf(key)), key);
+        assertTrue(radix.footprint() * 3 < hash.footprint(),
+            "radix=" + radix.footprint() + ", hash=" + hash.footprint());
+    }
+
+}
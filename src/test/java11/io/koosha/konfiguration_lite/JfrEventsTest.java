@@ -0,0 +1,97 @@
+package io.koosha.konfiguration_lite;
+
+import io.koosha.konfiguration_lite.ext.v8.ExtJacksonJsonSource;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Test for the Java 11 {@link JfrEvents}
+ */
+public class JfrEventsTest {
+
+    private static final String JSON = "{\"db\": {\"host\": \"a\", \"port\": 1}}";
+
+    private static List<RecordedEvent> record(final Runnable action) throws IOException {
+        final Path file = Files.createTempFile("konfiguration", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable(JfrEvents.LOAD);
+                recording.enable(JfrEvents.RELOAD);
+                recording.enable(JfrEvents.READ).withThreshold(Duration.ZERO);
+                recording.start();
+                action.run();
+                recording.stop();
+                recording.dump(file);
+            }
+            return RecordingFile.readAllEvents(file);
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
+    private static List<RecordedEvent> ofType(final List<RecordedEvent> events,
+                                              final String type) {
+        return events.stream()
+                     .filter(event -> event.getEventType().getName().equals(type))
+                     .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testLoad() throws IOException {
+        final List<RecordedEvent> loads = ofType(record(() -> new ExtJacksonJsonSource("json", JSON)), JfrEvents.LOAD);
+
+        assertEquals(loads.size(), 1);
+        assertEquals(loads.get(0).getString("source"), "json");
+        assertEquals(loads.get(0).getString("format"), "json");
+        assertEquals(loads.get(0).getLong("bytes"), JSON.length());
+    }
+
+    @Test
+    public void testReadIsRecordedOnce() throws IOException {
+        final Source source = new ExtJacksonJsonSource("json", JSON);
+        final ReloadableKonfiguration reloadable = new ReloadableKonfiguration(source);
+        final InterpolatingView interpolating = new InterpolatingView(reloadable, name -> null);
+
+        // Each through a chain of views, recorded by the source alone.
+        final List<RecordedEvent> reads = ofType(record(() -> {
+            source.string("db.host");
+            reloadable.subset("db").string("host");
+            new TrackingView(source).subset("db").int_("port");
+            interpolating.subset("db").string("host");
+            // Read from the source descended into db.
+            new SubsetView("db", source, "db").int_("port");
+        }), JfrEvents.READ);
+
+        assertEquals(reads.size(), 5);
+        for (final RecordedEvent read : reads)
+            assertEquals(read.getString("source"), "json");
+        assertEquals(reads.get(1).getString("key"), "db.host");
+        assertEquals(reads.get(2).getString("kind"), Integer.class.getName());
+        assertEquals(reads.get(4).getString("key"), "db.port");
+    }
+
+    @Test
+    public void testReload() throws IOException {
+        final ReloadableKonfiguration reloadable = new ReloadableKonfiguration(new ExtJacksonJsonSource("json", JSON));
+
+        final List<RecordedEvent> reloads = ofType(record(() -> reloadable.swap(
+            new ExtJacksonJsonSource("json", "{\"db\": {\"host\": \"b\", \"port\": 1, \"user\": \"u\"}}"))),
+            JfrEvents.RELOAD);
+
+        assertEquals(reloads.size(), 1);
+        assertEquals(reloads.get(0).getLong("changedKeys"), 2);
+    }
+
+}